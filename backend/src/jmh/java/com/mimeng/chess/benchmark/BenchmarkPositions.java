@@ -0,0 +1,37 @@
+package com.mimeng.chess.benchmark;
+
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.Fen;
+
+/**
+ * 基准测试共用的局面：标准开局以及几个常用于 perft 校验的战术局面
+ */
+final class BenchmarkPositions {
+  static final String MIDDLEGAME = "r1ba1a3/4kn3/2n1b4/pNp1p1p1p/4c4/6P2/P1P2R2P/1CcC5/9/2BAKAB2 w - - 0 1";
+  static final String ROOK_ATTACK = "5a3/3k5/3aR4/9/5r3/5n3/9/3A1A3/5K3/2BC2B2 w - - 0 1";
+  static final String CANNON_SCREEN = "CRN1k1b2/3ca4/4ba3/9/2nr5/9/9/4B4/4A4/4KA3 w - - 0 1";
+  static final String HORSE_CHECKS = "R1N1k1b2/9/3aba3/9/2nr5/2B6/9/4B4/4A4/4KA3 w - - 0 1";
+
+  private BenchmarkPositions() {
+  }
+
+  /**
+   * 按 @Param 中的名称取得局面
+   */
+  static ChessBoard load(String name) {
+    switch (name) {
+      case "start":
+        return Fen.parse(Fen.START);
+      case "middlegame":
+        return Fen.parse(MIDDLEGAME);
+      case "rookAttack":
+        return Fen.parse(ROOK_ATTACK);
+      case "cannonScreen":
+        return Fen.parse(CANNON_SCREEN);
+      case "horseChecks":
+        return Fen.parse(HORSE_CHECKS);
+      default:
+        throw new IllegalArgumentException("未知局面: " + name);
+    }
+  }
+}
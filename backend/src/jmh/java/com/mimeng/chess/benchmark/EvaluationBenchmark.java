@@ -0,0 +1,84 @@
+package com.mimeng.chess.benchmark;
+
+import com.mimeng.chess.engine.Evaluator;
+import com.mimeng.chess.engine.nnue.Accumulator;
+import com.mimeng.chess.engine.nnue.Network;
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.Fen;
+import com.mimeng.chess.entity.chess.GameLogic;
+import com.mimeng.chess.entity.chess.MoveGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 局面评估的速度（每秒评估次数）：子力位置分对评估网络（标量计算、SIMD 计算）
+ * 沿一局固定的对局逐层评估，网络的累加器按走法增量更新，与搜索中的用法一致。
+ * 网络使用随机权重，计算量与训练好的权重相同；nnueVector 需要 --add-modules jdk.incubator.vector（./gradlew jmh 已配置）。
+ * 棋力对比见自对弈：./gradlew selfPlay -PselfPlayNetwork=nnue.bin
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class EvaluationBenchmark {
+  private static final int PLIES = 64;
+
+  @Param({ "pst", "nnueScalar", "nnueVector" })
+  public String evaluator;
+
+  @Param({ "128", "256" })
+  public int hidden;
+
+  private final ChessBoard[] boards = new ChessBoard[PLIES];
+  private final int[] moves = new int[PLIES];
+  private Accumulator accumulator;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Network network = Network.random(hidden, 32, 1);
+    if (evaluator.equals("nnueScalar")) {
+      network = network.withScalarKernel();
+    } else if (evaluator.equals("nnueVector") && !network.isVectorized()) {
+      throw new IllegalStateException("未加载 jdk.incubator.vector 模块");
+    }
+    accumulator = new Accumulator(network, PLIES);
+
+    // 固定种子的随机对局，前几步之后优先吃子，局面覆盖开局到中局
+    ChessBoard board = Fen.parse(Fen.START);
+    Random random = new Random(42);
+    int[] buffer = new int[MoveGenerator.MAX_MOVES];
+    for (int ply = 0; ply < PLIES; ply++) {
+      boards[ply] = board.copy();
+      int count = MoveGenerator.generate(board, board.getSideToMove(), buffer, 0);
+      int move;
+      do {
+        move = buffer[random.nextInt(count)];
+      } while (!GameLogic.isLegal(board, move));
+      moves[ply] = move;
+      board.makeMove(move);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PLIES)
+  public int evaluate() {
+    int sum = 0;
+    if (evaluator.equals("pst")) {
+      for (ChessBoard board : boards) {
+        sum += Evaluator.evaluate(board);
+      }
+      return sum;
+    }
+    accumulator.reset(boards[0]);
+    for (int ply = 0; ply < PLIES; ply++) {
+      if (ply > 0) {
+        accumulator.push(ply - 1, moves[ply - 1]);
+      }
+      sum += accumulator.evaluate(ply, boards[ply].getSideToMove());
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,61 @@
+package com.mimeng.chess.benchmark;
+
+import com.mimeng.chess.engine.ChessEngine;
+import com.mimeng.chess.engine.SearchLimits;
+import com.mimeng.chess.engine.SearchResult;
+import com.mimeng.chess.engine.TranspositionTable;
+import com.mimeng.chess.entity.chess.ChessBoard;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lazy SMP 的 time-to-depth：固定局面搜索到固定深度所需的时间
+ * 每次调用前清空置换表；同一局面下 threads=1 与 threads=N 的耗时之比即为 N 线程的加速比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class LazySmpBenchmark {
+
+  @Param({ "start", "middlegame", "rookAttack", "cannonScreen", "horseChecks" })
+  public String position;
+
+  @Param({ "1", "2", "4", "8" })
+  public int threads;
+
+  @Param({ "5" })
+  public int depth;
+
+  private ChessEngine engine;
+  private ChessBoard board;
+  private SearchLimits limits;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    engine = new ChessEngine(new TranspositionTable(64), threads - 1, threads);
+    board = BenchmarkPositions.load(position);
+    limits = SearchLimits.of(depth, TimeUnit.MINUTES.toMillis(10), SearchLimits.UNLIMITED_NODES).withThreads(threads);
+  }
+
+  @Setup(Level.Invocation)
+  public void clearTable() {
+    engine.getTranspositionTable().clear();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    engine.close();
+  }
+
+  @Benchmark
+  public int timeToDepth() {
+    SearchResult result = engine.search(board, limits, null);
+    if (result.getDepth() < depth && !result.isMate()) {
+      throw new IllegalStateException("未搜索到目标深度: " + result);
+    }
+    return result.getBestMove();
+  }
+}
@@ -0,0 +1,94 @@
+package com.mimeng.chess.benchmark;
+
+import com.mimeng.chess.entity.chess.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 合法性检查基准：旧的"复制棋盘后走子"方式 vs 原地走子/撤销
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class LegalityCheckBenchmark {
+
+  @Param({ "opening", "middlegame" })
+  public String position;
+
+  private ChessBoard board;
+  private PlayerColor side;
+  private List<Move> pseudoMoves;
+  private int[] buffer;
+
+  @Setup
+  public void setUp() {
+    board = new ChessBoard();
+    side = PlayerColor.RED;
+    if ("middlegame".equals(position)) {
+      int[][] line = {
+          { 7, 7, 7, 4 }, { 0, 7, 2, 6 }, { 9, 7, 7, 6 }, { 3, 6, 4, 6 },
+          { 9, 8, 9, 7 }, { 0, 1, 2, 2 }, { 6, 6, 5, 6 }, { 0, 2, 2, 4 } };
+      for (int[] m : line) {
+        board.makeMove(new Position(m[0], m[1]), new Position(m[2], m[3]));
+      }
+    }
+    pseudoMoves = board.getAllPossibleMoves(side);
+    buffer = new int[MoveGenerator.MAX_MOVES];
+  }
+
+  /**
+   * 旧实现：每个候选走法复制一次棋盘，并逐个询问对方棋子能否吃将
+   */
+  @Benchmark
+  public int copyBased() {
+    int legal = 0;
+    for (Move move : pseudoMoves) {
+      ChessBoard tempBoard = board.copy();
+      tempBoard.makeMove(move.getFrom(), move.getTo());
+      if (!legacyIsInCheck(tempBoard, side)) {
+        legal++;
+      }
+    }
+    return legal;
+  }
+
+  /**
+   * 新实现：打包走法原地执行、检查后撤销
+   */
+  @Benchmark
+  public int inPlace() {
+    int count = MoveGenerator.generate(board, PieceCode.sideOf(side), buffer, 0);
+    int legal = 0;
+    for (int i = 0; i < count; i++) {
+      if (GameLogic.isLegal(board, buffer[i])) {
+        legal++;
+      }
+    }
+    return legal;
+  }
+
+  @Benchmark
+  public void legalMovesList(Blackhole bh) {
+    bh.consume(GameLogic.getLegalMoves(board, side));
+  }
+
+  private static boolean legacyIsInCheck(ChessBoard board, PlayerColor color) {
+    int kingSq = board.getKingSquare(PieceCode.sideOf(color));
+    if (kingSq < 0) {
+      return false;
+    }
+    Position king = Position.of(Square.row(kingSq), Square.col(kingSq));
+    int opponent = 1 - PieceCode.sideOf(color);
+    for (int i = 0; i < board.getPieceCount(opponent); i++) {
+      int sq = board.getPieceSquare(opponent, i);
+      Position from = Position.of(Square.row(sq), Square.col(sq));
+      if (board.getPieceAt(from).canMoveTo(from, king, board)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
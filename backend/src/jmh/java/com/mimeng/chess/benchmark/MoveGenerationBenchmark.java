@@ -0,0 +1,63 @@
+package com.mimeng.chess.benchmark;
+
+import com.mimeng.chess.entity.chess.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 象棋核心常用操作的基准：走法生成、合法走法、将军检测、终局判断和棋盘复制
+ * 配合 gc profiler 同时观察吞吐量和每次操作的分配量
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class MoveGenerationBenchmark {
+
+  @Param({ "start", "middlegame", "rookAttack", "cannonScreen", "horseChecks" })
+  public String position;
+
+  private ChessBoard board;
+  private PlayerColor color;
+  private int side;
+  private int[] buffer;
+
+  @Setup
+  public void setUp() {
+    board = BenchmarkPositions.load(position);
+    side = board.getSideToMove();
+    color = PieceCode.colorOf(side);
+    buffer = new int[MoveGenerator.MAX_MOVES];
+  }
+
+  @Benchmark
+  public void getAllPossibleMoves(Blackhole bh) {
+    bh.consume(board.getAllPossibleMoves(color));
+  }
+
+  @Benchmark
+  public int generatePacked() {
+    return MoveGenerator.generate(board, side, buffer, 0);
+  }
+
+  @Benchmark
+  public void getLegalMoves(Blackhole bh) {
+    bh.consume(GameLogic.getLegalMoves(board, color));
+  }
+
+  @Benchmark
+  public boolean isInCheck() {
+    return GameLogic.isInCheck(board, color);
+  }
+
+  @Benchmark
+  public GameStatus checkGameStatus() {
+    return GameLogic.checkGameStatus(board, color);
+  }
+
+  @Benchmark
+  public ChessBoard copy() {
+    return board.copy();
+  }
+}
@@ -0,0 +1,45 @@
+package com.mimeng.chess.benchmark;
+
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.Perft;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Perft 基准：除每秒完成的 perft 次数外，通过辅助计数器报告每秒遍历的节点数
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class PerftBenchmark {
+
+  @Param({ "start", "middlegame", "rookAttack", "cannonScreen", "horseChecks" })
+  public String position;
+
+  @Param({ "3" })
+  public int depth;
+
+  private ChessBoard board;
+
+  /**
+   * 节点计数器，JMH 会将其折算为 nodes/s 输出
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Nodes {
+    public long nodes;
+  }
+
+  @Setup
+  public void setUp() {
+    board = BenchmarkPositions.load(position);
+  }
+
+  @Benchmark
+  public long perft(Nodes counter) {
+    long nodes = Perft.perft(board, depth);
+    counter.nodes += nodes;
+    return nodes;
+  }
+}
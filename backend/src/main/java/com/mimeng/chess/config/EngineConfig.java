@@ -0,0 +1,91 @@
+package com.mimeng.chess.config;
+
+import com.mimeng.chess.engine.AiSearchExecutor;
+import com.mimeng.chess.engine.ChessEngine;
+import com.mimeng.chess.engine.TranspositionTable;
+import com.mimeng.chess.engine.book.OpeningBook;
+import com.mimeng.chess.engine.nnue.Network;
+import com.mimeng.chess.engine.tablebase.Tablebases;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class EngineConfig {
+  private static final Logger logger = LoggerFactory.getLogger(EngineConfig.class);
+
+  @Bean
+  public TranspositionTable transpositionTable(@Value("${chess.engine.tt-size-mb:64}") int sizeMb) {
+    return new TranspositionTable(sizeMb); // 所有AI对局共享
+  }
+
+  @Bean
+  public Tablebases tablebases(@Value("${chess.engine.tablebase-path:}") String tablebasePath) {
+    if (tablebasePath.isBlank()) {
+      return Tablebases.empty();
+    }
+    try {
+      Tablebases tablebases = Tablebases.open(Path.of(tablebasePath));
+      logger.info("Loaded {} from {}", tablebases, tablebasePath);
+      return tablebases;
+    } catch (IOException | IllegalArgumentException e) {
+      logger.warn("Failed to load tablebases from {}: {}", tablebasePath, e.getMessage());
+      return Tablebases.empty();
+    }
+  }
+
+  @Bean
+  public ChessEngine chessEngine(TranspositionTable transpositionTable, Tablebases tablebases,
+      @Value("${chess.engine.max-helper-threads:0}") int maxHelperThreads,
+      @Value("${chess.engine.hard-threads:1}") int hardThreads,
+      @Value("${chess.engine.book-path:}") String bookPath,
+      @Value("${chess.engine.network-path:}") String networkPath) {
+    ChessEngine engine = new ChessEngine(transpositionTable, maxHelperThreads, hardThreads);
+    if (tablebases.size() > 0) {
+      engine.setTablebases(tablebases);
+    }
+    if (!bookPath.isBlank()) {
+      try {
+        OpeningBook book = OpeningBook.open(Path.of(bookPath));
+        engine.setOpeningBook(book);
+        logger.info("Loaded opening book {} ({} entries)", bookPath, book.size());
+      } catch (IOException | IllegalArgumentException e) {
+        // 开局库只是锦上添花，加载失败时照常搜索
+        logger.warn("Failed to load opening book {}: {}", bookPath, e.getMessage());
+      }
+    }
+    engine.setNetwork(loadNetwork(networkPath));
+    return engine;
+  }
+
+  /**
+   * 评估网络：优先读取配置的文件，否则读取 classpath 中的默认权重；都没有或加载失败时返回 null，使用子力位置分评估
+   */
+  private static Network loadNetwork(String networkPath) {
+    try {
+      Network network = networkPath.isBlank() ? Network.loadResource(Network.RESOURCE)
+          : Network.load(Path.of(networkPath));
+      if (network != null) {
+        logger.info("Loaded evaluation network {}", network);
+      }
+      return network;
+    } catch (IOException | IllegalArgumentException e) {
+      logger.warn("Failed to load evaluation network {}: {}", networkPath, e.getMessage());
+      return null;
+    }
+  }
+
+  @Bean
+  public AiSearchExecutor aiSearchExecutor(ChessEngine chessEngine,
+      @Value("${chess.engine.search-threads:2}") int searchThreads,
+      @Value("${chess.engine.queue-capacity:64}") int queueCapacity,
+      @Value("${chess.engine.ponder:true}") boolean ponder) {
+    AiSearchExecutor executor = new AiSearchExecutor(chessEngine, searchThreads, queueCapacity);
+    executor.setPonderEnabled(ponder);
+    return executor;
+  }
+}
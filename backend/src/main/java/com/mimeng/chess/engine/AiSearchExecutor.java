@@ -0,0 +1,417 @@
+package com.mimeng.chess.engine;
+
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.PlayerType;
+import com.mimeng.chess.entity.chess.RepetitionTracker;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AI 搜索调度器
+ * 固定线程数（即全局 CPU 预算）、有界队列，调用方（Socket.IO 事件线程）提交后立即返回，结果通过 CompletableFuture 异步给出。
+ * <ul>
+ * <li>每个搜索的截止时间从提交时算起，排队按截止时间先后执行（EDF），预算短的简单难度不会被困难难度的长搜索饿死</li>
+ * <li>开始执行时，排队耗掉的时间从预算中扣除；同时等待和执行的搜索数超过线程数时，按比例缩短每个搜索的时间片，
+ * 各难度之间保持原有的预算比例，所有对局的单步延迟都不超过其截止时间</li>
+ * <li>对局有棋钟时，单步预算不超过剩余用时的 1/{@value #CLOCK_MOVES_TO_GO}</li>
+ * <li>队列过半时降低搜索深度并改为单线程；队列满时不阻塞调用方，而是在调用线程上做一次只有一层的搜索</li>
+ * <li>后台思考（{@link Ponder}）只在有空闲线程时启动，排在所有正式搜索之后；
+ * 正式搜索提交时线程不够用，就抢占正在进行的后台思考，后台思考从不占用到期搜索的 CPU；
+ * 命中时思考转为正式搜索，从命中时起按正常的单步预算继续</li>
+ * </ul>
+ * 排队等待和搜索耗时按难度记录在直方图中，可查询分位数
+ */
+public class AiSearchExecutor implements AutoCloseable {
+  /**
+   * 排队后剩余的最短搜索时间（毫秒）
+   */
+  static final long MIN_TIME_MILLIS = 20;
+
+  /**
+   * 队列过半时的最大深度
+   */
+  static final int BUSY_DEPTH = 4;
+
+  /**
+   * 队列满时在调用线程上搜索的深度
+   */
+  static final int SATURATED_DEPTH = 1;
+
+  /**
+   * 按剩余用时分配单步预算时假设的剩余步数
+   */
+  static final int CLOCK_MOVES_TO_GO = 30;
+
+  /**
+   * 单次后台思考的最长时间（毫秒）
+   */
+  static final long MAX_PONDER_MILLIS = 60_000;
+
+  private final ChessEngine engine;
+  private final ThreadPoolExecutor pool;
+  private final int threads;
+  private final int queueCapacity;
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicInteger running = new AtomicInteger();
+  private final AtomicLong sequence = new AtomicLong();
+  private final Set<Ponder> pondering = ConcurrentHashMap.newKeySet();
+  private volatile boolean ponderEnabled = true;
+
+  private final LongAdder submitted = new LongAdder();
+  private final LongAdder degraded = new LongAdder();
+  private final LongAdder shed = new LongAdder();
+  private final LongAdder ponders = new LongAdder();
+  private final LongAdder preemptedPonders = new LongAdder();
+  private final LongAdder ponderHits = new LongAdder();
+  private final LatencyHistogram queueWait = new LatencyHistogram();
+  private final LatencyHistogram searchTime = new LatencyHistogram();
+  private final Map<PlayerType, LatencyHistogram> queueWaitByType = new EnumMap<>(PlayerType.class);
+  private final Map<PlayerType, LatencyHistogram> searchTimeByType = new EnumMap<>(PlayerType.class);
+
+  /**
+   * @param engine        引擎
+   * @param threads       搜索线程数
+   * @param queueCapacity 等待队列长度
+   * @throws IllegalArgumentException 参数不为正数
+   */
+  public AiSearchExecutor(ChessEngine engine, int threads, int queueCapacity) {
+    if (threads <= 0 || queueCapacity <= 0) {
+      throw new IllegalArgumentException("AI线程池配置错误: threads=" + threads + ", queueCapacity=" + queueCapacity);
+    }
+    this.engine = engine;
+    this.threads = threads;
+    this.queueCapacity = queueCapacity;
+    for (PlayerType type : PlayerType.values()) {
+      queueWaitByType.put(type, new LatencyHistogram());
+      searchTimeByType.put(type, new LatencyHistogram());
+    }
+    AtomicInteger threadCount = new AtomicInteger();
+    // 队列长度由 queued 计数限制，PriorityBlockingQueue 本身不会拒绝任务
+    this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new PriorityBlockingQueue<>(), runnable -> {
+          Thread thread = new Thread(runnable, "ai-search-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  /**
+   * 为指定难度的 AI 提交一次搜索，不阻塞
+   *
+   * @param board       局面快照，之后归搜索任务所有，调用方不得再修改
+   * @param type        AI 难度
+   * @param clockMillis 走棋方棋钟的剩余用时（毫秒），不计时为 0
+   * @param history     对局历史快照，可以为 null
+   */
+  public CompletableFuture<SearchResult> submit(ChessBoard board, PlayerType type, long clockMillis,
+      RepetitionTracker history) {
+    return schedule(board, limitsFor(type, clockMillis), history, type);
+  }
+
+  /**
+   * 指定难度的单步搜索限制，有棋钟时按剩余用时缩短时间预算
+   */
+  private SearchLimits limitsFor(PlayerType type, long clockMillis) {
+    SearchLimits limits = engine.limitsFor(type);
+    if (clockMillis > 0) {
+      long share = Math.max(MIN_TIME_MILLIS, clockMillis / CLOCK_MOVES_TO_GO);
+      limits = limits.withTimeMillis(Math.min(limits.getTimeMillis(), share));
+    }
+    return limits;
+  }
+
+  /**
+   * 以自定义限制提交一次搜索，不阻塞
+   *
+   * @param board   局面快照，之后归搜索任务所有，调用方不得再修改
+   * @param limits  搜索限制，其中的时间预算从提交时开始计算
+   * @param history 对局历史快照，可以为 null
+   */
+  public CompletableFuture<SearchResult> submit(ChessBoard board, SearchLimits limits, RepetitionTracker history) {
+    return schedule(board, limits, history, null);
+  }
+
+  /**
+   * 有空闲线程时为指定难度的 AI 启动后台思考，不阻塞
+   * 使用该难度的深度和节点限制、单线程，时间上限为 {@value #MAX_PONDER_MILLIS} 毫秒
+   *
+   * @param board   预测对手应着之后的局面，之后归思考任务所有，调用方不得再修改
+   * @param history 对局历史快照，可以为 null
+   * @return 后台思考；已关闭后台思考或没有空闲线程时返回 null
+   */
+  public Ponder ponder(ChessBoard board, PlayerType type, RepetitionTracker history) {
+    if (!ponderEnabled || queued.get() > 0 || running.get() + pondering.size() >= threads) {
+      return null;
+    }
+    SearchLimits limits = engine.limitsFor(type).withThreads(1).withTimeMillis(MAX_PONDER_MILLIS);
+    Ponder ponder = new Ponder(board.getZobristKey());
+    pondering.add(ponder);
+    ponders.increment();
+    pool.execute(new Task(board, limits, history, null, ponder.getResult(), ponder));
+    return ponder;
+  }
+
+  /**
+   * 对手走出了后台思考预测的应着：思考转为这一步的正式搜索，不再被抢占，从现在起按该难度正常的单步预算继续搜索，
+   * 已完成的迭代不必重搜，同样的用时能搜得更深；思考已自然结束（达到最大深度、节点上限或找到杀棋）时直接取其结果
+   *
+   * @param clockMillis 走棋方棋钟的剩余用时（毫秒），不计时为 0
+   * @return 搜索结果；思考已被抢占（结果比正常搜索浅）或没有可用结果时为 null，调用方应改为 {@link #submit} 正常搜索
+   */
+  public CompletableFuture<SearchResult> ponderHit(Ponder ponder, PlayerType type, long clockMillis) {
+    boolean active = pondering.remove(ponder);
+    if (!active && ponder.isStopped()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    ponderHits.increment();
+    CompletableFuture<SearchResult> result = ponder.hit(limitsFor(type, clockMillis).getTimeMillis());
+    if (!active) {
+      return result;
+    }
+    // 继续思考的线程计为执行中的正式搜索
+    running.incrementAndGet();
+    return result.whenComplete((searchResult, error) -> running.decrementAndGet());
+  }
+
+  /**
+   * 开启或关闭后台思考，关闭后 {@link #ponder} 总是返回 null
+   */
+  public void setPonderEnabled(boolean ponderEnabled) {
+    this.ponderEnabled = ponderEnabled;
+  }
+
+  /**
+   * 正式搜索加上后台思考超过线程数时，停止多出的后台思考
+   */
+  private void preemptPonders() {
+    int excess = running.get() + queued.get() + pondering.size() - threads;
+    for (Ponder ponder : pondering) {
+      if (excess <= 0) {
+        return;
+      }
+      if (pondering.remove(ponder)) {
+        ponder.stop();
+        preemptedPonders.increment();
+        excess--;
+      }
+    }
+  }
+
+  private CompletableFuture<SearchResult> schedule(ChessBoard board, SearchLimits limits,
+      RepetitionTracker history, PlayerType type) {
+    submitted.increment();
+    CompletableFuture<SearchResult> future = new CompletableFuture<>();
+    int depth = queued.incrementAndGet();
+    if (depth > queueCapacity) {
+      // 队列已满：在调用线程上只搜一层，开销只有几十个节点
+      queued.decrementAndGet();
+      shed.increment();
+      try {
+        future.complete(engine.search(board, limits.capDepth(SATURATED_DEPTH).withThreads(1), history));
+      } catch (Throwable e) {
+        future.completeExceptionally(e);
+      }
+      return future;
+    }
+
+    SearchLimits effective = limits;
+    if (depth * 2 > queueCapacity) {
+      effective = limits.capDepth(BUSY_DEPTH).withThreads(1);
+    }
+    if (effective != limits) {
+      degraded.increment();
+    }
+    preemptPonders();
+    pool.execute(new Task(board, effective, history, type, future, null));
+    return future;
+  }
+
+  /**
+   * 排队中的搜索任务，按截止时间排序，截止时间相同时先提交的先执行
+   * 后台思考的时间上限远大于正式搜索，所以总是排在最后
+   */
+  private final class Task implements Runnable, Comparable<Task> {
+    private final ChessBoard board;
+    private final SearchLimits limits;
+    private final RepetitionTracker history;
+    private final PlayerType type;
+    private final CompletableFuture<SearchResult> future;
+    private final Ponder ponder;
+    private final long submittedAt = System.nanoTime();
+    private final long deadline;
+    private final long order = sequence.getAndIncrement();
+
+    Task(ChessBoard board, SearchLimits limits, RepetitionTracker history, PlayerType type,
+        CompletableFuture<SearchResult> future, Ponder ponder) {
+      this.board = board;
+      this.limits = limits;
+      this.history = history;
+      this.type = type;
+      this.future = future;
+      this.ponder = ponder;
+      this.deadline = submittedAt + TimeUnit.MILLISECONDS.toNanos(limits.getTimeMillis());
+    }
+
+    @Override
+    public void run() {
+      if (ponder != null) {
+        runPonder();
+        return;
+      }
+      queued.decrementAndGet();
+      int active = running.incrementAndGet();
+      long start = System.nanoTime();
+      record(queueWait, queueWaitByType, start - submittedAt);
+      try {
+        // 等待和执行中的搜索超过线程数时，按比例缩短时间片
+        double load = (double) (active + queued.get()) / threads;
+        long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - start);
+        SearchLimits sliced = limits;
+        if (load > 1) {
+          remaining = (long) (remaining / load);
+          sliced = limits.withThreads(1);
+        }
+        future.complete(engine.search(board, sliced.withTimeMillis(Math.max(MIN_TIME_MILLIS, remaining)), history));
+      } catch (Throwable e) {
+        future.completeExceptionally(e);
+      } finally {
+        running.decrementAndGet();
+        record(searchTime, searchTimeByType, System.nanoTime() - start);
+      }
+    }
+
+    /**
+     * 后台思考不计入排队和执行中的搜索数，也不记录延迟
+     */
+    private void runPonder() {
+      try {
+        if (!ponder.isStopped()) {
+          future.complete(engine.search(board, limits, history, ponder::attach));
+        }
+      } catch (Throwable e) {
+        future.completeExceptionally(e);
+      } finally {
+        pondering.remove(ponder);
+        future.complete(null);
+      }
+    }
+
+    private void record(LatencyHistogram all, Map<PlayerType, LatencyHistogram> byType, long nanos) {
+      all.record(nanos);
+      if (type != null) {
+        byType.get(type).record(nanos);
+      }
+    }
+
+    @Override
+    public int compareTo(Task other) {
+      int byDeadline = Long.compare(deadline - other.deadline, 0);
+      return byDeadline != 0 ? byDeadline : Long.compare(order, other.order);
+    }
+  }
+
+  /**
+   * 当前排队的搜索数
+   */
+  public int getQueuedCount() {
+    return queued.get();
+  }
+
+  /**
+   * 正在执行的搜索数
+   */
+  public int getActiveCount() {
+    return running.get();
+  }
+
+  public long getSubmittedCount() {
+    return submitted.sum();
+  }
+
+  /**
+   * 因队列繁忙被降低深度的搜索数
+   */
+  public long getDegradedCount() {
+    return degraded.sum();
+  }
+
+  /**
+   * 因队列已满在调用线程上做浅层搜索的次数
+   */
+  public long getShedCount() {
+    return shed.sum();
+  }
+
+  /**
+   * 启动的后台思考次数
+   */
+  public long getPonderCount() {
+    return ponders.sum();
+  }
+
+  /**
+   * 被正式搜索抢占的后台思考次数
+   */
+  public long getPreemptedPonderCount() {
+    return preemptedPonders.sum();
+  }
+
+  /**
+   * 命中并转为正式搜索的后台思考次数
+   */
+  public long getPonderHitCount() {
+    return ponderHits.sum();
+  }
+
+  /**
+   * 正在进行的后台思考数
+   */
+  public int getActivePonderCount() {
+    return pondering.size();
+  }
+
+  /**
+   * 所有搜索的排队等待时间
+   */
+  public LatencyHistogram getQueueWait() {
+    return queueWait;
+  }
+
+  /**
+   * 指定难度的排队等待时间
+   */
+  public LatencyHistogram getQueueWait(PlayerType type) {
+    return queueWaitByType.get(type);
+  }
+
+  /**
+   * 所有搜索的执行时间
+   */
+  public LatencyHistogram getSearchTime() {
+    return searchTime;
+  }
+
+  /**
+   * 指定难度的执行时间
+   */
+  public LatencyHistogram getSearchTime(PlayerType type) {
+    return searchTimeByType.get(type);
+  }
+
+  /**
+   * 关闭线程池，排队中的搜索不再执行
+   */
+  @Override
+  public void close() {
+    pool.shutdownNow();
+  }
+}
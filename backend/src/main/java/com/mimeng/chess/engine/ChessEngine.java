@@ -0,0 +1,271 @@
+package com.mimeng.chess.engine;
+
+import com.mimeng.chess.engine.book.OpeningBook;
+import com.mimeng.chess.engine.nnue.Network;
+import com.mimeng.chess.engine.tablebase.Tablebases;
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.ChessGameState;
+import com.mimeng.chess.entity.chess.PackedMove;
+import com.mimeng.chess.entity.chess.PieceCode;
+import com.mimeng.chess.entity.chess.Player;
+import com.mimeng.chess.entity.chess.PlayerType;
+import com.mimeng.chess.entity.chess.RepetitionTracker;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * AI 引擎入口
+ * 每次搜索在棋盘副本上进行，不修改对局状态；所有搜索共享一张无锁置换表，可被多个房间并发使用。
+ * 多线程搜索采用 Lazy SMP：辅助线程与主线程搜索同一根局面，只通过置换表交换结果。
+ * 所有搜索同时占用的辅助线程总数有全局上限，名额不足时少开或不开辅助线程，从不等待。
+ * 设置了开局库时，库内局面直接按权重随机走库内走法，不再搜索；设置了残局库时，库内局面直接走残局库给出的最佳走法，
+ * 搜索中转入的库内残局也直接取精确分数。设置了评估网络时用网络代替子力位置分评估局面
+ */
+public class ChessEngine implements AutoCloseable {
+  /**
+   * 默认置换表大小（MB）
+   */
+  public static final int DEFAULT_TT_SIZE_MB = 16;
+
+  private final TranspositionTable table;
+  private final int hardThreads;
+  private final Semaphore helperPermits;
+  private final ExecutorService helperPool;
+  private volatile OpeningBook openingBook;
+  private volatile Tablebases tablebases;
+  private volatile Network network;
+  private volatile SearchOptions searchOptions = SearchOptions.DEFAULT;
+
+  /**
+   * 默认配置：16MB 置换表，困难难度单线程，辅助线程上限为 CPU 核数
+   */
+  public ChessEngine() {
+    this(new TranspositionTable(DEFAULT_TT_SIZE_MB), Runtime.getRuntime().availableProcessors(), 1);
+  }
+
+  /**
+   * @param table            共享的置换表
+   * @param maxHelperThreads 所有搜索同时使用的辅助线程总数上限，0 表示只做单线程搜索
+   * @param hardThreads      困难难度每次搜索使用的线程数（含主线程）
+   * @throws IllegalArgumentException 线程数配置不合法
+   */
+  public ChessEngine(TranspositionTable table, int maxHelperThreads, int hardThreads) {
+    if (maxHelperThreads < 0 || hardThreads <= 0) {
+      throw new IllegalArgumentException("搜索线程数配置错误: maxHelperThreads=" + maxHelperThreads
+          + ", hardThreads=" + hardThreads);
+    }
+    this.table = table;
+    this.hardThreads = hardThreads;
+    this.helperPermits = new Semaphore(maxHelperThreads);
+    AtomicInteger threadCount = new AtomicInteger();
+    this.helperPool = maxHelperThreads == 0 ? null : Executors.newFixedThreadPool(maxHelperThreads, runnable -> {
+      Thread thread = new Thread(runnable, "engine-helper-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * 在指定局面上搜索最佳走法
+   *
+   * @param board   当前局面（不会被修改）
+   * @param limits  搜索限制
+   * @param history 对局中已出现的局面，可以为 null
+   */
+  public SearchResult search(ChessBoard board, SearchLimits limits, RepetitionTracker history) {
+    return run(board.copy(), limits, history, null);
+  }
+
+  /**
+   * 可以从其他线程中止的搜索：主搜索线程开始前把它交给 onStart，对其调用 {@link Searcher#stop()} 即中止整个搜索
+   * 开局库、残局库命中时不会调用 onStart
+   */
+  SearchResult search(ChessBoard board, SearchLimits limits, RepetitionTracker history, Consumer<Searcher> onStart) {
+    return run(board.copy(), limits, history, onStart);
+  }
+
+  /**
+   * 为对局中当前走棋的 AI 玩家搜索，搜索限制由玩家的难度决定
+   *
+   * @throws IllegalArgumentException 当前走棋方不是 AI 玩家
+   */
+  public SearchResult think(ChessGameState gameState) {
+    Player player = gameState.getCurrentPlayerInfo();
+    if (player == null || !player.isAI()) {
+      throw new IllegalArgumentException("当前走棋方不是AI玩家");
+    }
+    ChessBoard board = gameState.getBoard().copy();
+    board.setSideToMove(PieceCode.sideOf(gameState.getCurrentPlayer()));
+    return run(board, limitsFor(player.getType()), gameState.getRepetition(), null);
+  }
+
+  /**
+   * 指定难度使用的搜索限制
+   */
+  public SearchLimits limitsFor(PlayerType type) {
+    SearchLimits limits = SearchLimits.forPlayerType(type);
+    return type == PlayerType.AI_HARD ? limits.withThreads(hardThreads) : limits;
+  }
+
+  /**
+   * 设置开局库，null 表示不使用开局库
+   */
+  public void setOpeningBook(OpeningBook openingBook) {
+    this.openingBook = openingBook;
+  }
+
+  public OpeningBook getOpeningBook() {
+    return openingBook;
+  }
+
+  /**
+   * 设置残局库，null 表示不使用残局库
+   */
+  public void setTablebases(Tablebases tablebases) {
+    this.tablebases = tablebases;
+  }
+
+  public Tablebases getTablebases() {
+    return tablebases;
+  }
+
+  /**
+   * 设置评估网络，null 表示使用子力位置分评估
+   */
+  public void setNetwork(Network network) {
+    this.network = network;
+  }
+
+  public Network getNetwork() {
+    return network;
+  }
+
+  /**
+   * 设置之后搜索使用的启发式开关，用于基准测试和自对弈对比
+   */
+  public void setSearchOptions(SearchOptions searchOptions) {
+    this.searchOptions = searchOptions == null ? SearchOptions.DEFAULT : searchOptions;
+  }
+
+  public SearchOptions getSearchOptions() {
+    return searchOptions;
+  }
+
+  private SearchResult run(ChessBoard board, SearchLimits limits, RepetitionTracker history,
+      Consumer<Searcher> onStart) {
+    OpeningBook book = openingBook;
+    if (book != null) {
+      int move = book.probe(board, ThreadLocalRandom.current());
+      if (move != PackedMove.NONE) {
+        return new SearchResult(move, 0, 0, 0, 0, new int[] { move });
+      }
+    }
+
+    Tablebases bases = tablebases;
+    if (bases != null) {
+      int move = bases.bestMove(board);
+      if (move != PackedMove.NONE) {
+        int score = Searcher.tablebaseScore(bases.probe(board), 0);
+        return new SearchResult(move, score, 0, 0, 0, new int[] { move });
+      }
+    }
+
+    table.newSearch();
+    SearchOptions options = searchOptions;
+    Network net = network;
+    Searcher main = new Searcher(board, limits, history, table);
+    main.setTablebases(bases);
+    main.setOptions(options);
+    main.setNetwork(net);
+    if (onStart != null) {
+      onStart.accept(main);
+    }
+    int helpers = acquireHelpers(limits.getThreads() - 1);
+    if (helpers == 0) {
+      return main.search();
+    }
+
+    Searcher[] helperSearchers = new Searcher[helpers];
+    Future<?>[] futures = new Future<?>[helpers];
+    try {
+      for (int i = 0; i < helpers; i++) {
+        Searcher helper = new Searcher(board.copy(), limits, history, table);
+        helper.setHelper(i + 1);
+        helper.setTablebases(bases);
+        helper.setOptions(options);
+        helper.setNetwork(net);
+        helperSearchers[i] = helper;
+        futures[i] = helperPool.submit(helper::search);
+      }
+
+      SearchResult result = main.search();
+      long nodes = result.getNodes();
+      stopAll(helperSearchers);
+      for (int i = 0; i < helpers; i++) {
+        if (futures[i] != null) {
+          futures[i].get();
+          nodes += helperSearchers[i].getNodes();
+        }
+      }
+      return result.withNodes(nodes);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("搜索被中断", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("辅助搜索线程出错", e.getCause());
+    } finally {
+      stopAll(helperSearchers);
+      helperPermits.release(helpers);
+    }
+  }
+
+  private static void stopAll(Searcher[] searchers) {
+    for (Searcher searcher : searchers) {
+      if (searcher != null) {
+        searcher.stop();
+      }
+    }
+  }
+
+  /**
+   * 尽量获取辅助线程名额，不等待
+   */
+  private int acquireHelpers(int wanted) {
+    for (int n = Math.min(wanted, helperPermits.availablePermits()); n > 0; n--) {
+      if (helperPermits.tryAcquire(n)) {
+        return n;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * 共享的置换表，可用于查看命中率等统计
+   */
+  public TranspositionTable getTranspositionTable() {
+    return table;
+  }
+
+  /**
+   * 当前空闲的辅助线程名额
+   */
+  public int getAvailableHelperThreads() {
+    return helperPermits.availablePermits();
+  }
+
+  /**
+   * 关闭辅助线程池
+   */
+  @Override
+  public void close() {
+    if (helperPool != null) {
+      helperPool.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package com.mimeng.chess.engine;
+
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.PieceSquareTable;
+
+/**
+ * 局面静态评估：子力价值 + 位置分（见 {@link PieceSquareTable}）
+ * 双方的分值由棋盘在走子/撤销时增量维护，评估只做一次减法，与棋子数量无关。
+ * 分数以走棋方视角给出，单位约为百分之一个兵
+ */
+public final class Evaluator {
+  private Evaluator() {
+  }
+
+  /**
+   * 评估当前局面
+   */
+  public static int evaluate(ChessBoard board) {
+    int side = board.getSideToMove();
+    return board.getPieceSquareScore(side) - board.getPieceSquareScore(1 - side);
+  }
+}
@@ -0,0 +1,109 @@
+package com.mimeng.chess.engine;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * 无锁的延迟直方图，用于统计排队等待和搜索耗时的分位数
+ * 以微秒记录，桶按对数-线性划分：32 微秒以下每微秒一个桶，之后每个 2 的幂区间再分 16 个桶，
+ * 分位数的相对误差不超过 1/16
+ */
+public final class LatencyHistogram {
+  private static final int LINEAR_BUCKETS = 32;
+  private static final int SUB_BUCKETS = 16;
+  private static final int BUCKETS = LINEAR_BUCKETS + (64 - 5) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  /**
+   * 记录一次耗时
+   */
+  public void record(long nanos) {
+    long micros = Math.max(0, nanos / 1000);
+    counts.incrementAndGet(bucket(micros));
+    max.accumulate(micros);
+  }
+
+  /**
+   * 记录的样本数
+   */
+  public long getCount() {
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      total += counts.get(i);
+    }
+    return total;
+  }
+
+  /**
+   * 指定分位数的耗时（毫秒），没有样本时返回 0
+   *
+   * @param percentile 分位数，取值 0 到 100，例如 99 表示 p99
+   */
+  public double getPercentileMillis(double percentile) {
+    long[] snapshot = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = counts.get(i);
+      total += snapshot[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        return Math.min(upperBound(i), max.get()) / 1000.0;
+      }
+    }
+    return max.get() / 1000.0;
+  }
+
+  /**
+   * 最大耗时（毫秒）
+   */
+  public double getMaxMillis() {
+    return max.get() / 1000.0;
+  }
+
+  /**
+   * 清空样本
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts.set(i, 0);
+    }
+    max.reset();
+  }
+
+  static int bucket(long micros) {
+    if (micros < LINEAR_BUCKETS) {
+      return (int) micros;
+    }
+    int msb = 63 - Long.numberOfLeadingZeros(micros);
+    int sub = (int) (micros >>> (msb - 4)) & (SUB_BUCKETS - 1);
+    return LINEAR_BUCKETS + (msb - 5) * SUB_BUCKETS + sub;
+  }
+
+  /**
+   * 桶内的最大值（微秒）
+   */
+  static long upperBound(int bucket) {
+    if (bucket < LINEAR_BUCKETS) {
+      return bucket;
+    }
+    int msb = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 5;
+    int sub = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+    long lower = (long) (SUB_BUCKETS + sub) << (msb - 4);
+    return lower + (1L << (msb - 4)) - 1;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("count=%d, p50=%.1fms, p95=%.1fms, p99=%.1fms, max=%.1fms", getCount(),
+        getPercentileMillis(50), getPercentileMillis(95), getPercentileMillis(99), getMaxMillis());
+  }
+}
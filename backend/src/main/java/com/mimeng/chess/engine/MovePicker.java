@@ -0,0 +1,252 @@
+package com.mimeng.chess.engine;
+
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.MoveGenerator;
+import com.mimeng.chess.entity.chess.PackedMove;
+import com.mimeng.chess.entity.chess.PieceCode;
+import com.mimeng.chess.entity.chess.PieceSquareTable;
+import com.mimeng.chess.entity.chess.Square;
+
+/**
+ * 分阶段取走法：置换表走法、吃子（MVV-LVA）、两个杀手走法、不吃子（历史表）、亏子的吃子
+ * 每个阶段用到时才生成对应的走法，前面的走法产生截断时后面的走法不会生成；
+ * 每次取出当前阶段分数最高的走法（选择排序），截断通常发生在前几步，不必整体排序。
+ * 启用静态交换评估时，亏子的吃子推迟到所有不吃子之后；静态搜索只取吃子，亏子的吃子直接剪掉。
+ * 取出的是伪合法走法，由调用方检查走后是否被将军。缓冲区在构造时分配，每层一个实例反复使用
+ */
+final class MovePicker {
+  /**
+   * 历史表长度，按 {@link #historyIndex(int)} 索引
+   */
+  static final int HISTORY_SIZE = 90 * 90;
+
+  private static final int STAGE_HASH = 0;
+  private static final int STAGE_CAPTURES_INIT = 1;
+  private static final int STAGE_CAPTURES = 2;
+  private static final int STAGE_KILLER1 = 3;
+  private static final int STAGE_KILLER2 = 4;
+  private static final int STAGE_QUIETS_INIT = 5;
+  private static final int STAGE_QUIETS = 6;
+  private static final int STAGE_BAD_CAPTURES = 7;
+  private static final int STAGE_DONE = 8;
+
+  private static final int[] BOARD_INDEX = new int[Square.SIZE]; // 格子 -> 0..89
+
+  static {
+    for (int row = 0; row < 10; row++) {
+      for (int col = 0; col < 9; col++) {
+        BOARD_INDEX[Square.of(row, col)] = row * 9 + col;
+      }
+    }
+  }
+
+  private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+  private final int[] scores = new int[MoveGenerator.MAX_MOVES];
+  private final int[] scratch = new int[MoveGenerator.MAX_PIECE_MOVES];
+  private final int[] badCaptures = new int[MoveGenerator.MAX_MOVES];
+  private final StaticExchange exchange;
+
+  private ChessBoard board;
+  private int side;
+  private int hashMove;
+  private int killer1;
+  private int killer2;
+  private int[] history;
+  private boolean mvvLva;
+  private boolean see;
+  private boolean capturesOnly;
+  private int stage;
+  private int index;
+  private int end;
+  private int badCount;
+  private int badIndex;
+
+  /**
+   * @param exchange 静态交换评估，可与同一线程的其他实例共用
+   */
+  MovePicker(StaticExchange exchange) {
+    this.exchange = exchange;
+  }
+
+  /**
+   * 开始为当前局面取走法
+   *
+   * @param hashMove 置换表走法，可以为 {@link PackedMove#NONE}，不是当前局面的伪合法走法时忽略
+   * @param killer1  第一杀手走法，可以为 {@link PackedMove#NONE}
+   * @param killer2  第二杀手走法，可以为 {@link PackedMove#NONE}
+   * @param history  历史表，null 表示不吃子走法按生成顺序
+   * @param mvvLva   吃子走法是否按 MVV-LVA 排序
+   * @param see      是否把亏子的吃子推迟到最后
+   */
+  void init(ChessBoard board, int hashMove, int killer1, int killer2, int[] history, boolean mvvLva,
+      boolean see) {
+    this.board = board;
+    this.side = board.getSideToMove();
+    this.hashMove = isPseudoLegal(hashMove) ? hashMove : PackedMove.NONE;
+    this.killer1 = killer1 != this.hashMove && isQuiet(killer1) ? killer1 : PackedMove.NONE;
+    this.killer2 = killer2 != this.hashMove && killer2 != this.killer1 && isQuiet(killer2)
+        ? killer2 : PackedMove.NONE;
+    this.history = history;
+    this.mvvLva = mvvLva;
+    this.see = see;
+    this.capturesOnly = false;
+    this.badCount = 0;
+    this.stage = STAGE_HASH;
+  }
+
+  /**
+   * 开始为静态搜索取走法：只取吃子
+   *
+   * @param see 是否剪掉亏子的吃子
+   */
+  void initCaptures(ChessBoard board, boolean mvvLva, boolean see) {
+    this.board = board;
+    this.side = board.getSideToMove();
+    this.hashMove = PackedMove.NONE;
+    this.killer1 = PackedMove.NONE;
+    this.killer2 = PackedMove.NONE;
+    this.history = null;
+    this.mvvLva = mvvLva;
+    this.see = see;
+    this.capturesOnly = true;
+    this.badCount = 0;
+    this.stage = STAGE_CAPTURES_INIT;
+  }
+
+  /**
+   * 取下一个走法，全部取完时返回 {@link PackedMove#NONE}
+   */
+  int next() {
+    while (true) {
+      switch (stage) {
+        case STAGE_HASH:
+          stage = STAGE_CAPTURES_INIT;
+          if (hashMove != PackedMove.NONE) {
+            return hashMove;
+          }
+          break;
+        case STAGE_CAPTURES_INIT:
+          index = 0;
+          end = MoveGenerator.generate(board, side, MoveGenerator.CAPTURES, moves, 0);
+          for (int i = 0; i < end; i++) {
+            scores[i] = mvvLva ? mvvLvaScore(moves[i]) : 0;
+          }
+          stage = STAGE_CAPTURES;
+          break;
+        case STAGE_CAPTURES: {
+          int move = pickBest();
+          if (move == PackedMove.NONE) {
+            stage = capturesOnly ? STAGE_DONE : STAGE_KILLER1;
+          } else if (move != hashMove) {
+            if (!see || !exchange.isLosing(board, move)) {
+              return move;
+            }
+            if (!capturesOnly) {
+              badCaptures[badCount++] = move;
+            }
+          }
+          break;
+        }
+        case STAGE_KILLER1:
+          stage = STAGE_KILLER2;
+          if (killer1 != PackedMove.NONE) {
+            return killer1;
+          }
+          break;
+        case STAGE_KILLER2:
+          stage = STAGE_QUIETS_INIT;
+          if (killer2 != PackedMove.NONE) {
+            return killer2;
+          }
+          break;
+        case STAGE_QUIETS_INIT:
+          index = 0;
+          end = MoveGenerator.generate(board, side, MoveGenerator.QUIETS, moves, 0);
+          for (int i = 0; i < end; i++) {
+            scores[i] = history != null ? history[historyIndex(moves[i])] : 0;
+          }
+          stage = STAGE_QUIETS;
+          break;
+        case STAGE_QUIETS: {
+          int move = pickBest();
+          if (move == PackedMove.NONE) {
+            badIndex = 0;
+            stage = STAGE_BAD_CAPTURES;
+          } else if (move != hashMove && move != killer1 && move != killer2) {
+            return move;
+          }
+          break;
+        }
+        case STAGE_BAD_CAPTURES:
+          if (badIndex < badCount) {
+            return badCaptures[badIndex++];
+          }
+          stage = STAGE_DONE;
+          break;
+        default:
+          return PackedMove.NONE;
+      }
+    }
+  }
+
+  /**
+   * 历史表下标：起止格子各映射到 0..89
+   */
+  static int historyIndex(int move) {
+    return BOARD_INDEX[PackedMove.from(move)] * 90 + BOARD_INDEX[PackedMove.to(move)];
+  }
+
+  /**
+   * 被吃子价值优先，同价值时攻击子价值低的优先
+   */
+  static int mvvLvaScore(int move) {
+    return (PieceSquareTable.pieceValue(PieceCode.type(PackedMove.captured(move))) << 10)
+        - PieceSquareTable.pieceValue(PieceCode.type(PackedMove.piece(move)));
+  }
+
+  /**
+   * 把剩余走法中分数最高的换到当前位置并取出，分数相同时保持生成顺序
+   */
+  private int pickBest() {
+    if (index >= end) {
+      return PackedMove.NONE;
+    }
+    int best = index;
+    for (int i = index + 1; i < end; i++) {
+      if (scores[i] > scores[best]) {
+        best = i;
+      }
+    }
+    int move = moves[best];
+    moves[best] = moves[index];
+    scores[best] = scores[index];
+    index++;
+    return move;
+  }
+
+  private boolean isQuiet(int move) {
+    return move != PackedMove.NONE && !PackedMove.isCapture(move) && isPseudoLegal(move);
+  }
+
+  /**
+   * 置换表和杀手走法来自其他局面，需确认棋子仍在原处且走法可以走出
+   */
+  private boolean isPseudoLegal(int move) {
+    if (move == PackedMove.NONE) {
+      return false;
+    }
+    int from = PackedMove.from(move);
+    int code = PackedMove.piece(move);
+    if (board.getPieceCode(from) != code || PieceCode.side(code) != side
+        || board.getPieceCode(PackedMove.to(move)) != PackedMove.captured(move)) {
+      return false;
+    }
+    int count = MoveGenerator.generateFrom(board, from, code, scratch, 0);
+    for (int i = 0; i < count; i++) {
+      if (scratch[i] == move) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,82 @@
+package com.mimeng.chess.engine;
+
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.PackedMove;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 一次后台思考（ponder）：AI 走完后，在对手思考期间预先搜索预测对手应着之后的局面
+ * 由 {@link AiSearchExecutor#ponder} 在线程池有空闲线程时启动，有正式搜索需要线程时随时被抢占（停止但保留已完成迭代的结果）。
+ * 对手走出预测的应着时由 {@link AiSearchExecutor#ponderHit} 把思考转为该步的正式搜索，否则调用 {@link #stop()} 放弃
+ */
+public final class Ponder {
+  private final long key;
+  private final CompletableFuture<SearchResult> result = new CompletableFuture<>();
+  private volatile Searcher searcher;
+  private volatile boolean stopped;
+  private volatile long hitTimeMillis;
+
+  /**
+   * @param key 思考的局面（预测应着之后）的哈希键
+   */
+  Ponder(long key) {
+    this.key = key;
+  }
+
+  /**
+   * 对局当前局面是否就是思考的局面（棋盘的走棋方须已设置正确）
+   */
+  public boolean matches(ChessBoard board) {
+    return board.getZobristKey() == key;
+  }
+
+  /**
+   * 命中：不再停止思考，从现在起再搜索 timeMillis 毫秒（或提前达到深度、节点上限）后给出结果，
+   * 与在此刻提交的正式搜索用时相同；没有走法或出错时结果为 null，调用方应改为正常搜索
+   */
+  CompletableFuture<SearchResult> hit(long timeMillis) {
+    hitTimeMillis = timeMillis;
+    Searcher running = searcher;
+    if (running != null) {
+      running.restartClock(timeMillis);
+    }
+    return result.handle((searchResult, error) -> searchResult != null && error == null
+        && searchResult.getBestMove() != PackedMove.NONE ? searchResult : null);
+  }
+
+  /**
+   * 停止思考，返回的 future 在搜索线程退出后完成；尚未开始的思考不再执行，结果为 null
+   */
+  public CompletableFuture<SearchResult> stop() {
+    stopped = true;
+    Searcher running = searcher;
+    if (running != null) {
+      running.stop();
+    } else {
+      result.complete(null);
+    }
+    return result;
+  }
+
+  public boolean isStopped() {
+    return stopped;
+  }
+
+  /**
+   * 搜索开始时由搜索线程调用，此前已被停止的立即停止
+   */
+  void attach(Searcher searcher) {
+    this.searcher = searcher;
+    if (stopped) {
+      searcher.stop();
+    }
+    long timeMillis = hitTimeMillis;
+    if (timeMillis > 0) {
+      searcher.restartClock(timeMillis);
+    }
+  }
+
+  CompletableFuture<SearchResult> getResult() {
+    return result;
+  }
+}
@@ -0,0 +1,115 @@
+package com.mimeng.chess.engine;
+
+import com.mimeng.chess.entity.chess.PlayerType;
+
+/**
+ * 单次搜索的限制：最大深度、时间预算（毫秒）、节点上限和搜索线程数
+ * 时间预算是硬上限，超时后立即中止并返回最后一次完整迭代的结果；节点上限使简单难度的耗时与机器负载无关。
+ * 节点上限只统计主搜索线程，辅助线程由主线程结束时一并停止
+ */
+public final class SearchLimits {
+  /**
+   * 不限制节点数
+   */
+  public static final long UNLIMITED_NODES = Long.MAX_VALUE;
+
+  private static final SearchLimits EASY = new SearchLimits(3, 300, 20_000, 1);
+  private static final SearchLimits MEDIUM = new SearchLimits(6, 1000, 300_000, 1);
+  private static final SearchLimits HARD = new SearchLimits(Searcher.MAX_PLY, 3000, UNLIMITED_NODES, 1);
+
+  private final int maxDepth;
+  private final long timeMillis;
+  private final long maxNodes;
+  private final int threads;
+
+  private SearchLimits(int maxDepth, long timeMillis, long maxNodes, int threads) {
+    this.maxDepth = maxDepth;
+    this.timeMillis = timeMillis;
+    this.maxNodes = maxNodes;
+    this.threads = threads;
+  }
+
+  /**
+   * 创建自定义限制
+   *
+   * @throws IllegalArgumentException 参数不为正数
+   */
+  public static SearchLimits of(int maxDepth, long timeMillis, long maxNodes) {
+    if (maxDepth <= 0 || timeMillis <= 0 || maxNodes <= 0) {
+      throw new IllegalArgumentException("搜索限制必须为正数");
+    }
+    return new SearchLimits(Math.min(maxDepth, Searcher.MAX_PLY), timeMillis, maxNodes, 1);
+  }
+
+  /**
+   * 使用指定线程数（Lazy SMP）搜索的限制，实际线程数还受引擎全局上限约束
+   *
+   * @throws IllegalArgumentException 线程数不为正数
+   */
+  public SearchLimits withThreads(int threads) {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("搜索线程数必须为正数: " + threads);
+    }
+    return threads == this.threads ? this : new SearchLimits(maxDepth, timeMillis, maxNodes, threads);
+  }
+
+  /**
+   * 按 AI 难度获取搜索限制
+   *
+   * @throws IllegalArgumentException 不是 AI 玩家类型
+   */
+  public static SearchLimits forPlayerType(PlayerType type) {
+    switch (type) {
+      case AI_EASY:
+        return EASY;
+      case AI_MEDIUM:
+        return MEDIUM;
+      case AI_HARD:
+        return HARD;
+      default:
+        throw new IllegalArgumentException("不是AI玩家类型: " + type);
+    }
+  }
+
+  /**
+   * 把最大深度降低到指定值（不会提高）
+   */
+  public SearchLimits capDepth(int depth) {
+    int capped = Math.max(1, Math.min(depth, maxDepth));
+    return capped == maxDepth ? this : new SearchLimits(capped, timeMillis, maxNodes, threads);
+  }
+
+  /**
+   * 使用指定时间预算的限制
+   *
+   * @throws IllegalArgumentException 时间不为正数
+   */
+  public SearchLimits withTimeMillis(long timeMillis) {
+    if (timeMillis <= 0) {
+      throw new IllegalArgumentException("时间预算必须为正数: " + timeMillis);
+    }
+    return timeMillis == this.timeMillis ? this : new SearchLimits(maxDepth, timeMillis, maxNodes, threads);
+  }
+
+  public int getMaxDepth() {
+    return maxDepth;
+  }
+
+  public long getTimeMillis() {
+    return timeMillis;
+  }
+
+  public long getMaxNodes() {
+    return maxNodes;
+  }
+
+  public int getThreads() {
+    return threads;
+  }
+
+  @Override
+  public String toString() {
+    return "SearchLimits{depth=" + maxDepth + ", time=" + timeMillis + "ms, nodes="
+        + (maxNodes == UNLIMITED_NODES ? "unlimited" : String.valueOf(maxNodes)) + ", threads=" + threads + "}";
+  }
+}
@@ -0,0 +1,108 @@
+package com.mimeng.chess.engine;
+
+/**
+ * 搜索启发式开关，默认全部开启
+ * 关闭某项启发式只用于基准测试和自对弈中衡量它的效果，正常对局使用 {@link #DEFAULT}
+ */
+public final class SearchOptions {
+
+  /**
+   * 可单独开关的启发式
+   */
+  public enum Feature {
+    /**
+     * 吃子走法按 MVV-LVA（价值最高的被吃子优先、价值最低的攻击子优先）排序，关闭时按生成顺序
+     */
+    MVV_LVA,
+    /**
+     * 每层两个杀手走法：同层兄弟节点中产生截断的不吃子走法，在吃子之后优先尝试
+     */
+    KILLERS,
+    /**
+     * 历史表：按起止格子累计产生截断的不吃子走法，不吃子走法按累计值排序
+     */
+    HISTORY,
+    /**
+     * 静态搜索：到达深度后继续搜索吃子（被将军时搜索全部应将），直到局面平稳再评估
+     */
+    QUIESCENCE,
+    /**
+     * 静态交换评估：亏子的吃子排在所有不吃子之后，静态搜索中直接剪掉
+     */
+    SEE,
+    /**
+     * 空着裁剪：非主变例节点让对方连走两步做浅层搜索，仍不低于 beta 即截断
+     */
+    NULL_MOVE,
+    /**
+     * 后期走法缩减：排在后面的普通不吃子走法先做浅层搜索，历史分高的少缩减、从未截断过的多缩减
+     */
+    LMR,
+    /**
+     * 无效裁剪：剩余1、2层且局面评估加余量仍不超过 alpha 时，跳过不将军的不吃子走法
+     */
+    FUTILITY,
+    /**
+     * 剃刀：剩余1、2层且局面评估远低于 alpha 时，直接用静态搜索的结果
+     */
+    RAZORING
+  }
+
+  /**
+   * 全部启发式开启
+   */
+  public static final SearchOptions DEFAULT = new SearchOptions((1 << Feature.values().length) - 1);
+
+  private final int mask;
+
+  private SearchOptions(int mask) {
+    this.mask = mask;
+  }
+
+  /**
+   * 关闭指定启发式后的选项
+   */
+  public SearchOptions without(Feature... features) {
+    int result = mask;
+    for (Feature feature : features) {
+      result &= ~(1 << feature.ordinal());
+    }
+    return result == mask ? this : new SearchOptions(result);
+  }
+
+  /**
+   * 开启指定启发式后的选项
+   */
+  public SearchOptions with(Feature... features) {
+    int result = mask;
+    for (Feature feature : features) {
+      result |= 1 << feature.ordinal();
+    }
+    return result == mask ? this : new SearchOptions(result);
+  }
+
+  public boolean isEnabled(Feature feature) {
+    return (mask & (1 << feature.ordinal())) != 0;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof SearchOptions && ((SearchOptions) o).mask == mask;
+  }
+
+  @Override
+  public int hashCode() {
+    return mask;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("SearchOptions{");
+    for (Feature feature : Feature.values()) {
+      if (isEnabled(feature)) {
+        sb.append(sb.length() > 14 ? "," : "").append(feature);
+      }
+    }
+    return sb.append('}').toString();
+  }
+}
@@ -0,0 +1,84 @@
+package com.mimeng.chess.engine;
+
+import com.mimeng.chess.entity.chess.PackedMove;
+
+/**
+ * 搜索结果：最佳走法（打包格式）、分数、完成的深度、节点数、耗时和主要变例
+ * 分数以走棋方视角给出，绝对值不小于 {@link Searcher#MATE_BOUND} 时表示杀棋
+ */
+public final class SearchResult {
+  private final int bestMove;
+  private final int score;
+  private final int depth;
+  private final long nodes;
+  private final long elapsedMillis;
+  private final int[] pv;
+
+  SearchResult(int bestMove, int score, int depth, long nodes, long elapsedMillis, int[] pv) {
+    this.bestMove = bestMove;
+    this.score = score;
+    this.depth = depth;
+    this.nodes = nodes;
+    this.elapsedMillis = elapsedMillis;
+    this.pv = pv;
+  }
+
+  /**
+   * 替换节点数（加上辅助线程的节点）后的结果
+   */
+  SearchResult withNodes(long totalNodes) {
+    return new SearchResult(bestMove, score, depth, totalNodes, elapsedMillis, pv);
+  }
+
+  /**
+   * 最佳走法，无棋可走时为 {@link PackedMove#NONE}
+   */
+  public int getBestMove() {
+    return bestMove;
+  }
+
+  public int getScore() {
+    return score;
+  }
+
+  public int getDepth() {
+    return depth;
+  }
+
+  public long getNodes() {
+    return nodes;
+  }
+
+  public long getElapsedMillis() {
+    return elapsedMillis;
+  }
+
+  /**
+   * 主要变例（第一个元素即最佳走法），返回副本
+   */
+  public int[] getPv() {
+    return pv.clone();
+  }
+
+  /**
+   * 是否找到了杀棋（任意一方）
+   */
+  public boolean isMate() {
+    return Math.abs(score) >= Searcher.MATE_BOUND;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("SearchResult{depth=").append(depth)
+        .append(", score=").append(score)
+        .append(", nodes=").append(nodes)
+        .append(", time=").append(elapsedMillis).append("ms, pv=");
+    for (int i = 0; i < pv.length; i++) {
+      if (i > 0) {
+        sb.append(' ');
+      }
+      sb.append(PackedMove.toString(pv[i]));
+    }
+    return sb.append('}').toString();
+  }
+}
@@ -0,0 +1,624 @@
+package com.mimeng.chess.engine;
+
+import com.mimeng.chess.engine.nnue.Accumulator;
+import com.mimeng.chess.engine.nnue.Network;
+import com.mimeng.chess.engine.tablebase.Tablebase;
+import com.mimeng.chess.engine.tablebase.Tablebases;
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.GameLogic;
+import com.mimeng.chess.entity.chess.MoveGenerator;
+import com.mimeng.chess.entity.chess.PackedMove;
+import com.mimeng.chess.entity.chess.PieceCode;
+import com.mimeng.chess.entity.chess.RepetitionTracker;
+
+/**
+ * 迭代加深的 Alpha-Beta 搜索（PVS 主变例搜索）
+ * 在打包走法和原地走子/撤销上进行，搜索过程中不分配对象；每层的走法缓冲区在构造时一次分配。
+ * 每 1024 个节点检查一次时间，超时或超过节点上限时立即中止，返回最后一次完整迭代的结果。
+ * 置换表提供截断和优先搜索的走法，可以与其他搜索共享；Lazy SMP 的辅助线程就是共享置换表、搜索同一根局面的 Searcher。
+ * 走法顺序由 {@link MovePicker} 分阶段给出：置换表走法、MVV-LVA 排序的吃子、杀手走法、按历史表排序的不吃子。
+ * 到达深度后进入静态搜索，只搜索静态交换评估不亏子的吃子（被将军时搜索全部应将），避免在兑子途中评估局面。
+ * 非主变例节点使用选择性裁剪：空着裁剪（子力稀少时做验证搜索以防等着）、按历史表调整的后期走法缩减、
+ * 前沿节点的无效裁剪和剃刀；每项都可以通过 {@link SearchOptions} 关闭。
+ * 设置了评估网络时用网络评估局面（累加器沿搜索路径增量更新），否则用子力位置分 {@link Evaluator}。
+ * 一个实例只供一个线程使用，可以通过 {@link #stop()} 从其他线程中止
+ */
+public final class Searcher {
+  /**
+   * 最大搜索层数
+   */
+  public static final int MAX_PLY = 64;
+  public static final int INFINITY = 32000;
+  /**
+   * 杀棋分数，实际分数为 MATE 减去杀棋所需的层数
+   */
+  public static final int MATE = 30000;
+  /**
+   * 分数绝对值不小于该值即为杀棋
+   */
+  public static final int MATE_BOUND = MATE - MAX_PLY;
+
+  private static final int TIME_CHECK_MASK = 1023;
+  /**
+   * 历史表累计值超过该值时整体减半，避免溢出并让早期的统计逐渐失效
+   */
+  private static final int HISTORY_LIMIT = 1 << 20;
+  /**
+   * 历史分不低于该值的不吃子走法少缩减一层
+   */
+  private static final int HISTORY_LMR_THRESHOLD = 1 << 9;
+  private static final int NULL_MOVE_MIN_DEPTH = 3;
+  /**
+   * 前几个走法不缩减
+   */
+  private static final int LMR_MIN_MOVES = 3;
+  private static final int LMR_MIN_DEPTH = 3;
+  // 下标为剩余深度，只用于剩余1、2层的节点
+  private static final int[] FUTILITY_MARGINS = { 0, 200, 450 };
+  private static final int[] RAZOR_MARGINS = { 0, 350, 600 };
+  private static final int[][] LMR_REDUCTIONS = new int[MAX_PLY + 1][MoveGenerator.MAX_MOVES];
+
+  static {
+    for (int depth = 1; depth <= MAX_PLY; depth++) {
+      for (int count = 1; count < MoveGenerator.MAX_MOVES; count++) {
+        LMR_REDUCTIONS[depth][count] = (int) (0.5 + Math.log(depth) * Math.log(count) / 2.25);
+      }
+    }
+  }
+
+  private final ChessBoard board;
+  private final SearchLimits limits;
+  private final RepetitionTracker history;
+  private final TranspositionTable table;
+
+  private final MovePicker[] pickers = new MovePicker[MAX_PLY + 1];
+  private final int[][] killers = new int[MAX_PLY + 1][2];
+  private final int[] historyScores = new int[MovePicker.HISTORY_SIZE];
+  private final StaticExchange exchange = new StaticExchange();
+  private final long[] keys = new long[MAX_PLY + 1];
+  private final boolean[] nullMoves = new boolean[MAX_PLY + 1];
+  private final int[][] pvTable = new int[MAX_PLY + 2][MAX_PLY + 2];
+  private final int[] pvLength = new int[MAX_PLY + 2];
+  private final int[] tablebaseScratch = new int[Tablebases.SCRATCH_LENGTH];
+
+  private Tablebases tablebases;
+  private Accumulator accumulator;
+  private SearchOptions options = SearchOptions.DEFAULT;
+  private int helperIndex;
+  private long nodes;
+  private volatile long clockStart;
+  private volatile long timeMillis;
+  private volatile long deadline;
+  private boolean clockRestarted;
+  private volatile boolean stopped;
+
+  /**
+   * @param board   搜索用的棋盘，搜索期间会被原地修改（结束后恢复），调用方应传入副本
+   * @param limits  搜索限制
+   * @param history 对局中已出现的局面，搜索中再次出现按和棋计分；可以为 null
+   * @param table   置换表
+   */
+  public Searcher(ChessBoard board, SearchLimits limits, RepetitionTracker history, TranspositionTable table) {
+    this.board = board;
+    this.limits = limits;
+    this.history = history;
+    this.table = table;
+    for (int i = 0; i < pickers.length; i++) {
+      pickers[i] = new MovePicker(exchange);
+    }
+  }
+
+  /**
+   * 设为 Lazy SMP 的第 index 个辅助线程（从1开始）：奇数号线程跳过第一层迭代以错开深度，
+   * 且不会因剩余时间不足提前结束，由主线程搜索结束时停止
+   */
+  void setHelper(int index) {
+    this.helperIndex = index;
+  }
+
+  /**
+   * 使用残局库：搜索中遇到库内局面直接返回精确分数
+   */
+  void setTablebases(Tablebases tablebases) {
+    this.tablebases = tablebases;
+  }
+
+  /**
+   * 使用评估网络代替子力位置分，null 表示不使用；须在搜索开始前调用
+   */
+  void setNetwork(Network network) {
+    this.accumulator = network == null ? null : new Accumulator(network, MAX_PLY);
+  }
+
+  /**
+   * 设置启发式开关，须在搜索开始前调用
+   */
+  void setOptions(SearchOptions options) {
+    this.options = options;
+  }
+
+  /**
+   * 请求中止搜索，可在其他线程调用
+   */
+  public void stop() {
+    stopped = true;
+  }
+
+  /**
+   * 从现在起按新的时间预算重新计时，可在其他线程调用，搜索开始前调用也有效
+   * 用于后台思考命中：剩下的思考转为按正常单步用时结束的搜索
+   */
+  public synchronized void restartClock(long timeMillis) {
+    clockRestarted = true;
+    setClock(System.nanoTime(), timeMillis);
+  }
+
+  private void setClock(long start, long timeMillis) {
+    this.clockStart = start;
+    this.timeMillis = timeMillis;
+    this.deadline = start + timeMillis * 1_000_000L;
+  }
+
+  /**
+   * 当前已搜索的节点数
+   */
+  public long getNodes() {
+    return nodes;
+  }
+
+  /**
+   * 执行搜索
+   */
+  public SearchResult search() {
+    long start = System.nanoTime();
+    synchronized (this) {
+      if (!clockRestarted) {
+        setClock(start, limits.getTimeMillis());
+      }
+    }
+    nodes = 0;
+    if (accumulator != null) {
+      accumulator.reset(board);
+    }
+
+    int[] rootMoves = new int[MoveGenerator.MAX_MOVES];
+    int count = generateLegal(rootMoves);
+    if (count == 0) {
+      int score = GameLogic.isInCheck(board, board.getSideToMove()) ? -MATE : 0;
+      return new SearchResult(PackedMove.NONE, score, 0, 0, elapsedMillis(start), new int[0]);
+    }
+
+    int bestScore = 0;
+    int completedDepth = 0;
+    int[] pv = { rootMoves[0] };
+    for (int depth = 1 + (helperIndex & 1); depth <= limits.getMaxDepth(); depth++) {
+      int score = searchRoot(rootMoves, count, depth);
+      if (stopped) {
+        break;
+      }
+      completedDepth = depth;
+      bestScore = score;
+      pv = new int[pvLength[0]];
+      System.arraycopy(pvTable[0], 0, pv, 0, pv.length);
+      moveToFront(rootMoves, count, pv[0]);
+
+      // 已找到杀棋、只有一步可走，或剩余时间大概率不够完成下一次迭代
+      if (Math.abs(score) >= MATE_BOUND || count == 1
+          || (helperIndex == 0 && elapsedMillis(clockStart) * 2 > timeMillis)) {
+        break;
+      }
+    }
+    return new SearchResult(pv[0], bestScore, completedDepth, nodes, elapsedMillis(start), pv);
+  }
+
+  private int searchRoot(int[] rootMoves, int count, int depth) {
+    int alpha = -INFINITY;
+    int beta = INFINITY;
+    keys[0] = board.getZobristKey();
+    pvLength[0] = 0;
+    for (int i = 0; i < count; i++) {
+      int move = rootMoves[i];
+      makeMove(0, move);
+      int score;
+      if (i == 0) {
+        score = -alphaBeta(depth - 1, 1, -beta, -alpha, true);
+      } else {
+        score = -alphaBeta(depth - 1, 1, -alpha - 1, -alpha, true);
+        if (score > alpha && !stopped) {
+          score = -alphaBeta(depth - 1, 1, -beta, -alpha, true);
+        }
+      }
+      board.undoMove(move);
+      if (stopped) {
+        return alpha;
+      }
+      if (score > alpha) {
+        alpha = score;
+        updatePv(0, move);
+      }
+    }
+    return alpha;
+  }
+
+  /**
+   * @param nullAllowed 是否允许空着，空着之后的一层和验证搜索中不允许
+   */
+  private int alphaBeta(int depth, int ply, int alpha, int beta, boolean nullAllowed) {
+    if (depth <= 0 && options.isEnabled(SearchOptions.Feature.QUIESCENCE)
+        && !GameLogic.isInCheck(board, board.getSideToMove())) {
+      return quiesce(ply, alpha, beta);
+    }
+    pvLength[ply] = 0;
+    if (++nodes >= limits.getMaxNodes()
+        || ((nodes & TIME_CHECK_MASK) == 0 && System.nanoTime() >= deadline)) {
+      stopped = true;
+    }
+    if (stopped) {
+      return 0;
+    }
+
+    long key = board.getZobristKey();
+    keys[ply] = key;
+    if (isRepetition(ply, key)) {
+      return 0;
+    }
+    if (tablebases != null) {
+      int value = tablebases.probe(board, tablebaseScratch);
+      if (value != Tablebases.NOT_FOUND) {
+        return tablebaseScore(value, ply);
+      }
+    }
+
+    // 置换表：非主变例节点可以直接用足够深的结果截断
+    int hashMove = PackedMove.NONE;
+    long entry = table.probe(key);
+    if (entry != 0) {
+      hashMove = TranspositionTable.move(entry);
+      if (beta - alpha == 1 && TranspositionTable.depth(entry) >= depth) {
+        int score = TranspositionTable.score(entry, ply);
+        int bound = TranspositionTable.bound(entry);
+        if (bound == TranspositionTable.BOUND_EXACT
+            || (bound == TranspositionTable.BOUND_LOWER && score >= beta)
+            || (bound == TranspositionTable.BOUND_UPPER && score <= alpha)) {
+          return score;
+        }
+      }
+    }
+
+    int side = board.getSideToMove();
+    boolean inCheck = GameLogic.isInCheck(board, side);
+    if (inCheck) {
+      depth++; // 将军延伸
+    }
+    if (depth <= 0 || ply >= MAX_PLY) {
+      return evaluate(ply);
+    }
+
+    boolean pvNode = beta - alpha > 1;
+    boolean prunable = !pvNode && !inCheck && Math.abs(beta) < MATE_BOUND;
+    int staticEval = inCheck ? -INFINITY : evaluate(ply);
+
+    // 剃刀：剩余1、2层且静态评估远低于 alpha，静态搜索也不能超过 alpha 时直接返回
+    if (prunable && depth <= 2 && staticEval + RAZOR_MARGINS[depth] < alpha
+        && options.isEnabled(SearchOptions.Feature.RAZORING) && options.isEnabled(SearchOptions.Feature.QUIESCENCE)) {
+      int score = quiesce(ply, alpha - 1, alpha);
+      if (stopped) {
+        return 0;
+      }
+      if (depth == 1 || score < alpha) {
+        return score;
+      }
+    }
+
+    // 空着裁剪：让对方连走两步仍不低于 beta 则截断；无车马炮时不做，只剩一个时做验证搜索以防等着
+    if (prunable && nullAllowed && depth >= NULL_MOVE_MIN_DEPTH && staticEval >= beta
+        && options.isEnabled(SearchOptions.Feature.NULL_MOVE)) {
+      int attackers = countAttackers(side);
+      if (attackers > 0) {
+        int reduction = depth >= 6 ? 3 : 2;
+        nullMoves[ply] = true;
+        board.makeNullMove();
+        if (accumulator != null) {
+          accumulator.push(ply, PackedMove.NONE);
+        }
+        int score = -alphaBeta(depth - 1 - reduction, ply + 1, -beta, -beta + 1, false);
+        board.undoNullMove();
+        nullMoves[ply] = false;
+        if (stopped) {
+          return 0;
+        }
+        if (score >= beta) {
+          if (attackers > 1 || alphaBeta(depth - 1 - reduction, ply, beta - 1, beta, false) >= beta) {
+            return score >= MATE_BOUND ? beta : score;
+          }
+          if (stopped) {
+            return 0;
+          }
+        }
+      }
+    }
+
+    // 无效裁剪：剩余1、2层且静态评估加上余量仍不超过 alpha，不将军的不吃子走法不必搜索
+    boolean futile = prunable && depth <= 2 && staticEval + FUTILITY_MARGINS[depth] <= alpha
+        && options.isEnabled(SearchOptions.Feature.FUTILITY);
+    boolean useLmr = options.isEnabled(SearchOptions.Feature.LMR);
+
+    int[] killer = killers[ply];
+    boolean useKillers = options.isEnabled(SearchOptions.Feature.KILLERS);
+    boolean useHistory = options.isEnabled(SearchOptions.Feature.HISTORY);
+    MovePicker picker = pickers[ply];
+    picker.init(board, hashMove, useKillers ? killer[0] : PackedMove.NONE, useKillers ? killer[1] : PackedMove.NONE,
+        useHistory ? historyScores : null, options.isEnabled(SearchOptions.Feature.MVV_LVA),
+        options.isEnabled(SearchOptions.Feature.SEE));
+
+    int originalAlpha = alpha;
+    int legal = 0;
+    int best = -INFINITY;
+    int bestMove = PackedMove.NONE;
+    int move;
+    while ((move = picker.next()) != PackedMove.NONE) {
+      makeMove(ply, move);
+      if (GameLogic.isInCheck(board, side)) {
+        board.undoMove(move);
+        continue;
+      }
+      legal++;
+
+      // 排在后面的普通不吃子走法才会被裁剪或缩减
+      int reduction = 0;
+      if (legal > 1 && !inCheck && !PackedMove.isCapture(move) && move != hashMove
+          && move != killer[0] && move != killer[1]
+          && (futile || (useLmr && depth >= LMR_MIN_DEPTH && legal > LMR_MIN_MOVES))
+          && !GameLogic.isInCheck(board, 1 - side)) {
+        if (futile) {
+          board.undoMove(move);
+          best = Math.max(best, staticEval + FUTILITY_MARGINS[depth]);
+          continue;
+        }
+        reduction = LMR_REDUCTIONS[depth][legal];
+        if (useHistory) {
+          int score = historyScores[MovePicker.historyIndex(move)];
+          reduction += score >= HISTORY_LMR_THRESHOLD ? -1 : score == 0 ? 1 : 0;
+        }
+        if (pvNode) {
+          reduction--;
+        }
+        reduction = Math.max(0, Math.min(reduction, depth - 2));
+      }
+
+      int score;
+      if (legal == 1) {
+        score = -alphaBeta(depth - 1, ply + 1, -beta, -alpha, true);
+      } else {
+        score = -alphaBeta(depth - 1 - reduction, ply + 1, -alpha - 1, -alpha, true);
+        if (reduction > 0 && score > alpha && !stopped) {
+          score = -alphaBeta(depth - 1, ply + 1, -alpha - 1, -alpha, true);
+        }
+        if (score > alpha && score < beta && !stopped) {
+          score = -alphaBeta(depth - 1, ply + 1, -beta, -alpha, true);
+        }
+      }
+      board.undoMove(move);
+      if (stopped) {
+        return 0;
+      }
+      if (score > best) {
+        best = score;
+        bestMove = move;
+        if (score > alpha) {
+          alpha = score;
+          updatePv(ply, move);
+          if (alpha >= beta) {
+            if (!PackedMove.isCapture(move)) {
+              updateQuietCutoff(ply, move, depth, useKillers, useHistory);
+            }
+            break;
+          }
+        }
+      }
+    }
+
+    // 无子可走：被将死判负，困毙与 GameLogic 一致判和
+    if (legal == 0) {
+      return inCheck ? -MATE + ply : 0;
+    }
+
+    int bound = best >= beta ? TranspositionTable.BOUND_LOWER
+        : best > originalAlpha ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER;
+    table.store(key, bestMove, best, depth, bound, ply);
+    return best;
+  }
+
+  /**
+   * 静态搜索：不被将军时可以不走（取局面评估），只搜索吃子；被将军时搜索全部应将，无应将即被将死
+   * 吃子次数有限，搜索一定会结束；不查置换表，也不判断重复局面
+   */
+  private int quiesce(int ply, int alpha, int beta) {
+    pvLength[ply] = 0;
+    if (++nodes >= limits.getMaxNodes()
+        || ((nodes & TIME_CHECK_MASK) == 0 && System.nanoTime() >= deadline)) {
+      stopped = true;
+    }
+    if (stopped) {
+      return 0;
+    }
+    if (ply >= MAX_PLY) {
+      return evaluate(ply);
+    }
+
+    int side = board.getSideToMove();
+    boolean inCheck = GameLogic.isInCheck(board, side);
+    boolean mvvLva = options.isEnabled(SearchOptions.Feature.MVV_LVA);
+    boolean see = options.isEnabled(SearchOptions.Feature.SEE);
+    MovePicker picker = pickers[ply];
+    int best;
+    if (inCheck) {
+      best = -INFINITY;
+      picker.init(board, PackedMove.NONE, PackedMove.NONE, PackedMove.NONE, null, mvvLva, see);
+    } else {
+      best = evaluate(ply);
+      if (best >= beta) {
+        return best;
+      }
+      if (best > alpha) {
+        alpha = best;
+      }
+      picker.initCaptures(board, mvvLva, see);
+    }
+
+    int move;
+    while ((move = picker.next()) != PackedMove.NONE) {
+      makeMove(ply, move);
+      if (GameLogic.isInCheck(board, side)) {
+        board.undoMove(move);
+        continue;
+      }
+      int score = -quiesce(ply + 1, -beta, -alpha);
+      board.undoMove(move);
+      if (stopped) {
+        return 0;
+      }
+      if (score > best) {
+        best = score;
+        if (score > alpha) {
+          alpha = score;
+          updatePv(ply, move);
+          if (alpha >= beta) {
+            break;
+          }
+        }
+      }
+    }
+    return best == -INFINITY ? -MATE + ply : best;
+  }
+
+  /**
+   * 不吃子走法产生截断：记为本层杀手走法，并按深度的平方累加历史分
+   */
+  private void updateQuietCutoff(int ply, int move, int depth, boolean useKillers, boolean useHistory) {
+    if (useKillers) {
+      int[] killer = killers[ply];
+      if (killer[0] != move) {
+        killer[1] = killer[0];
+        killer[0] = move;
+      }
+    }
+    if (useHistory) {
+      int index = MovePicker.historyIndex(move);
+      historyScores[index] += depth * depth;
+      if (historyScores[index] > HISTORY_LIMIT) {
+        for (int i = 0; i < historyScores.length; i++) {
+          historyScores[i] >>= 1;
+        }
+      }
+    }
+  }
+
+  /**
+   * 残局库局面值换算为搜索分数，杀棋距离从根局面算起
+   */
+  static int tablebaseScore(int value, int ply) {
+    if (Tablebase.isWin(value)) {
+      return MATE - ply - Tablebase.plies(value);
+    }
+    if (Tablebase.isLoss(value)) {
+      return -MATE + ply + Tablebase.plies(value);
+    }
+    return 0;
+  }
+
+  /**
+   * 搜索路径或对局历史中出现过同一局面；空着之前的局面不参与比较
+   */
+  private boolean isRepetition(int ply, long key) {
+    for (int i = ply - 1; i >= 0; i--) {
+      if (nullMoves[i]) {
+        return false;
+      }
+      if (((ply - i) & 1) == 0 && keys[i] == key) {
+        return true;
+      }
+    }
+    return history != null && history.contains(key);
+  }
+
+  /**
+   * 走子，同时记下网络累加器的增量
+   */
+  private void makeMove(int ply, int move) {
+    board.makeMove(move);
+    if (accumulator != null) {
+      accumulator.push(ply, move);
+    }
+  }
+
+  /**
+   * 第 ply 层局面的静态评估，走棋方视角
+   */
+  private int evaluate(int ply) {
+    return accumulator != null ? accumulator.evaluate(ply, board.getSideToMove()) : Evaluator.evaluate(board);
+  }
+
+  /**
+   * 车、马、炮的数量，用于判断空着是否安全
+   */
+  private int countAttackers(int side) {
+    int attackers = 0;
+    int count = board.getPieceCount(side);
+    for (int i = 0; i < count; i++) {
+      int type = PieceCode.type(board.getPieceCode(board.getPieceSquare(side, i)));
+      if (type == PieceCode.ROOK || type == PieceCode.HORSE || type == PieceCode.CANNON) {
+        attackers++;
+      }
+    }
+    return attackers;
+  }
+
+  private void updatePv(int ply, int move) {
+    int[] row = pvTable[ply];
+    row[0] = move;
+    int childLength = pvLength[ply + 1];
+    System.arraycopy(pvTable[ply + 1], 0, row, 1, childLength);
+    pvLength[ply] = childLength + 1;
+  }
+
+  private int generateLegal(int[] buffer) {
+    int count = MoveGenerator.generate(board, board.getSideToMove(), buffer, 0);
+    int legal = 0;
+    for (int i = 0; i < count; i++) {
+      if (GameLogic.isLegal(board, buffer[i])) {
+        buffer[legal++] = buffer[i];
+      }
+    }
+    capturesFirst(buffer, legal);
+    return legal;
+  }
+
+  /**
+   * 把吃子走法移到前面，其余走法保持生成顺序
+   */
+  private static void capturesFirst(int[] list, int count) {
+    int next = 0;
+    for (int i = 0; i < count; i++) {
+      int move = list[i];
+      if (PackedMove.isCapture(move)) {
+        System.arraycopy(list, next, list, next + 1, i - next);
+        list[next++] = move;
+      }
+    }
+  }
+
+  private static void moveToFront(int[] list, int count, int move) {
+    for (int i = 0; i < count; i++) {
+      if (list[i] == move) {
+        System.arraycopy(list, 0, list, 1, i);
+        list[0] = move;
+        return;
+      }
+    }
+  }
+
+  private static long elapsedMillis(long start) {
+    return (System.nanoTime() - start) / 1_000_000L;
+  }
+}
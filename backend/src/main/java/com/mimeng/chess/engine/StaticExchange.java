@@ -0,0 +1,179 @@
+package com.mimeng.chess.engine;
+
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.PackedMove;
+import com.mimeng.chess.entity.chess.PieceCode;
+import com.mimeng.chess.entity.chess.PieceSquareTable;
+import com.mimeng.chess.entity.chess.Square;
+
+/**
+ * 静态交换评估（SEE）：双方轮流用价值最低的棋子吃目标格上的棋子，任一方可随时停止，求走子方的最终得失
+ * 交换在棋盘上实际走子/撤销，每吃一步都重新找攻击者，所以炮架的增减、马腿的解除与蹩住都自然计入。
+ * 不考虑牵制和送将，将帅按极大价值计，被吃即交换结束。缓冲区在构造时分配，一个实例只供一个线程使用
+ */
+final class StaticExchange {
+  /**
+   * 将帅在交换中的价值，大于其余子力之和
+   */
+  static final int KING_VALUE = 20000;
+
+  private static final int MAX_EXCHANGES = 32;
+  private static final int[] ORTHOGONAL = { Square.UP, Square.DOWN, Square.LEFT, Square.RIGHT };
+  private static final int[] DIAGONAL = { -17, -15, 15, 17 };
+  // 每个斜角既是马腿，也对应两个可能的马位
+  private static final int[] HORSE_LEGS = { -17, -15, 15, 17 };
+  private static final int[] HORSE_ATTACKERS = { -33, -18, -31, -14, 31, 14, 33, 18 };
+
+  private final int[] gains = new int[MAX_EXCHANGES + 1];
+  private final int[] exchanges = new int[MAX_EXCHANGES];
+
+  /**
+   * 棋子在交换中的价值
+   */
+  static int value(int code) {
+    int type = PieceCode.type(code);
+    return type == PieceCode.KING ? KING_VALUE : PieceSquareTable.pieceValue(type);
+  }
+
+  /**
+   * 被吃子价值低于攻击子，且交换后走子方亏损
+   */
+  boolean isLosing(ChessBoard board, int move) {
+    return value(PackedMove.captured(move)) < value(PackedMove.piece(move)) && evaluate(board, move) < 0;
+  }
+
+  /**
+   * 当前走子方走出吃子走法后，整个交换的得失（子力价值）
+   * 棋盘在返回前恢复原状
+   */
+  int evaluate(ChessBoard board, int move) {
+    int to = PackedMove.to(move);
+    gains[0] = value(PackedMove.captured(move));
+    board.makeMove(move);
+    exchanges[0] = move;
+    int made = 1;
+    int depth = 1;
+    int onSquare = PackedMove.piece(move);
+    while (depth < MAX_EXCHANGES) {
+      int from = leastValuableAttacker(board, to, board.getSideToMove());
+      if (from < 0) {
+        break;
+      }
+      gains[depth] = value(onSquare) - gains[depth - 1];
+      depth++;
+      if (PieceCode.type(onSquare) == PieceCode.KING) {
+        break; // 吃将帅即结束，不在棋盘上执行
+      }
+      int code = board.getPieceCode(from);
+      int capture = PackedMove.of(from, to, code, onSquare);
+      board.makeMove(capture);
+      exchanges[made++] = capture;
+      onSquare = code;
+    }
+    while (made > 0) {
+      board.undoMove(exchanges[--made]);
+    }
+
+    // 从最后一吃往回推：每一方都可以选择不吃
+    while (--depth > 0) {
+      gains[depth - 1] = -Math.max(-gains[depth - 1], gains[depth]);
+    }
+    return gains[0];
+  }
+
+  /**
+   * 指定阵营攻击目标格的棋子中价值最低的一个，返回其所在格子，没有则返回 -1
+   * 反查方式与 {@code GameLogic.isSquareAttacked} 相同
+   */
+  static int leastValuableAttacker(ChessBoard board, int square, int side) {
+    int flag = PieceCode.sideFlag(side);
+    int best = -1;
+    int bestValue = Integer.MAX_VALUE;
+
+    // 兵卒：正面迎来，或过河后从左右横吃
+    int pawn = flag | PieceCode.PAWN;
+    int sq = square - Square.forward(side);
+    if (board.getPieceCode(sq) == pawn) {
+      best = sq;
+      bestValue = value(pawn);
+    }
+    for (int delta = Square.LEFT; delta <= Square.RIGHT && best < 0; delta += 2) {
+      sq = square + delta;
+      if (board.getPieceCode(sq) == pawn && !Square.isOnOwnSide(sq, side)) {
+        best = sq;
+        bestValue = value(pawn);
+      }
+    }
+
+    // 士只在九宫内，象只在己方半场（需象眼为空）
+    if (Square.isInPalace(square, side)) {
+      for (int delta : DIAGONAL) {
+        if (board.getPieceCode(square + delta) == (flag | PieceCode.GUARD)
+            && value(flag | PieceCode.GUARD) < bestValue) {
+          best = square + delta;
+          bestValue = value(flag | PieceCode.GUARD);
+          break;
+        }
+      }
+    }
+    if (Square.isOnOwnSide(square, side)) {
+      for (int delta : DIAGONAL) {
+        if (board.getPieceCode(square + delta) == PieceCode.EMPTY
+            && board.getPieceCode(square + 2 * delta) == (flag | PieceCode.ELEPHANT)
+            && value(flag | PieceCode.ELEPHANT) < bestValue) {
+          best = square + 2 * delta;
+          bestValue = value(flag | PieceCode.ELEPHANT);
+          break;
+        }
+      }
+    }
+
+    // 马：马腿被蹩时该方向的两个马位都不能攻击
+    int horse = flag | PieceCode.HORSE;
+    if (value(horse) < bestValue) {
+      for (int i = 0; i < 4; i++) {
+        if (board.getPieceCode(square + HORSE_LEGS[i]) != PieceCode.EMPTY) {
+          continue;
+        }
+        if (board.getPieceCode(square + HORSE_ATTACKERS[2 * i]) == horse) {
+          best = square + HORSE_ATTACKERS[2 * i];
+          bestValue = value(horse);
+          break;
+        }
+        if (board.getPieceCode(square + HORSE_ATTACKERS[2 * i + 1]) == horse) {
+          best = square + HORSE_ATTACKERS[2 * i + 1];
+          bestValue = value(horse);
+          break;
+        }
+      }
+    }
+
+    // 车、炮（隔一个炮架）、相邻的将帅
+    for (int delta : ORTHOGONAL) {
+      sq = square + delta;
+      int code = board.getPieceCode(sq);
+      while (code == PieceCode.EMPTY) {
+        sq += delta;
+        code = board.getPieceCode(sq);
+      }
+      if (code == PieceCode.OFFBOARD) {
+        continue;
+      }
+      if ((code == (flag | PieceCode.ROOK)
+          || (code == (flag | PieceCode.KING) && sq == square + delta && Square.isInPalace(square, side)))
+          && value(code) < bestValue) {
+        best = sq;
+        bestValue = value(code);
+      }
+      do {
+        sq += delta;
+        code = board.getPieceCode(sq);
+      } while (code == PieceCode.EMPTY);
+      if (code == (flag | PieceCode.CANNON) && value(code) < bestValue) {
+        best = sq;
+        bestValue = value(code);
+      }
+    }
+    return best;
+  }
+}
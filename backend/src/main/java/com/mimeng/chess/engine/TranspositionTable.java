@@ -0,0 +1,271 @@
+package com.mimeng.chess.engine;
+
+import com.mimeng.chess.entity.chess.PackedMove;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁置换表
+ * 所有条目存放在一个 long[] 中，每个条目占两个 long：第一个为 Zobrist 键与数据的异或，第二个为数据。
+ * 读写都不加锁，多个搜索线程、多个对局可以共享同一张表；并发写入造成的撕裂条目在读取时会因异或校验失败而被当作未命中。
+ * 每 4 个条目（64 字节，一条缓存行）组成一个桶，替换时优先选择空位，其次是旧搜索留下的、深度较浅的条目。
+ * <p>
+ * 数据位布局：走法 0-31 位，分数 32-47 位，深度 48-55 位，边界类型 56-57 位，代数 58-63 位
+ */
+public final class TranspositionTable {
+  public static final int BOUND_NONE = 0; // 空条目
+  public static final int BOUND_UPPER = 1; // 分数为上界（未超过 alpha）
+  public static final int BOUND_LOWER = 2; // 分数为下界（产生了 beta 截断）
+  public static final int BOUND_EXACT = 3; // 精确分数
+
+  private static final int BUCKET_ENTRIES = 4;
+  private static final int ENTRY_BYTES = 16;
+  private static final int MAX_BUCKETS = 1 << 26; // long[] 长度不能超过 int 范围
+  private static final int AGE_MASK = 63;
+  private static final int MAX_DEPTH = 255;
+
+  private final long[] table;
+  private final int bucketMask;
+  private final int sizeMb;
+  private volatile int age;
+
+  private final LongAdder probes = new LongAdder();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder stores = new LongAdder();
+  private final LongAdder overwrites = new LongAdder();
+
+  /**
+   * @param sizeMb 表大小（MB），实际容量向下取整到 2 的幂个桶
+   * @throws IllegalArgumentException 大小不为正数
+   */
+  public TranspositionTable(int sizeMb) {
+    if (sizeMb <= 0) {
+      throw new IllegalArgumentException("置换表大小必须为正数: " + sizeMb);
+    }
+    long buckets = (long) sizeMb * 1024 * 1024 / (ENTRY_BYTES * BUCKET_ENTRIES);
+    int bucketCount = (int) Math.min(Long.highestOneBit(buckets), MAX_BUCKETS);
+    this.table = new long[bucketCount * BUCKET_ENTRIES * 2];
+    this.bucketMask = bucketCount - 1;
+    this.sizeMb = sizeMb;
+  }
+
+  /**
+   * 开始新的一次搜索，之前写入的条目变为旧条目，替换时优先被覆盖
+   * 多个对局并发调用时代数可能少加，只影响替换优先级
+   */
+  public void newSearch() {
+    age = (age + 1) & AGE_MASK;
+  }
+
+  /**
+   * 查找局面
+   *
+   * @return 条目数据，未命中返回 0；用 {@link #move}、{@link #score} 等方法解码
+   */
+  public long probe(long key) {
+    probes.increment();
+    int base = bucketIndex(key);
+    for (int i = base; i < base + BUCKET_ENTRIES * 2; i += 2) {
+      long data = table[i + 1];
+      if (data != 0 && (table[i] ^ data) == key) {
+        hits.increment();
+        return data;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * 写入局面
+   *
+   * @param ply 当前层数，杀棋分数会换算成相对当前节点的距离后存储
+   */
+  public void store(long key, int move, int score, int depth, int bound, int ply) {
+    stores.increment();
+    int base = bucketIndex(key);
+    int currentAge = age;
+    int target = -1;
+    int worst = Integer.MAX_VALUE;
+    for (int i = base; i < base + BUCKET_ENTRIES * 2; i += 2) {
+      long old = table[i + 1];
+      if (old == 0) {
+        if (worst != Integer.MIN_VALUE) {
+          target = i;
+          worst = Integer.MIN_VALUE;
+        }
+        continue;
+      }
+      if ((table[i] ^ old) == key) {
+        // 同一局面：没有新走法时保留原来的走法
+        if (move == PackedMove.NONE) {
+          move = move(old);
+        }
+        target = i;
+        break;
+      }
+      int value = depth(old) - 8 * ((currentAge - age(old)) & AGE_MASK);
+      if (value < worst) {
+        target = i;
+        worst = value;
+      }
+    }
+
+    long old = table[target + 1];
+    if (old != 0 && (table[target] ^ old) != key) {
+      overwrites.increment();
+    }
+    long data = pack(move, toStored(score, ply), Math.min(Math.max(depth, 0), MAX_DEPTH), bound, currentAge);
+    table[target + 1] = data;
+    table[target] = key ^ data;
+  }
+
+  /**
+   * 清空所有条目和统计
+   */
+  public void clear() {
+    Arrays.fill(table, 0);
+    probes.reset();
+    hits.reset();
+    stores.reset();
+    overwrites.reset();
+  }
+
+  /**
+   * 只清零统计，不清空条目，用于按时间段统计命中率和冲突率
+   */
+  public void resetStats() {
+    probes.reset();
+    hits.reset();
+    stores.reset();
+    overwrites.reset();
+  }
+
+  /**
+   * 条目中的走法
+   */
+  public static int move(long data) {
+    return (int) data;
+  }
+
+  /**
+   * 条目中的分数，杀棋分数换算回相对根节点的距离
+   */
+  public static int score(long data, int ply) {
+    int score = (short) (data >>> 32);
+    if (score >= Searcher.MATE_BOUND) {
+      return score - ply;
+    }
+    if (score <= -Searcher.MATE_BOUND) {
+      return score + ply;
+    }
+    return score;
+  }
+
+  /**
+   * 条目的搜索深度
+   */
+  public static int depth(long data) {
+    return (int) (data >>> 48) & 0xFF;
+  }
+
+  /**
+   * 条目的边界类型
+   */
+  public static int bound(long data) {
+    return (int) (data >>> 56) & 3;
+  }
+
+  private static int age(long data) {
+    return (int) (data >>> 58) & AGE_MASK;
+  }
+
+  private static long pack(int move, int score, int depth, int bound, int age) {
+    return (move & 0xFFFFFFFFL)
+        | ((score & 0xFFFFL) << 32)
+        | ((long) depth << 48)
+        | ((long) bound << 56)
+        | ((long) age << 58);
+  }
+
+  private static int toStored(int score, int ply) {
+    if (score >= Searcher.MATE_BOUND) {
+      return score + ply;
+    }
+    if (score <= -Searcher.MATE_BOUND) {
+      return score - ply;
+    }
+    return score;
+  }
+
+  private int bucketIndex(long key) {
+    return ((int) key & bucketMask) * BUCKET_ENTRIES * 2;
+  }
+
+  public int getSizeMb() {
+    return sizeMb;
+  }
+
+  /**
+   * 条目总数
+   */
+  public int getCapacity() {
+    return table.length / 2;
+  }
+
+  public long getProbes() {
+    return probes.sum();
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getStores() {
+    return stores.sum();
+  }
+
+  /**
+   * 覆盖其他局面条目的写入次数
+   */
+  public long getOverwrites() {
+    return overwrites.sum();
+  }
+
+  /**
+   * 命中率
+   */
+  public double getHitRate() {
+    long total = getProbes();
+    return total == 0 ? 0 : (double) getHits() / total;
+  }
+
+  /**
+   * 冲突率：写入时覆盖了其他局面条目的比例
+   */
+  public double getCollisionRate() {
+    long total = getStores();
+    return total == 0 ? 0 : (double) getOverwrites() / total;
+  }
+
+  /**
+   * 抽样估计当前搜索代写入的条目占比（千分比）
+   */
+  public int hashfull() {
+    int sample = Math.min(1000, getCapacity());
+    int currentAge = age;
+    int used = 0;
+    for (int i = 0; i < sample; i++) {
+      long data = table[i * 2 + 1];
+      if (data != 0 && age(data) == currentAge) {
+        used++;
+      }
+    }
+    return used * 1000 / sample;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("TranspositionTable{%dMB, entries=%d, probes=%d, hitRate=%.3f, collisionRate=%.3f, hashfull=%d}",
+        sizeMb, getCapacity(), getProbes(), getHitRate(), getCollisionRate(), hashfull());
+  }
+}
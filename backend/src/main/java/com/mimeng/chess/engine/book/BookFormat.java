@@ -0,0 +1,80 @@
+package com.mimeng.chess.engine.book;
+
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.PieceCode;
+import com.mimeng.chess.entity.chess.Square;
+import com.mimeng.chess.entity.chess.Zobrist;
+
+/**
+ * 开局库文件格式及镜像折叠
+ * 文件头 16 字节：魔数、版本、条目数；之后每个条目 12 字节：局面键（long）、走法（short）、权重（short，无符号），
+ * 按局面键升序、同一局面内按权重降序排列。走法编码为起点和终点的 0-89 下标（行 * 9 + 列），各占 7 位。
+ * <p>
+ * 左右镜像的两个局面只存一份：取两者哈希键中较小的一个作为规范键，非规范局面的走法先镜像再存储；
+ * 左右对称的局面（如开局）中互为镜像的两步棋也只存编码较小的一步
+ */
+final class BookFormat {
+  static final int MAGIC = 0x58514B42; // "XQKB"
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 16;
+  static final int ENTRY_BYTES = 12;
+  static final int MAX_WEIGHT = 0xFFFF;
+
+  private BookFormat() {
+  }
+
+  /**
+   * 左右镜像后的格子
+   */
+  static int mirror(int square) {
+    return Square.of(Square.row(square), 8 - Square.col(square));
+  }
+
+  /**
+   * 左右镜像局面的哈希键
+   */
+  static long mirrorKey(ChessBoard board) {
+    long key = 0;
+    for (int side = 0; side < 2; side++) {
+      int count = board.getPieceCount(side);
+      for (int i = 0; i < count; i++) {
+        int sq = board.getPieceSquare(side, i);
+        key ^= Zobrist.piece(board.getPieceCode(sq), mirror(sq));
+      }
+    }
+    if (board.getSideToMove() == PieceCode.SIDE_BLACK) {
+      key ^= Zobrist.side();
+    }
+    return key;
+  }
+
+  /**
+   * 把起点、终点格子编码为 short
+   */
+  static int encode(int from, int to) {
+    return (index(from) << 7) | index(to);
+  }
+
+  static int from(int encoded) {
+    return square((encoded >>> 7) & 0x7F);
+  }
+
+  static int to(int encoded) {
+    return square(encoded & 0x7F);
+  }
+
+  /**
+   * 镜像编码后的走法
+   */
+  static int mirrorMove(int encoded) {
+    return encode(mirror(from(encoded)), mirror(to(encoded)));
+  }
+
+  private static int index(int square) {
+    return Square.row(square) * 9 + Square.col(square);
+  }
+
+  private static int square(int index) {
+    return Square.of(index / 9, index % 9);
+  }
+}
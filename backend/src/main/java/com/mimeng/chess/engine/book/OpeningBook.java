@@ -0,0 +1,175 @@
+package com.mimeng.chess.engine.book;
+
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.GameLogic;
+import com.mimeng.chess.entity.chess.MoveGenerator;
+import com.mimeng.chess.entity.chess.PackedMove;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.random.RandomGenerator;
+
+/**
+ * 内存映射的只读开局库
+ * 文件通过 {@link FileChannel#map} 只读映射，查询直接在映射区上二分查找，不复制数据；
+ * 映射页由操作系统的页缓存提供，多个进程打开同一文件时共享物理内存。实例线程安全。
+ * 文件格式见 {@link BookFormat}，由 {@link OpeningBookBuilder} 生成
+ */
+public final class OpeningBook {
+  /**
+   * 一个局面最多返回的候选走法数
+   */
+  public static final int MAX_CANDIDATES = 64;
+
+  private final MappedByteBuffer buffer;
+  private final int count;
+
+  private OpeningBook(MappedByteBuffer buffer) {
+    this.buffer = buffer;
+    if (buffer.capacity() < BookFormat.HEADER_BYTES || buffer.getInt(0) != BookFormat.MAGIC) {
+      throw new IllegalArgumentException("不是开局库文件");
+    }
+    if (buffer.getInt(4) != BookFormat.VERSION) {
+      throw new IllegalArgumentException("不支持的开局库版本: " + buffer.getInt(4));
+    }
+    long entries = buffer.getLong(8);
+    if (entries < 0 || BookFormat.HEADER_BYTES + entries * BookFormat.ENTRY_BYTES > buffer.capacity()) {
+      throw new IllegalArgumentException("开局库文件已损坏");
+    }
+    this.count = (int) entries;
+  }
+
+  /**
+   * 只读映射开局库文件
+   *
+   * @throws IOException              读取失败
+   * @throws IllegalArgumentException 文件格式错误
+   */
+  public static OpeningBook open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      // 通道关闭后映射仍然有效
+      return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * 条目数
+   */
+  public int size() {
+    return count;
+  }
+
+  /**
+   * 查找当前局面的库内走法，只返回当前局面下合法的走法
+   *
+   * @param moves   输出的打包走法
+   * @param weights 与 moves 对应的权重
+   * @return 走法数量，不在库中时为 0
+   */
+  public int findMoves(ChessBoard board, int[] moves, int[] weights) {
+    long key = board.getZobristKey();
+    long mirrorKey = BookFormat.mirrorKey(board);
+    boolean symmetric = key == mirrorKey;
+    boolean mirrored = mirrorKey < key;
+    long canonical = mirrored ? mirrorKey : key;
+
+    int found = 0;
+    int[] legal = new int[MoveGenerator.MAX_MOVES];
+    int legalCount = MoveGenerator.generate(board, board.getSideToMove(), legal, 0);
+    for (int i = lowerBound(canonical); i < count && keyAt(i) == canonical && found < moves.length; i++) {
+      int encoded = moveAt(i);
+      int weight = weightAt(i);
+      if (mirrored) {
+        encoded = BookFormat.mirrorMove(encoded);
+      }
+      if (symmetric && BookFormat.mirrorMove(encoded) != encoded) {
+        // 对称局面只存了一半的走法，镜像的一步平分权重
+        int half = Math.max(1, weight / 2);
+        found = add(board, legal, legalCount, encoded, half, moves, weights, found);
+        if (found < moves.length) {
+          found = add(board, legal, legalCount, BookFormat.mirrorMove(encoded), half, moves, weights, found);
+        }
+      } else {
+        found = add(board, legal, legalCount, encoded, weight, moves, weights, found);
+      }
+    }
+    return found;
+  }
+
+  /**
+   * 按权重随机选择一步库内走法
+   *
+   * @return 打包走法，不在库中时返回 {@link PackedMove#NONE}
+   */
+  public int probe(ChessBoard board, RandomGenerator random) {
+    int[] moves = new int[MAX_CANDIDATES];
+    int[] weights = new int[MAX_CANDIDATES];
+    int found = findMoves(board, moves, weights);
+    long total = 0;
+    for (int i = 0; i < found; i++) {
+      total += weights[i];
+    }
+    if (total == 0) {
+      return PackedMove.NONE;
+    }
+    long pick = random.nextLong(total);
+    for (int i = 0; i < found; i++) {
+      pick -= weights[i];
+      if (pick < 0) {
+        return moves[i];
+      }
+    }
+    return moves[found - 1];
+  }
+
+  /**
+   * 校验库内走法在当前局面合法（防止哈希冲突），并转换为打包走法
+   */
+  private static int add(ChessBoard board, int[] legal, int legalCount, int encoded, int weight,
+      int[] moves, int[] weights, int found) {
+    if (weight <= 0) {
+      return found;
+    }
+    int from = BookFormat.from(encoded);
+    int to = BookFormat.to(encoded);
+    for (int i = 0; i < legalCount; i++) {
+      int move = legal[i];
+      if (PackedMove.from(move) == from && PackedMove.to(move) == to) {
+        if (GameLogic.isLegal(board, move)) {
+          moves[found] = move;
+          weights[found++] = weight;
+        }
+        break;
+      }
+    }
+    return found;
+  }
+
+  private int lowerBound(long key) {
+    int low = 0;
+    int high = count;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (keyAt(mid) < key) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private long keyAt(int index) {
+    return buffer.getLong(BookFormat.HEADER_BYTES + index * BookFormat.ENTRY_BYTES);
+  }
+
+  private int moveAt(int index) {
+    return buffer.getShort(BookFormat.HEADER_BYTES + index * BookFormat.ENTRY_BYTES + 8) & 0xFFFF;
+  }
+
+  private int weightAt(int index) {
+    return buffer.getShort(BookFormat.HEADER_BYTES + index * BookFormat.ENTRY_BYTES + 10) & 0xFFFF;
+  }
+}
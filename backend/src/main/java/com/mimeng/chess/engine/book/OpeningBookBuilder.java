@@ -0,0 +1,217 @@
+package com.mimeng.chess.engine.book;
+
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.Fen;
+import com.mimeng.chess.entity.chess.GameLogic;
+import com.mimeng.chess.entity.chess.MoveGenerator;
+import com.mimeng.chess.entity.chess.PackedMove;
+import com.mimeng.chess.entity.chess.PieceCode;
+import com.mimeng.chess.entity.chess.Square;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 开局库生成工具
+ * 读取对局记录，统计前若干步中每个局面下各走法的权重，镜像折叠后写出 {@link OpeningBook} 文件。
+ * <p>
+ * 对局记录为文本文件，每行一局：以空格分隔的 ICCS 坐标走法（如 {@code h2e2 h9g7}，列 a-i、行 0-9 从红方底线算起），
+ * 行末可带结果 {@code 1-0}（红胜）、{@code 0-1}（黑胜）或 {@code 1/2-1/2}（和），以 # 开头的行为注释。
+ * 有结果时胜方走法权重为 2、和棋为 1、负方走法不计入；没有结果时每步权重为 1
+ * <p>
+ * 运行：{@code ./gradlew buildOpeningBook -Pgames=games.txt -Pbook=book.bin [-PmaxPly=40]}
+ */
+public final class OpeningBookBuilder {
+  /**
+   * 默认只收录前 40 个半回合
+   */
+  public static final int DEFAULT_MAX_PLY = 40;
+
+  private final int maxPly;
+  private final Map<Long, Map<Integer, Integer>> weights = new HashMap<>();
+  private int games;
+  private int rejectedGames;
+
+  public OpeningBookBuilder(int maxPly) {
+    if (maxPly <= 0) {
+      throw new IllegalArgumentException("收录步数必须为正数: " + maxPly);
+    }
+    this.maxPly = maxPly;
+  }
+
+  /**
+   * 添加一局对局记录（格式见类注释）
+   *
+   * @return 是否收录；含非法走法的对局只收录非法走法之前的部分并返回 false
+   */
+  public boolean addGame(String record) {
+    String line = record.trim();
+    if (line.isEmpty() || line.startsWith("#")) {
+      return false;
+    }
+    String[] tokens = line.split("\\s+");
+    int moveCount = tokens.length;
+    int redWeight = 1;
+    int blackWeight = 1;
+    switch (tokens[tokens.length - 1]) {
+      case "1-0":
+        redWeight = 2;
+        blackWeight = 0;
+        moveCount--;
+        break;
+      case "0-1":
+        redWeight = 0;
+        blackWeight = 2;
+        moveCount--;
+        break;
+      case "1/2-1/2":
+        moveCount--;
+        break;
+      default:
+        break;
+    }
+
+    games++;
+    ChessBoard board = Fen.parse(Fen.START);
+    for (int ply = 0; ply < Math.min(moveCount, maxPly); ply++) {
+      int move = parseIccs(board, tokens[ply]);
+      if (move == PackedMove.NONE) {
+        rejectedGames++;
+        return false;
+      }
+      int weight = board.getSideToMove() == PieceCode.SIDE_RED ? redWeight : blackWeight;
+      if (weight > 0) {
+        record(board, move, weight);
+      }
+      board.makeMove(move);
+    }
+    return true;
+  }
+
+  /**
+   * 逐行读取对局记录文件
+   *
+   * @throws IOException 读取失败
+   */
+  public void addGames(Path file) throws IOException {
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        addGame(line);
+      }
+    }
+  }
+
+  /**
+   * 写出开局库文件
+   *
+   * @return 写入的条目数
+   * @throws IOException 写入失败
+   */
+  public int write(Path file) throws IOException {
+    List<long[]> entries = new ArrayList<>();
+    weights.forEach((key, moves) -> moves.forEach((move, weight) ->
+        entries.add(new long[] { key, move, Math.min(weight, BookFormat.MAX_WEIGHT) })));
+    entries.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(b[2], a[2]));
+
+    ByteBuffer buffer = ByteBuffer.allocate(BookFormat.HEADER_BYTES + entries.size() * BookFormat.ENTRY_BYTES);
+    buffer.putInt(BookFormat.MAGIC).putInt(BookFormat.VERSION).putLong(entries.size());
+    for (long[] entry : entries) {
+      buffer.putLong(entry[0]).putShort((short) entry[1]).putShort((short) entry[2]);
+    }
+    buffer.flip();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+    return entries.size();
+  }
+
+  /**
+   * 已读取的对局数
+   */
+  public int getGames() {
+    return games;
+  }
+
+  /**
+   * 含非法走法的对局数
+   */
+  public int getRejectedGames() {
+    return rejectedGames;
+  }
+
+  /**
+   * 按规范（镜像折叠后的）局面记录走法
+   */
+  private void record(ChessBoard board, int move, int weight) {
+    long key = board.getZobristKey();
+    long mirrorKey = BookFormat.mirrorKey(board);
+    int encoded = BookFormat.encode(PackedMove.from(move), PackedMove.to(move));
+    if (mirrorKey < key) {
+      key = mirrorKey;
+      encoded = BookFormat.mirrorMove(encoded);
+    } else if (mirrorKey == key) {
+      encoded = Math.min(encoded, BookFormat.mirrorMove(encoded));
+    }
+    weights.computeIfAbsent(key, k -> new HashMap<>()).merge(encoded, weight, Integer::sum);
+  }
+
+  /**
+   * 解析 ICCS 坐标走法，返回当前局面下对应的合法打包走法，不合法时返回 {@link PackedMove#NONE}
+   */
+  static int parseIccs(ChessBoard board, String text) {
+    String iccs = text.toLowerCase();
+    if (iccs.length() != 4 && !(iccs.length() == 5 && iccs.charAt(2) == '-')) {
+      return PackedMove.NONE;
+    }
+    int offset = iccs.length() == 5 ? 1 : 0;
+    int from = square(iccs.charAt(0), iccs.charAt(1));
+    int to = square(iccs.charAt(2 + offset), iccs.charAt(3 + offset));
+    if (from < 0 || to < 0) {
+      return PackedMove.NONE;
+    }
+    int[] moves = new int[MoveGenerator.MAX_MOVES];
+    int count = MoveGenerator.generate(board, board.getSideToMove(), moves, 0);
+    for (int i = 0; i < count; i++) {
+      if (PackedMove.from(moves[i]) == from && PackedMove.to(moves[i]) == to) {
+        return GameLogic.isLegal(board, moves[i]) ? moves[i] : PackedMove.NONE;
+      }
+    }
+    return PackedMove.NONE;
+  }
+
+  private static int square(char file, char rank) {
+    if (file < 'a' || file > 'i' || rank < '0' || rank > '9') {
+      return -1;
+    }
+    return Square.of(9 - (rank - '0'), file - 'a');
+  }
+
+  /**
+   * 命令行入口：{@code <对局记录文件> <开局库文件> [收录步数]}
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("用法: OpeningBookBuilder <games.txt> <book.bin> [maxPly]");
+      System.exit(1);
+    }
+    int maxPly = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAX_PLY;
+    OpeningBookBuilder builder = new OpeningBookBuilder(maxPly);
+    builder.addGames(Path.of(args[0]));
+    int entries = builder.write(Path.of(args[1]));
+    System.out.printf("读取 %d 局（%d 局含非法走法），写入 %d 个条目%n", builder.getGames(),
+        builder.getRejectedGames(), entries);
+  }
+}
@@ -0,0 +1,100 @@
+package com.mimeng.chess.engine.nnue;
+
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.PackedMove;
+import com.mimeng.chess.entity.chess.PieceCode;
+
+/**
+ * 搜索路径上每一层的累加器（两个视角各一份），随走子增量更新
+ * 走子时只记下走法（{@link #push}），需要评估时才从最近一个已计算的祖先层开始逐层补算：
+ * 每层只需加上落点特征、减去起点特征和被吃子特征，与棋子数量无关；被剪掉而从未评估的节点不产生计算。
+ * 一个实例只供一个搜索线程使用
+ */
+public final class Accumulator {
+  private final Network network;
+  private final Kernel kernel;
+  private final int hidden;
+  private final short[][][] stack; // [层][视角][hidden]
+  private final int[] moves;
+  private final boolean[] computed;
+  private final float[] values;
+  private final int[] rows;
+  private final float[] l1;
+
+  /**
+   * @param maxPly 最大层数，可以调用 {@link #push} 的层为 0..maxPly-1
+   */
+  public Accumulator(Network network, int maxPly) {
+    this.network = network;
+    this.kernel = network.kernel;
+    this.hidden = network.hidden;
+    this.stack = new short[maxPly + 1][2][hidden];
+    this.moves = new int[maxPly + 1];
+    this.computed = new boolean[maxPly + 1];
+    this.values = new float[2 * hidden];
+    this.rows = new int[2 * hidden];
+    this.l1 = new float[network.l1Size];
+  }
+
+  /**
+   * 从棋盘完整计算第 0 层的累加器，每次搜索开始时调用
+   */
+  public void reset(ChessBoard board) {
+    for (int perspective = 0; perspective < 2; perspective++) {
+      short[] accumulator = stack[0][perspective];
+      System.arraycopy(network.featureBias, 0, accumulator, 0, hidden);
+      for (int side = 0; side < 2; side++) {
+        int count = board.getPieceCount(side);
+        for (int i = 0; i < count; i++) {
+          int square = board.getPieceSquare(side, i);
+          int feature = Network.feature(perspective, board.getPieceCode(square), square);
+          kernel.update(accumulator, accumulator, network.featureWeights, feature * hidden,
+              Network.NO_FEATURE * hidden, Network.NO_FEATURE * hidden, hidden);
+        }
+      }
+    }
+    computed[0] = true;
+  }
+
+  /**
+   * 记录第 ply 层的局面走了 move 到达第 ply + 1 层，空着为 {@link PackedMove#NONE}
+   */
+  public void push(int ply, int move) {
+    moves[ply + 1] = move;
+    computed[ply + 1] = false;
+  }
+
+  /**
+   * 评估第 ply 层的局面，side 为走棋方
+   */
+  public int evaluate(int ply, int side) {
+    int base = ply;
+    while (!computed[base]) {
+      base--;
+    }
+    for (int p = base + 1; p <= ply; p++) {
+      apply(stack[p - 1], stack[p], moves[p]);
+      computed[p] = true;
+    }
+    short[][] accumulators = stack[ply];
+    return network.evaluate(accumulators[side], accumulators[1 - side], values, rows, l1);
+  }
+
+  private void apply(short[][] parent, short[][] child, int move) {
+    if (move == PackedMove.NONE) {
+      System.arraycopy(parent[0], 0, child[0], 0, hidden);
+      System.arraycopy(parent[1], 0, child[1], 0, hidden);
+      return;
+    }
+    int from = PackedMove.from(move);
+    int to = PackedMove.to(move);
+    int piece = PackedMove.piece(move);
+    int captured = PackedMove.captured(move);
+    for (int perspective = 0; perspective < 2; perspective++) {
+      int capture = captured == PieceCode.EMPTY ? Network.NO_FEATURE : Network.feature(perspective, captured, to);
+      kernel.update(parent[perspective], child[perspective], network.featureWeights,
+          Network.feature(perspective, piece, to) * hidden, Network.feature(perspective, piece, from) * hidden,
+          capture * hidden, hidden);
+    }
+  }
+}
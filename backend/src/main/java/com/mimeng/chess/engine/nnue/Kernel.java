@@ -0,0 +1,33 @@
+package com.mimeng.chess.engine.nnue;
+
+/**
+ * 网络计算的两个热点：累加器的增量更新和隐藏层的乘加
+ * 有 {@code jdk.incubator.vector} 模块时使用 SIMD 实现 {@link VectorKernel}，否则使用标量实现 {@link ScalarKernel}
+ */
+interface Kernel {
+
+  /**
+   * dst = src + weights[add] - weights[remove] - weights[capture]，三个偏移各指向一行长度为 length 的特征权重
+   * src 与 dst 可以是同一个数组
+   */
+  void update(short[] src, short[] dst, short[] weights, int add, int remove, int capture, int length);
+
+  /**
+   * 稀疏输入的全连接层：out[0..width) += values[k] * weights 的第 rows[k] 行（每行 width 个），k < count
+   */
+  void multiply(float[] values, int[] rows, int count, float[] weights, float[] out, int width);
+
+  /**
+   * 可用的最快实现：运行时加载了 jdk.incubator.vector 模块（--add-modules jdk.incubator.vector）时用 SIMD，否则用标量
+   */
+  static Kernel best() {
+    if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+      try {
+        return new VectorKernel();
+      } catch (LinkageError e) {
+        return ScalarKernel.INSTANCE;
+      }
+    }
+    return ScalarKernel.INSTANCE;
+  }
+}
@@ -0,0 +1,289 @@
+package com.mimeng.chess.engine.nnue;
+
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.PieceCode;
+import com.mimeng.chess.entity.chess.Square;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * NNUE 风格的局面评估网络（只读，线程安全）
+ * 输入特征为"视角 x 己方/对方 x 棋子类型 x 格子"（每个视角 2 * 7 * 90 个），黑方视角上下翻转棋盘，双方共用一组特征权重。
+ * 特征层输出（累加器）为 int16，由 {@link Accumulator} 随走子增量更新；评估时两个视角的累加器按走棋方在前拼接，
+ * 经截断 ReLU（0..{@value #QA}，即 0..1）后依次通过隐藏层（截断 ReLU）和输出层，输出乘以缩放系数即为走棋方视角的分数。
+ * 隐藏层按输入逐个累加"输入值 x 该输入的一行权重"，截断后为 0 的输入（通常占一半左右）直接跳过。
+ * <p>
+ * 权重文件（大端）：文件头为魔数、版本、特征数、累加器宽度、隐藏层宽度（int）和输出缩放系数（float）；
+ * 之后依次为特征权重和偏置（short，已乘以 {@value #QA} 量化），隐藏层权重（按输入逐行）和偏置、输出层权重和偏置（float）。
+ * 由 {@link NetworkTrainer} 训练生成
+ */
+public final class Network {
+  /**
+   * 打包在 classpath 中的默认权重文件
+   */
+  public static final String RESOURCE = "chess/nnue.bin";
+  /**
+   * 每个视角的输入特征数
+   */
+  public static final int FEATURES = 2 * 7 * 90;
+  /**
+   * 特征层的量化系数：浮点权重乘以该值取整为 int16，激活值截断到 0..QA
+   */
+  static final int QA = 127;
+  /**
+   * 空特征，指向全零的一行权重，使增量更新不必判断有无吃子
+   */
+  static final int NO_FEATURE = FEATURES;
+
+  static final int MAGIC = 0x58514E4E; // "XQNN"
+  static final int VERSION = 1;
+  private static final int MAX_WIDTH = 4096;
+  private static final int MAX_SCORE = 20000;
+
+  final int hidden;
+  final int l1Size;
+  final float outputScale;
+  final short[] featureWeights; // (FEATURES + 1) * hidden，最后一行为 NO_FEATURE 的全零行
+  final short[] featureBias;
+  final float[] l1Weights; // 2 * hidden 行，每行 l1Size 个
+  final float[] l1Bias;
+  final float[] outWeights;
+  final float outBias;
+  final Kernel kernel;
+
+  Network(int hidden, int l1Size, float outputScale, short[] featureWeights, short[] featureBias, float[] l1Weights,
+      float[] l1Bias, float[] outWeights, float outBias, Kernel kernel) {
+    this.hidden = hidden;
+    this.l1Size = l1Size;
+    this.outputScale = outputScale;
+    this.featureWeights = featureWeights;
+    this.featureBias = featureBias;
+    this.l1Weights = l1Weights;
+    this.l1Bias = l1Bias;
+    this.outWeights = outWeights;
+    this.outBias = outBias;
+    this.kernel = kernel;
+  }
+
+  /**
+   * 读取权重文件
+   *
+   * @throws IOException              读取失败
+   * @throws IllegalArgumentException 文件格式错误
+   */
+  public static Network load(Path path) throws IOException {
+    try (InputStream in = Files.newInputStream(path)) {
+      return load(in);
+    }
+  }
+
+  /**
+   * 读取 classpath 中的权重文件，不存在时返回 null
+   *
+   * @throws IOException              读取失败
+   * @throws IllegalArgumentException 文件格式错误
+   */
+  public static Network loadResource(String name) throws IOException {
+    try (InputStream in = Network.class.getClassLoader().getResourceAsStream(name)) {
+      return in == null ? null : load(in);
+    }
+  }
+
+  /**
+   * 从输入流读取权重，不关闭输入流
+   *
+   * @throws IOException              读取失败
+   * @throws IllegalArgumentException 文件格式错误
+   */
+  public static Network load(InputStream stream) throws IOException {
+    DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+    if (in.readInt() != MAGIC) {
+      throw new IllegalArgumentException("不是网络权重文件");
+    }
+    int version = in.readInt();
+    if (version != VERSION) {
+      throw new IllegalArgumentException("不支持的网络权重版本: " + version);
+    }
+    int features = in.readInt();
+    int hidden = in.readInt();
+    int l1Size = in.readInt();
+    float outputScale = in.readFloat();
+    if (features != FEATURES || hidden <= 0 || hidden > MAX_WIDTH || l1Size <= 0 || l1Size > MAX_WIDTH) {
+      throw new IllegalArgumentException("网络结构不匹配: features=" + features + ", hidden=" + hidden
+          + ", l1=" + l1Size);
+    }
+
+    short[] featureWeights = new short[(FEATURES + 1) * hidden];
+    for (int i = 0; i < FEATURES * hidden; i++) {
+      featureWeights[i] = in.readShort();
+    }
+    short[] featureBias = new short[hidden];
+    for (int i = 0; i < hidden; i++) {
+      featureBias[i] = in.readShort();
+    }
+    float[] l1Weights = readFloats(in, l1Size * 2 * hidden);
+    float[] l1Bias = readFloats(in, l1Size);
+    float[] outWeights = readFloats(in, l1Size);
+    float outBias = in.readFloat();
+    return new Network(hidden, l1Size, outputScale, featureWeights, featureBias, l1Weights, l1Bias, outWeights,
+        outBias, Kernel.best());
+  }
+
+  /**
+   * 写出权重文件
+   */
+  public void write(Path path) throws IOException {
+    try (OutputStream out = Files.newOutputStream(path)) {
+      write(out);
+    }
+  }
+
+  /**
+   * 写出权重，不关闭输出流
+   */
+  public void write(OutputStream stream) throws IOException {
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeInt(FEATURES);
+    out.writeInt(hidden);
+    out.writeInt(l1Size);
+    out.writeFloat(outputScale);
+    for (int i = 0; i < FEATURES * hidden; i++) {
+      out.writeShort(featureWeights[i]);
+    }
+    for (short bias : featureBias) {
+      out.writeShort(bias);
+    }
+    writeFloats(out, l1Weights);
+    writeFloats(out, l1Bias);
+    writeFloats(out, outWeights);
+    out.writeFloat(outBias);
+    out.flush();
+  }
+
+  /**
+   * 随机权重的网络，评估结果没有意义，只用于测量评估速度
+   */
+  public static Network random(int hidden, int l1Size, long seed) {
+    Random random = new Random(seed);
+    short[] featureWeights = new short[(FEATURES + 1) * hidden];
+    for (int i = 0; i < FEATURES * hidden; i++) {
+      featureWeights[i] = (short) (random.nextInt(33) - 16);
+    }
+    short[] featureBias = new short[hidden];
+    for (int i = 0; i < hidden; i++) {
+      featureBias[i] = (short) random.nextInt(QA);
+    }
+    float[] l1Weights = new float[l1Size * 2 * hidden];
+    for (int i = 0; i < l1Weights.length; i++) {
+      l1Weights[i] = (float) random.nextGaussian() * 0.1f;
+    }
+    float[] outWeights = new float[l1Size];
+    for (int i = 0; i < l1Size; i++) {
+      outWeights[i] = (float) random.nextGaussian() * 0.5f;
+    }
+    return new Network(hidden, l1Size, 400, featureWeights, featureBias, l1Weights, new float[l1Size], outWeights,
+        0, Kernel.best());
+  }
+
+  /**
+   * 同一组权重改用标量计算，用于对比 SIMD 的效果
+   */
+  public Network withScalarKernel() {
+    return new Network(hidden, l1Size, outputScale, featureWeights, featureBias, l1Weights, l1Bias, outWeights,
+        outBias, ScalarKernel.INSTANCE);
+  }
+
+  /**
+   * 是否使用 SIMD 计算
+   */
+  public boolean isVectorized() {
+    return kernel instanceof VectorKernel;
+  }
+
+  public int getHiddenSize() {
+    return hidden;
+  }
+
+  /**
+   * 完整计算一个局面的评估（不使用增量更新），走棋方视角
+   */
+  public int evaluate(ChessBoard board) {
+    Accumulator accumulator = new Accumulator(this, 0);
+    accumulator.reset(board);
+    return accumulator.evaluate(0, board.getSideToMove());
+  }
+
+  /**
+   * 视角 perspective 下，格子 square 上的棋子 code 对应的输入特征
+   */
+  static int feature(int perspective, int code, int square) {
+    int relation = PieceCode.side(code) == perspective ? 0 : 1;
+    int row = perspective == PieceCode.SIDE_RED ? Square.row(square) : 9 - Square.row(square);
+    return ((relation * 7 + PieceCode.type(code) - 1) * 90 + row * 9 + Square.col(square));
+  }
+
+  /**
+   * 由两个视角的累加器计算走棋方视角的分数
+   *
+   * @param us     走棋方视角的累加器
+   * @param them   对方视角的累加器
+   * @param values 长度为 2 * hidden 的缓冲区，存放非零输入
+   * @param rows   长度为 2 * hidden 的缓冲区，存放非零输入的下标
+   * @param l1     长度为 l1Size 的缓冲区
+   */
+  int evaluate(short[] us, short[] them, float[] values, int[] rows, float[] l1) {
+    int count = collect(us, 0, values, rows, 0);
+    count = collect(them, hidden, values, rows, count);
+    System.arraycopy(l1Bias, 0, l1, 0, l1Size);
+    kernel.multiply(values, rows, count, l1Weights, l1, l1Size);
+    float out = outBias;
+    for (int j = 0; j < l1Size; j++) {
+      out += Math.max(0f, Math.min(1f, l1[j])) * outWeights[j];
+    }
+    return Math.max(-MAX_SCORE, Math.min(MAX_SCORE, Math.round(out * outputScale)));
+  }
+
+  /**
+   * 截断 ReLU 后不为零的输入
+   */
+  private int collect(short[] accumulator, int offset, float[] values, int[] rows, int count) {
+    float scale = 1f / QA;
+    for (int i = 0; i < hidden; i++) {
+      int value = accumulator[i];
+      if (value > 0) {
+        values[count] = Math.min(QA, value) * scale;
+        rows[count++] = offset + i;
+      }
+    }
+    return count;
+  }
+
+  private static float[] readFloats(DataInputStream in, int count) throws IOException {
+    float[] values = new float[count];
+    for (int i = 0; i < count; i++) {
+      values[i] = in.readFloat();
+    }
+    return values;
+  }
+
+  private static void writeFloats(DataOutputStream out, float[] values) throws IOException {
+    for (float value : values) {
+      out.writeFloat(value);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "Network{" + FEATURES + "x2 -> " + hidden + "x2 -> " + l1Size + " -> 1, " + kernel + "}";
+  }
+}
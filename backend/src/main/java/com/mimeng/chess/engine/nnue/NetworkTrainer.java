@@ -0,0 +1,445 @@
+package com.mimeng.chess.engine.nnue;
+
+import com.mimeng.chess.engine.ChessEngine;
+import com.mimeng.chess.engine.Evaluator;
+import com.mimeng.chess.engine.SearchLimits;
+import com.mimeng.chess.engine.SearchResult;
+import com.mimeng.chess.engine.Searcher;
+import com.mimeng.chess.engine.TranspositionTable;
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.Fen;
+import com.mimeng.chess.entity.chess.GameLogic;
+import com.mimeng.chess.entity.chess.MoveGenerator;
+import com.mimeng.chess.entity.chess.PackedMove;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 评估网络训练工具
+ * 先用子力位置分评估的引擎自对弈生成训练局面（开局随机走几步以增加多样性），以固定深度搜索的分数作为标签，
+ * 只收录不被将军、最佳走法不是吃子且未出现杀棋的平稳局面；再以 sigmoid(分数 / {@value #SCALE}) 为目标、
+ * 均方误差为损失，用 Adam 按小批量训练浮点网络，最后把特征层量化为 int16 写出权重文件。
+ * 网络学到的是"搜索若干层后的分数"，比静态的子力位置分多了一部分战术和子力协调的信息
+ * <p>
+ * 运行：{@code ./gradlew trainNetwork -Pnetwork=nnue.bin [-Ppositions=500000] [-Pepochs=10] [-PlabelDepth=4]}
+ */
+public final class NetworkTrainer {
+  /**
+   * 分数与胜率换算的缩放系数，同时是网络输出的缩放系数
+   */
+  static final float SCALE = 400f;
+  static final int HIDDEN = 128;
+  static final int L1 = 32;
+
+  private static final int RANDOM_PLIES = 8;
+  private static final int MAX_GAME_PLIES = 200;
+  private static final int MAX_LABEL = 3000;
+  private static final int BATCH = 256;
+  // 特征层权重上限：32 个棋子加偏置累加后仍在 int16 范围内
+  private static final float WEIGHT_LIMIT = 32767f / Network.QA / 34;
+  private static final float BETA1 = 0.9f;
+  private static final float BETA2 = 0.999f;
+  private static final float EPSILON = 1e-8f;
+
+  /**
+   * 一个训练局面：两个视角的特征、走棋方、目标胜率，以及用于对照的子力位置分
+   */
+  static final class Sample {
+    final short[] red;
+    final short[] black;
+    final int side;
+    final float target;
+    final int pieceSquare;
+
+    Sample(ChessBoard board, int score) {
+      int count = board.getPieceCount(0) + board.getPieceCount(1);
+      this.red = new short[count];
+      this.black = new short[count];
+      int n = 0;
+      for (int color = 0; color < 2; color++) {
+        for (int i = 0; i < board.getPieceCount(color); i++) {
+          int square = board.getPieceSquare(color, i);
+          int code = board.getPieceCode(square);
+          red[n] = (short) Network.feature(0, code, square);
+          black[n++] = (short) Network.feature(1, code, square);
+        }
+      }
+      this.side = board.getSideToMove();
+      this.target = sigmoid(score / SCALE);
+      this.pieceSquare = Evaluator.evaluate(board);
+    }
+  }
+
+  private final Random random;
+  // 参数
+  private final float[] ft = new float[Network.FEATURES * HIDDEN];
+  private final float[] ftBias = new float[HIDDEN];
+  private final float[] w1 = new float[L1 * 2 * HIDDEN];
+  private final float[] b1 = new float[L1];
+  private final float[] w2 = new float[L1];
+  private final float[] b2 = new float[1];
+  // 梯度
+  private final float[] ftGrad = new float[ft.length];
+  private final float[] ftBiasGrad = new float[HIDDEN];
+  private final float[] w1Grad = new float[w1.length];
+  private final float[] b1Grad = new float[L1];
+  private final float[] w2Grad = new float[L1];
+  private final float[] b2Grad = new float[1];
+  private final boolean[] touched = new boolean[Network.FEATURES];
+  private final List<Integer> touchedFeatures = new ArrayList<>();
+  // Adam 的一阶、二阶矩
+  private final float[][] moments1;
+  private final float[][] moments2;
+  private final int[] featureSteps = new int[Network.FEATURES]; // 特征行最近一次更新时的步数，按稀疏行更新
+  private int step;
+  // 前向计算的中间结果
+  private final float[] accUs = new float[HIDDEN];
+  private final float[] accThem = new float[HIDDEN];
+  private final float[] input = new float[2 * HIDDEN];
+  private final float[] z1 = new float[L1];
+  private final float[] h1 = new float[L1];
+  private final float[] inputGrad = new float[2 * HIDDEN];
+
+  public NetworkTrainer(long seed) {
+    this.random = new Random(seed);
+    for (int i = 0; i < ft.length; i++) {
+      ft[i] = (random.nextFloat() - 0.5f) * 0.2f;
+    }
+    Arrays.fill(ftBias, 0.5f);
+    float std1 = (float) (1 / Math.sqrt(2 * HIDDEN));
+    for (int i = 0; i < w1.length; i++) {
+      w1[i] = (float) random.nextGaussian() * std1;
+    }
+    Arrays.fill(b1, 0.5f);
+    float std2 = (float) (1 / Math.sqrt(L1));
+    for (int i = 0; i < L1; i++) {
+      w2[i] = (float) random.nextGaussian() * std2;
+    }
+    this.moments1 = new float[][] { new float[ft.length], new float[HIDDEN], new float[w1.length], new float[L1],
+        new float[L1], new float[1] };
+    this.moments2 = new float[][] { new float[ft.length], new float[HIDDEN], new float[w1.length], new float[L1],
+        new float[L1], new float[1] };
+  }
+
+  /**
+   * 多线程自对弈生成训练局面
+   *
+   * @param positions 局面数
+   * @param depth     标签搜索深度
+   */
+  public static List<Sample> generate(int positions, int depth, int threads, long seed)
+      throws InterruptedException, ExecutionException {
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<List<Sample>>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int quota = positions / threads + (t < positions % threads ? 1 : 0);
+        long threadSeed = seed + t;
+        futures.add(pool.submit(() -> playGames(quota, depth, new Random(threadSeed))));
+      }
+      List<Sample> samples = new ArrayList<>(positions);
+      for (Future<List<Sample>> future : futures) {
+        samples.addAll(future.get());
+      }
+      return samples;
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private static List<Sample> playGames(int quota, int depth, Random random) {
+    List<Sample> samples = new ArrayList<>(quota);
+    SearchLimits limits = SearchLimits.of(depth, TimeUnit.MINUTES.toMillis(10), SearchLimits.UNLIMITED_NODES);
+    int[] moves = new int[MoveGenerator.MAX_MOVES];
+    try (ChessEngine engine = new ChessEngine(new TranspositionTable(16), 0, 1)) {
+      while (samples.size() < quota) {
+        ChessBoard board = Fen.parse(Fen.START);
+        for (int ply = 0; ply < MAX_GAME_PLIES && samples.size() < quota; ply++) {
+          int move;
+          if (ply < RANDOM_PLIES) {
+            int count = legalMoves(board, moves);
+            if (count == 0) {
+              break;
+            }
+            move = moves[random.nextInt(count)];
+          } else {
+            SearchResult result = engine.search(board, limits, null);
+            move = result.getBestMove();
+            if (move == PackedMove.NONE || Math.abs(result.getScore()) >= Searcher.MATE_BOUND) {
+              break;
+            }
+            if (!PackedMove.isCapture(move) && Math.abs(result.getScore()) < MAX_LABEL
+                && !GameLogic.isInCheck(board, board.getSideToMove())) {
+              samples.add(new Sample(board, result.getScore()));
+            }
+          }
+          board.makeMove(move);
+        }
+      }
+    }
+    return samples;
+  }
+
+  private static int legalMoves(ChessBoard board, int[] moves) {
+    int count = MoveGenerator.generate(board, board.getSideToMove(), moves, 0);
+    int legal = 0;
+    for (int i = 0; i < count; i++) {
+      if (GameLogic.isLegal(board, moves[i])) {
+        moves[legal++] = moves[i];
+      }
+    }
+    return legal;
+  }
+
+  /**
+   * 训练一轮，返回平均损失
+   */
+  public double trainEpoch(List<Sample> samples, float learningRate) {
+    Collections.shuffle(samples, random);
+    double loss = 0;
+    for (int start = 0; start < samples.size(); start += BATCH) {
+      int end = Math.min(samples.size(), start + BATCH);
+      for (int i = start; i < end; i++) {
+        loss += backward(samples.get(i));
+      }
+      update(learningRate, end - start);
+    }
+    return loss / samples.size();
+  }
+
+  /**
+   * 平均损失（不更新参数）
+   */
+  public double loss(List<Sample> samples) {
+    double loss = 0;
+    for (Sample sample : samples) {
+      float p = sigmoid(forward(sample));
+      loss += (p - sample.target) * (p - sample.target);
+    }
+    return loss / samples.size();
+  }
+
+  /**
+   * 子力位置分评估在同一组局面上的平均损失，作为网络的对照
+   */
+  public static double pieceSquareLoss(List<Sample> samples) {
+    double loss = 0;
+    for (Sample sample : samples) {
+      float p = sigmoid(sample.pieceSquare / SCALE);
+      loss += (p - sample.target) * (p - sample.target);
+    }
+    return loss / samples.size();
+  }
+
+  /**
+   * 量化为评估网络
+   */
+  public Network toNetwork() {
+    short[] featureWeights = new short[(Network.FEATURES + 1) * HIDDEN];
+    for (int i = 0; i < ft.length; i++) {
+      featureWeights[i] = (short) Math.round(ft[i] * Network.QA);
+    }
+    short[] featureBias = new short[HIDDEN];
+    for (int i = 0; i < HIDDEN; i++) {
+      featureBias[i] = (short) Math.round(ftBias[i] * Network.QA);
+    }
+    // 训练时按输出神经元逐行，网络中按输入逐行
+    float[] l1Weights = new float[w1.length];
+    for (int j = 0; j < L1; j++) {
+      for (int i = 0; i < 2 * HIDDEN; i++) {
+        l1Weights[i * L1 + j] = w1[j * 2 * HIDDEN + i];
+      }
+    }
+    return new Network(HIDDEN, L1, SCALE, featureWeights, featureBias, l1Weights, b1.clone(), w2.clone(), b2[0],
+        Kernel.best());
+  }
+
+  /**
+   * 前向计算，返回输出层的值（乘以 {@link #SCALE} 为分数）
+   */
+  private float forward(Sample sample) {
+    short[] us = sample.side == 0 ? sample.red : sample.black;
+    short[] them = sample.side == 0 ? sample.black : sample.red;
+    accumulate(us, accUs);
+    accumulate(them, accThem);
+    for (int i = 0; i < HIDDEN; i++) {
+      input[i] = clamp(accUs[i]);
+      input[HIDDEN + i] = clamp(accThem[i]);
+    }
+    float out = b2[0];
+    for (int j = 0; j < L1; j++) {
+      float z = b1[j];
+      int row = j * 2 * HIDDEN;
+      for (int i = 0; i < 2 * HIDDEN; i++) {
+        z += w1[row + i] * input[i];
+      }
+      z1[j] = z;
+      h1[j] = clamp(z);
+      out += w2[j] * h1[j];
+    }
+    return out;
+  }
+
+  private void accumulate(short[] features, float[] accumulator) {
+    System.arraycopy(ftBias, 0, accumulator, 0, HIDDEN);
+    for (short feature : features) {
+      int row = feature * HIDDEN;
+      for (int i = 0; i < HIDDEN; i++) {
+        accumulator[i] += ft[row + i];
+      }
+    }
+  }
+
+  /**
+   * 计算一个局面的损失并累加梯度
+   */
+  private float backward(Sample sample) {
+    float p = sigmoid(forward(sample));
+    float error = p - sample.target;
+    float d = 2 * error * p * (1 - p);
+
+    b2Grad[0] += d;
+    Arrays.fill(inputGrad, 0);
+    for (int j = 0; j < L1; j++) {
+      w2Grad[j] += d * h1[j];
+      if (z1[j] <= 0 || z1[j] >= 1) {
+        continue;
+      }
+      float dz = d * w2[j];
+      b1Grad[j] += dz;
+      int row = j * 2 * HIDDEN;
+      for (int i = 0; i < 2 * HIDDEN; i++) {
+        w1Grad[row + i] += dz * input[i];
+        inputGrad[i] += dz * w1[row + i];
+      }
+    }
+    short[] us = sample.side == 0 ? sample.red : sample.black;
+    short[] them = sample.side == 0 ? sample.black : sample.red;
+    backwardFeatures(us, accUs, 0);
+    backwardFeatures(them, accThem, HIDDEN);
+    return error * error;
+  }
+
+  private void backwardFeatures(short[] features, float[] accumulator, int offset) {
+    for (int i = 0; i < HIDDEN; i++) {
+      if (accumulator[i] <= 0 || accumulator[i] >= 1) {
+        inputGrad[offset + i] = 0;
+      } else {
+        ftBiasGrad[i] += inputGrad[offset + i];
+      }
+    }
+    for (short feature : features) {
+      if (!touched[feature]) {
+        touched[feature] = true;
+        touchedFeatures.add((int) feature);
+      }
+      int row = feature * HIDDEN;
+      for (int i = 0; i < HIDDEN; i++) {
+        ftGrad[row + i] += inputGrad[offset + i];
+      }
+    }
+  }
+
+  /**
+   * Adam 更新；特征层只更新本批出现过的特征行，两次更新之间一阶矩的衰减一并补上
+   */
+  private void update(float learningRate, int batchSize) {
+    step++;
+    float scale = 1f / batchSize;
+    float correction1 = 1 - (float) Math.pow(BETA1, step);
+    float correction2 = 1 - (float) Math.pow(BETA2, step);
+    float rate = learningRate * (float) Math.sqrt(correction2) / correction1;
+
+    for (int feature : touchedFeatures) {
+      int skipped = step - featureSteps[feature] - 1;
+      float decay1 = skipped > 0 ? (float) Math.pow(BETA1, skipped) : 1;
+      float decay2 = skipped > 0 ? (float) Math.pow(BETA2, skipped) : 1;
+      int row = feature * HIDDEN;
+      for (int i = row; i < row + HIDDEN; i++) {
+        moments1[0][i] *= decay1;
+        moments2[0][i] *= decay2;
+        adam(ft, ftGrad, moments1[0], moments2[0], i, scale, rate);
+        ft[i] = Math.max(-WEIGHT_LIMIT, Math.min(WEIGHT_LIMIT, ft[i]));
+        ftGrad[i] = 0;
+      }
+      featureSteps[feature] = step;
+      touched[feature] = false;
+    }
+    touchedFeatures.clear();
+    for (int i = 0; i < HIDDEN; i++) {
+      adam(ftBias, ftBiasGrad, moments1[1], moments2[1], i, scale, rate);
+      ftBias[i] = Math.max(-WEIGHT_LIMIT, Math.min(WEIGHT_LIMIT, ftBias[i]));
+      ftBiasGrad[i] = 0;
+    }
+    updateDense(w1, w1Grad, 2, scale, rate);
+    updateDense(b1, b1Grad, 3, scale, rate);
+    updateDense(w2, w2Grad, 4, scale, rate);
+    updateDense(b2, b2Grad, 5, scale, rate);
+  }
+
+  private void updateDense(float[] params, float[] grads, int slot, float scale, float rate) {
+    for (int i = 0; i < params.length; i++) {
+      adam(params, grads, moments1[slot], moments2[slot], i, scale, rate);
+      grads[i] = 0;
+    }
+  }
+
+  private static void adam(float[] params, float[] grads, float[] m, float[] v, int i, float scale, float rate) {
+    float g = grads[i] * scale;
+    m[i] = BETA1 * m[i] + (1 - BETA1) * g;
+    v[i] = BETA2 * v[i] + (1 - BETA2) * g * g;
+    params[i] -= rate * m[i] / ((float) Math.sqrt(v[i]) + EPSILON);
+  }
+
+  private static float clamp(float x) {
+    return Math.max(0f, Math.min(1f, x));
+  }
+
+  static float sigmoid(float x) {
+    return (float) (1 / (1 + Math.exp(-x)));
+  }
+
+  public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+    if (args.length < 1) {
+      System.err.println("用法: NetworkTrainer <nnue.bin> [positions] [epochs] [labelDepth] [threads]");
+      System.exit(1);
+    }
+    int positions = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+    int epochs = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+    int depth = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+    int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+    long start = System.nanoTime();
+    List<Sample> samples = generate(positions, depth, threads, 20240601L);
+    System.out.printf("生成 %d 个训练局面（标签深度 %d），%d ms%n", samples.size(), depth,
+        (System.nanoTime() - start) / 1_000_000);
+
+    NetworkTrainer trainer = new NetworkTrainer(1L);
+    Collections.shuffle(samples, trainer.random);
+    int validationSize = Math.max(1, samples.size() / 20);
+    List<Sample> validation = new ArrayList<>(samples.subList(0, validationSize));
+    List<Sample> training = new ArrayList<>(samples.subList(validationSize, samples.size()));
+    System.out.printf("子力位置分的验证损失 %.6f%n", pieceSquareLoss(validation));
+    float learningRate = 1e-3f;
+    for (int epoch = 1; epoch <= epochs; epoch++) {
+      long epochStart = System.nanoTime();
+      double trainLoss = trainer.trainEpoch(training, learningRate);
+      System.out.printf("第 %d 轮：训练损失 %.6f，验证损失 %.6f，%d ms%n", epoch, trainLoss,
+          trainer.loss(validation), (System.nanoTime() - epochStart) / 1_000_000);
+      learningRate *= 0.8f;
+    }
+    Network network = trainer.toNetwork();
+    network.write(Path.of(args[0]));
+    System.out.println("已写入 " + network + " 到 " + args[0]);
+  }
+}
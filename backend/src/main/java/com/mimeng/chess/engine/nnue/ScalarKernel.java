@@ -0,0 +1,34 @@
+package com.mimeng.chess.engine.nnue;
+
+/**
+ * 标量实现，没有 Vector API 时使用，也是 SIMD 实现的对照
+ */
+final class ScalarKernel implements Kernel {
+  static final ScalarKernel INSTANCE = new ScalarKernel();
+
+  private ScalarKernel() {
+  }
+
+  @Override
+  public void update(short[] src, short[] dst, short[] weights, int add, int remove, int capture, int length) {
+    for (int i = 0; i < length; i++) {
+      dst[i] = (short) (src[i] + weights[add + i] - weights[remove + i] - weights[capture + i]);
+    }
+  }
+
+  @Override
+  public void multiply(float[] values, int[] rows, int count, float[] weights, float[] out, int width) {
+    for (int k = 0; k < count; k++) {
+      float value = values[k];
+      int row = rows[k] * width;
+      for (int i = 0; i < width; i++) {
+        out[i] += value * weights[row + i];
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "scalar";
+  }
+}
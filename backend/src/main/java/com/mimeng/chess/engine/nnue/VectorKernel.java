@@ -0,0 +1,54 @@
+package com.mimeng.chess.engine.nnue;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API（SIMD）实现，向量宽度取 CPU 的首选宽度（AVX2 为 256 位、AVX-512 为 512 位、NEON 为 128 位），
+ * 不足一个向量的尾部按标量处理。只有这个类引用 jdk.incubator.vector，未加载该模块时不会被加载
+ */
+final class VectorKernel implements Kernel {
+  private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+  private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+
+  @Override
+  public void update(short[] src, short[] dst, short[] weights, int add, int remove, int capture, int length) {
+    int i = 0;
+    for (int bound = SHORTS.loopBound(length); i < bound; i += SHORTS.length()) {
+      ShortVector.fromArray(SHORTS, src, i)
+          .add(ShortVector.fromArray(SHORTS, weights, add + i))
+          .sub(ShortVector.fromArray(SHORTS, weights, remove + i))
+          .sub(ShortVector.fromArray(SHORTS, weights, capture + i))
+          .intoArray(dst, i);
+    }
+    for (; i < length; i++) {
+      dst[i] = (short) (src[i] + weights[add + i] - weights[remove + i] - weights[capture + i]);
+    }
+  }
+
+  @Override
+  public void multiply(float[] values, int[] rows, int count, float[] weights, float[] out, int width) {
+    // 每次处理一个向量宽的输出，累加过程中结果留在寄存器里
+    int i = 0;
+    for (int bound = FLOATS.loopBound(width); i < bound; i += FLOATS.length()) {
+      FloatVector sum = FloatVector.fromArray(FLOATS, out, i);
+      for (int k = 0; k < count; k++) {
+        sum = FloatVector.fromArray(FLOATS, weights, rows[k] * width + i).fma(FloatVector.broadcast(FLOATS, values[k]), sum);
+      }
+      sum.intoArray(out, i);
+    }
+    for (; i < width; i++) {
+      float sum = out[i];
+      for (int k = 0; k < count; k++) {
+        sum += values[k] * weights[rows[k] * width + i];
+      }
+      out[i] = sum;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "vector(" + SHORTS.vectorBitSize() + " bit)";
+  }
+}
@@ -0,0 +1,193 @@
+package com.mimeng.chess.engine.tablebase;
+
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.PieceCode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 残局的子力组合，如 {@code KRvKAA}（车对双士）
+ * 名称为双方的棋子字母（K/A/B/N/R/C/P 分别对应将、士、象、马、车、炮、兵），红方在 v 之前；
+ * 残局库中的"红方"和"黑方"只是角色，与颜色互换的局面共用一张表
+ */
+public final class Material {
+  private static final String LETTERS = "KABNRCP"; // 下标 + 1 即棋子类型
+  // 每方每种棋子的数量上限，下标为棋子类型
+  private static final int[] MAX_COUNT = { 0, 1, 2, 2, 2, 2, 2, 5 };
+  // 判断强弱方向用的粗略子力价值，下标为棋子类型
+  private static final int[] VALUES = { 0, 0, 2, 2, 4, 9, 4, 1 };
+  private static final int COUNT_BITS = 3;
+  private static final int SIDE_BITS = 6 * COUNT_BITS;
+
+  private final int[][] pieces; // [阵营][] 将帅以外的棋子类型，升序
+
+  private Material(int[] red, int[] black) {
+    this.pieces = new int[][] { red, black };
+  }
+
+  /**
+   * 解析子力组合名称
+   *
+   * @throws IllegalArgumentException 名称格式错误或棋子数量超出规则上限
+   */
+  public static Material parse(String name) {
+    String[] sides = name.trim().toUpperCase().split("V");
+    if (sides.length != 2) {
+      throw new IllegalArgumentException("残局名称格式错误: " + name);
+    }
+    return new Material(parseSide(sides[0], name), parseSide(sides[1], name));
+  }
+
+  private static int[] parseSide(String letters, String name) {
+    if (letters.isEmpty() || letters.charAt(0) != 'K') {
+      throw new IllegalArgumentException("残局名称必须以 K 开头: " + name);
+    }
+    int[] counts = new int[8];
+    int[] types = new int[letters.length() - 1];
+    for (int i = 1; i < letters.length(); i++) {
+      int type = LETTERS.indexOf(letters.charAt(i)) + 1;
+      if (type <= PieceCode.KING || ++counts[type] > MAX_COUNT[type]) {
+        throw new IllegalArgumentException("残局名称中的棋子错误: " + name);
+      }
+      types[i - 1] = type;
+    }
+    Arrays.sort(types);
+    return types;
+  }
+
+  /**
+   * 指定阵营将帅以外的棋子类型（升序），调用方不得修改
+   */
+  int[] pieces(int side) {
+    return pieces[side];
+  }
+
+  /**
+   * 双方棋子总数（含将帅）
+   */
+  public int getPieceCount() {
+    return 2 + pieces[0].length + pieces[1].length;
+  }
+
+  /**
+   * 子力键，与 {@link #key(ChessBoard)} 对同一子力的棋盘得到的值相同
+   */
+  long key() {
+    long key = 0;
+    for (int side = 0; side < 2; side++) {
+      for (int type : pieces[side]) {
+        key += 1L << shift(side, type);
+      }
+    }
+    return key;
+  }
+
+  /**
+   * 棋盘的子力键
+   */
+  static long key(ChessBoard board) {
+    long key = 0;
+    for (int side = 0; side < 2; side++) {
+      int count = board.getPieceCount(side);
+      for (int i = 0; i < count; i++) {
+        int type = PieceCode.type(board.getPieceCode(board.getPieceSquare(side, i)));
+        if (type != PieceCode.KING) {
+          key += 1L << shift(side, type);
+        }
+      }
+    }
+    return key;
+  }
+
+  /**
+   * 颜色互换（以黑方为红方角色）后的子力键：交换双方的计数位
+   */
+  static long flip(long key) {
+    return (key >>> SIDE_BITS) | ((key & ((1L << SIDE_BITS) - 1)) << SIDE_BITS);
+  }
+
+  private static int shift(int side, int type) {
+    return side * SIDE_BITS + (type - PieceCode.GUARD) * COUNT_BITS;
+  }
+
+  /**
+   * 颜色互换后的子力组合
+   */
+  public Material flip() {
+    return new Material(pieces[1], pieces[0]);
+  }
+
+  /**
+   * 是否为规范方向：子力强（相同时按名称较大）的一方为红方角色，残局库只生成规范方向的表
+   */
+  public boolean isCanonical() {
+    int red = value(0);
+    int black = value(1);
+    return red != black ? red > black : letters(0).compareTo(letters(1)) >= 0;
+  }
+
+  private int value(int side) {
+    int value = 0;
+    for (int type : pieces[side]) {
+      value += VALUES[type];
+    }
+    return value;
+  }
+
+  /**
+   * 规范方向的子力组合
+   */
+  public Material canonical() {
+    return isCanonical() ? this : flip();
+  }
+
+  /**
+   * 吃掉一个棋子后可能转入的子力组合（规范方向，不重复）
+   */
+  public List<Material> captures() {
+    List<Material> result = new ArrayList<>();
+    for (int side = 0; side < 2; side++) {
+      for (int i = 0; i < pieces[side].length; i++) {
+        if (i > 0 && pieces[side][i] == pieces[side][i - 1]) {
+          continue;
+        }
+        int[] rest = new int[pieces[side].length - 1];
+        System.arraycopy(pieces[side], 0, rest, 0, i);
+        System.arraycopy(pieces[side], i + 1, rest, i, rest.length - i);
+        Material child = (side == 0 ? new Material(rest, pieces[1]) : new Material(pieces[0], rest)).canonical();
+        if (!result.contains(child)) {
+          result.add(child);
+        }
+      }
+    }
+    return result;
+  }
+
+  public String getName() {
+    return letters(0) + "v" + letters(1);
+  }
+
+  private String letters(int side) {
+    StringBuilder sb = new StringBuilder("K");
+    for (int type : pieces[side]) {
+      sb.append(LETTERS.charAt(type - 1));
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof Material && Arrays.deepEquals(pieces, ((Material) o).pieces);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.deepHashCode(pieces);
+  }
+
+  @Override
+  public String toString() {
+    return getName();
+  }
+}
@@ -0,0 +1,140 @@
+package com.mimeng.chess.engine.tablebase;
+
+import com.mimeng.chess.entity.chess.ChessBoard;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 单个子力组合的残局库
+ * 文件头 16 字节：魔数、版本、局面数；之后每个局面一个字节，按 {@link TablebaseIndex} 的编号排列：
+ * 0 为和棋，1-127 为走棋方胜（k 表示 2k-1 个半回合内杀棋），128-254 为走棋方负（128+k 表示 2k 个半回合后被杀），
+ * 255 为不合法的局面。距离均为双方最佳应对下的杀棋步数（DTM）。
+ * 与 {@link com.mimeng.chess.entity.chess.GameLogic} 一致，困毙判和；不考虑长将、长捉和自然限着
+ */
+public final class Tablebase {
+  static final int MAGIC = 0x58515442; // "XQTB"
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 16;
+
+  public static final int DRAW = 0;
+  static final int LOSS = 128;
+  static final int ILLEGAL = 0xFF;
+  static final int MAX_WIN = LOSS - 1;
+
+  private final Material material;
+  private final TablebaseIndex indexer;
+  private final ByteBuffer buffer; // 不含文件头的数据区
+
+  Tablebase(Material material, ByteBuffer buffer) {
+    this.material = material;
+    this.indexer = new TablebaseIndex(material);
+    this.buffer = buffer;
+    if (buffer.capacity() != indexer.size()) {
+      throw new IllegalArgumentException("残局库大小与子力组合不符: " + material);
+    }
+  }
+
+  /**
+   * 只读映射残局库文件，子力组合由文件名（如 {@code KRvKAA.xtb}）决定
+   *
+   * @throws IOException              读取失败
+   * @throws IllegalArgumentException 文件名或文件格式错误
+   */
+  public static Tablebase open(Path path) throws IOException {
+    String name = path.getFileName().toString();
+    Material material = Material.parse(name.substring(0, name.length() - Tablebases.EXTENSION.length()));
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), HEADER_BYTES));
+      if (header.capacity() < HEADER_BYTES || header.getInt(0) != MAGIC || header.getInt(4) != VERSION
+          || header.getLong(8) != channel.size() - HEADER_BYTES) {
+        throw new IllegalArgumentException("不是有效的残局库文件: " + path);
+      }
+      // 通道关闭后映射仍然有效
+      return new Tablebase(material, channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES,
+          channel.size() - HEADER_BYTES));
+    }
+  }
+
+  /**
+   * 写出残局库文件
+   *
+   * @throws IOException 写入失败
+   */
+  void write(Path path) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+    header.putInt(MAGIC).putInt(VERSION).putLong(buffer.capacity()).flip();
+    ByteBuffer data = buffer.duplicate().clear();
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (header.hasRemaining()) {
+        channel.write(header);
+      }
+      while (data.hasRemaining()) {
+        channel.write(data);
+      }
+    }
+  }
+
+  public Material getMaterial() {
+    return material;
+  }
+
+  TablebaseIndex indexer() {
+    return indexer;
+  }
+
+  /**
+   * 查询局面，调用方需保证子力组合一致
+   *
+   * @param flipped 棋盘是否为本表的颜色互换局面
+   * @param scratch 长度不小于棋子数的缓冲区
+   * @return 局面值，不合法或棋子不在定义域内时返回 {@link #ILLEGAL}
+   */
+  int probe(ChessBoard board, boolean flipped, int[] scratch) {
+    int index = indexer.index(board, flipped, scratch);
+    return index < 0 ? ILLEGAL : value(index);
+  }
+
+  int value(int index) {
+    return buffer.get(index) & 0xFF;
+  }
+
+  /**
+   * 走棋方必胜
+   */
+  public static boolean isWin(int value) {
+    return value > DRAW && value < LOSS;
+  }
+
+  /**
+   * 走棋方必负
+   */
+  public static boolean isLoss(int value) {
+    return value >= LOSS && value < ILLEGAL;
+  }
+
+  /**
+   * 和棋
+   */
+  public static boolean isDraw(int value) {
+    return value == DRAW;
+  }
+
+  /**
+   * 距离杀棋（或被杀）的半回合数，和棋返回 0
+   */
+  public static int plies(int value) {
+    if (isWin(value)) {
+      return 2 * value - 1;
+    }
+    return isLoss(value) ? 2 * (value - LOSS) : 0;
+  }
+
+  @Override
+  public String toString() {
+    return material + "(" + indexer.size() + ")";
+  }
+}
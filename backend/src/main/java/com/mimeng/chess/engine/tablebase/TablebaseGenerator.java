@@ -0,0 +1,326 @@
+package com.mimeng.chess.engine.tablebase;
+
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.ChessPiece;
+import com.mimeng.chess.entity.chess.Fen;
+import com.mimeng.chess.entity.chess.GameLogic;
+import com.mimeng.chess.entity.chess.MoveGenerator;
+import com.mimeng.chess.entity.chess.PackedMove;
+import com.mimeng.chess.entity.chess.PieceCode;
+import com.mimeng.chess.entity.chess.Position;
+import com.mimeng.chess.entity.chess.Square;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 残局库生成工具（逆向分析）
+ * 先标出全部将死局面，之后每一轮：能走到"已知 n-1 步后被杀"局面的未知局面为 n 步胜，
+ * 所有走法都走到已知胜局的未知局面为负，直到某一轮不再有变化，剩余局面为和棋。
+ * 吃子后转入的子力组合先递归生成，其结果在各轮中直接查询。每一轮按编号分块并行处理，
+ * 同一轮中"标胜"只读取负局、"标负"只读取胜局，线程之间不需要同步
+ * <p>
+ * 运行：{@code ./gradlew generateTablebases -Pendings=KRvKAA,KNvKP -PtablebaseDir=tablebases [-Pthreads=4]}
+ */
+public final class TablebaseGenerator {
+  private static final int BLOCK = 4096;
+  private static final String EMPTY_BOARD = "9/9/9/9/9/9/9/9/9/9 w";
+
+  private final int threads;
+  private final Map<Material, Tablebase> generated = new LinkedHashMap<>();
+
+  public TablebaseGenerator(int threads) {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("线程数必须为正数: " + threads);
+    }
+    this.threads = threads;
+  }
+
+  /**
+   * 生成指定子力组合（规范方向）及其吃子后转入的全部残局库
+   */
+  public Tablebase generate(Material material) {
+    Material canonical = material.canonical();
+    Tablebase table = generated.get(canonical);
+    if (table != null) {
+      return table;
+    }
+    List<Tablebase> children = new ArrayList<>();
+    for (Material child : canonical.captures()) {
+      children.add(generate(child));
+    }
+    table = new Build(canonical, Tablebases.of(children)).run();
+    generated.put(canonical, table);
+    return table;
+  }
+
+  /**
+   * 已生成的全部残局库
+   */
+  public Collection<Tablebase> getTables() {
+    return generated.values();
+  }
+
+  /**
+   * 把已生成的残局库写入目录，文件名为子力组合名称
+   *
+   * @throws IOException 写入失败
+   */
+  public void write(Path directory) throws IOException {
+    Files.createDirectories(directory);
+    for (Tablebase table : generated.values()) {
+      table.write(directory.resolve(table.getMaterial().getName() + Tablebases.EXTENSION));
+    }
+  }
+
+  /**
+   * 单张表的生成过程
+   */
+  private final class Build {
+    private final Material material;
+    private final TablebaseIndex indexer;
+    private final Tablebases children;
+    private final byte[] values;
+    private final AtomicInteger nextBlock = new AtomicInteger();
+    private final AtomicInteger maxLoss = new AtomicInteger(); // 已见到的负局中最长的被杀步数（回合）
+
+    Build(Material material, Tablebases children) {
+      this.material = material;
+      this.indexer = new TablebaseIndex(material);
+      this.children = children;
+      this.values = new byte[indexer.size()];
+    }
+
+    Tablebase run() {
+      AtomicInteger threadCount = new AtomicInteger();
+      ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+        Thread thread = new Thread(runnable, "tablebase-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+      try {
+        List<Worker> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+          workers.add(new Worker());
+        }
+        step(pool, workers, 0);
+        for (int pass = 1;; pass++) {
+          if (pass > Tablebase.MAX_WIN) {
+            throw new IllegalStateException("杀棋步数超出残局库的表示范围: " + material);
+          }
+          int changed = step(pool, workers, pass) + step(pool, workers, -pass);
+          if (changed == 0 && pass > maxLoss.get()) {
+            break;
+          }
+        }
+      } finally {
+        pool.shutdownNow();
+      }
+      return new Tablebase(material, ByteBuffer.wrap(values));
+    }
+
+    /**
+     * 执行一步：0 为初始化，正数 n 为标出 2n-1 步胜，负数 -n 为标出第 n 轮的负局
+     *
+     * @return 新确定的局面数
+     */
+    private int step(ExecutorService pool, List<Worker> workers, int step) {
+      nextBlock.set(0);
+      List<Future<Integer>> futures = new ArrayList<>();
+      for (Worker worker : workers) {
+        worker.step = step;
+        futures.add(pool.submit(worker));
+      }
+      int changed = 0;
+      try {
+        for (Future<Integer> future : futures) {
+          changed += future.get();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("残局库生成被中断", e);
+      } catch (ExecutionException e) {
+        throw new IllegalStateException("残局库生成出错: " + material, e.getCause());
+      }
+      return changed;
+    }
+
+    /**
+     * 每个线程一个，持有自己的棋盘和走法缓冲区
+     */
+    private final class Worker implements Callable<Integer> {
+      private final ChessBoard board = Fen.parse(EMPTY_BOARD);
+      private final int[] squares = new int[indexer.slots()];
+      private final int[] placed = new int[indexer.slots()];
+      private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+      private final int[] scratch = new int[Tablebases.SCRATCH_LENGTH];
+      private int placedCount;
+      private int step;
+
+      @Override
+      public Integer call() {
+        int changed = 0;
+        for (int block = nextBlock.getAndIncrement(); (long) block * BLOCK < values.length;
+            block = nextBlock.getAndIncrement()) {
+          int end = Math.min(values.length, (block + 1) * BLOCK);
+          for (int index = block * BLOCK; index < end; index++) {
+            if (step == 0) {
+              values[index] = (byte) initial(index);
+            } else if (values[index] == Tablebase.DRAW && setup(index)) {
+              int value = step > 0 ? win(step) : loss();
+              if (value != Tablebase.DRAW) {
+                values[index] = (byte) value;
+                changed++;
+              }
+            }
+          }
+        }
+        return changed;
+      }
+
+      /**
+       * 初始值：不合法、被将死，其余暂记为和棋（未知）
+       */
+      private int initial(int index) {
+        if (!setup(index) || GameLogic.isInCheck(board, 1 - board.getSideToMove())) {
+          return Tablebase.ILLEGAL;
+        }
+        int side = board.getSideToMove();
+        int count = MoveGenerator.generate(board, side, moves, 0);
+        for (int i = 0; i < count; i++) {
+          if (GameLogic.isLegal(board, moves[i])) {
+            return Tablebase.DRAW;
+          }
+        }
+        // 困毙按和棋处理，与 GameLogic 一致
+        return GameLogic.isInCheck(board, side) ? Tablebase.LOSS : Tablebase.DRAW;
+      }
+
+      /**
+       * 能走到 pass-1 回合内被杀的局面即为 pass 回合胜
+       */
+      private int win(int pass) {
+        int count = MoveGenerator.generate(board, board.getSideToMove(), moves, 0);
+        for (int i = 0; i < count; i++) {
+          if (!GameLogic.isLegal(board, moves[i])) {
+            continue;
+          }
+          int child = childValue(moves[i]);
+          if (Tablebase.isLoss(child)) {
+            int distance = child - Tablebase.LOSS;
+            maxLoss.accumulateAndGet(distance, Math::max);
+            if (distance < pass) {
+              return pass;
+            }
+          }
+        }
+        return Tablebase.DRAW;
+      }
+
+      /**
+       * 所有走法都走到已知胜局时为负，被杀步数取对方最慢的胜法
+       */
+      private int loss() {
+        int count = MoveGenerator.generate(board, board.getSideToMove(), moves, 0);
+        int longest = 0;
+        for (int i = 0; i < count; i++) {
+          if (!GameLogic.isLegal(board, moves[i])) {
+            continue;
+          }
+          int child = childValue(moves[i]);
+          if (!Tablebase.isWin(child)) {
+            return Tablebase.DRAW;
+          }
+          longest = Math.max(longest, child);
+        }
+        if (longest == 0) {
+          return Tablebase.DRAW; // 困毙
+        }
+        if (Tablebase.LOSS + longest >= Tablebase.ILLEGAL) {
+          throw new IllegalStateException("杀棋步数超出残局库的表示范围: " + material);
+        }
+        maxLoss.accumulateAndGet(longest, Math::max);
+        return Tablebase.LOSS + longest;
+      }
+
+      private int childValue(int move) {
+        board.makeMove(move);
+        int value;
+        if (PackedMove.isCapture(move)) {
+          value = children.probe(board, scratch);
+          if (value == Tablebases.NOT_FOUND) {
+            board.undoMove(move);
+            throw new IllegalStateException("缺少转入的残局库: " + PackedMove.toString(move));
+          }
+        } else {
+          value = values[indexer.index(board, false, scratch)] & 0xFF;
+        }
+        board.undoMove(move);
+        return value;
+      }
+
+      /**
+       * 在棋盘上摆出编号对应的局面
+       *
+       * @return 编号是否有效（同类棋子有序且没有两个棋子在同一格）
+       */
+      private boolean setup(int index) {
+        for (int i = 0; i < placedCount; i++) {
+          board.removePieceAt(position(placed[i]));
+        }
+        placedCount = 0;
+        int side = indexer.decode(index, squares);
+        if (side < 0) {
+          return false;
+        }
+        for (int i = 0; i < squares.length; i++) {
+          if (board.getPieceCode(squares[i]) != PieceCode.EMPTY) {
+            return false;
+          }
+          int code = PieceCode.sideFlag(indexer.slotSide(i)) | indexer.slotType(i);
+          board.setPieceAt(position(squares[i]), ChessPiece.of(code));
+          placed[placedCount++] = squares[i];
+        }
+        board.setSideToMove(side);
+        return true;
+      }
+
+      private Position position(int square) {
+        return Position.of(Square.row(square), Square.col(square));
+      }
+    }
+  }
+
+  /**
+   * 命令行入口：{@code <输出目录> <线程数> <子力组合...>}，如 {@code tablebases 4 KRvKAA KNvKP}
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 3) {
+      System.err.println("用法: TablebaseGenerator <dir> <threads> <ending...>");
+      System.exit(1);
+    }
+    TablebaseGenerator generator = new TablebaseGenerator(Integer.parseInt(args[1]));
+    for (int i = 2; i < args.length; i++) {
+      for (String name : args[i].split(",")) {
+        long start = System.nanoTime();
+        Tablebase table = generator.generate(Material.parse(name));
+        System.out.printf("%s: %d 个局面，%d ms%n", table.getMaterial(), table.indexer().size(),
+            (System.nanoTime() - start) / 1_000_000);
+      }
+    }
+    generator.write(Path.of(args[0]));
+    System.out.println("已写入 " + generator.getTables().size() + " 个残局库到 " + args[0]);
+  }
+}
@@ -0,0 +1,232 @@
+package com.mimeng.chess.engine.tablebase;
+
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.MoveTables;
+import com.mimeng.chess.entity.chess.PieceCode;
+import com.mimeng.chess.entity.chess.Square;
+import java.util.Arrays;
+
+/**
+ * 残局库的局面编号
+ * 每个棋子只在它可能出现的格子（定义域）中取值：将帅、士在九宫，象在己方的 7 个象位，兵卒在 55 个格子，其余 90 格。
+ * 编号 = 各棋子在定义域中的下标依次组合，最低位为走棋方；同类棋子按下标升序排列，乱序的编号不使用
+ */
+final class TablebaseIndex {
+  // [棋子类型][阵营] -> 定义域内的格子
+  private static final int[][][] DOMAINS = new int[8][2][];
+  // [棋子类型][阵营][格子] -> 定义域下标，不在定义域内为-1
+  private static final int[][][] DOMAIN_INDEX = new int[8][2][Square.SIZE];
+
+  static {
+    for (int side = 0; side < 2; side++) {
+      int back = side == PieceCode.SIDE_RED ? 9 : 0;
+      int pawnRow = side == PieceCode.SIDE_RED ? 6 : 3;
+      defineDomain(PieceCode.KING, side, reachable(PieceCode.KING, side, Square.of(back, 4)));
+      defineDomain(PieceCode.GUARD, side, reachable(PieceCode.GUARD, side, Square.of(back, 3)));
+      defineDomain(PieceCode.ELEPHANT, side, reachable(PieceCode.ELEPHANT, side, Square.of(back, 2)));
+      defineDomain(PieceCode.PAWN, side, reachable(PieceCode.PAWN, side, Square.of(pawnRow, 0), Square.of(pawnRow, 2),
+          Square.of(pawnRow, 4), Square.of(pawnRow, 6), Square.of(pawnRow, 8)));
+      boolean[] all = new boolean[Square.SIZE];
+      for (int sq = 0; sq < Square.SIZE; sq++) {
+        all[sq] = Square.isOnBoard(sq);
+      }
+      defineDomain(PieceCode.HORSE, side, all);
+      defineDomain(PieceCode.ROOK, side, all);
+      defineDomain(PieceCode.CANNON, side, all);
+    }
+  }
+
+  private final int slots; // 0 红方将帅，1 黑方将帅，之后依次为红方、黑方其余棋子
+  private final int[] slotType;
+  private final int[] slotSide;
+  private final int[] slotGroup; // 同阵营同类型的棋子属于同一组
+  private final int[][] firstSlot; // [阵营][棋子类型] -> 该组第一个位置
+  private final int size;
+
+  TablebaseIndex(Material material) {
+    int[] red = material.pieces(PieceCode.SIDE_RED);
+    int[] black = material.pieces(PieceCode.SIDE_BLACK);
+    slots = 2 + red.length + black.length;
+    slotType = new int[slots];
+    slotSide = new int[slots];
+    slotGroup = new int[slots];
+    firstSlot = new int[2][8];
+    slotType[0] = PieceCode.KING;
+    slotType[1] = PieceCode.KING;
+    slotSide[1] = PieceCode.SIDE_BLACK;
+    int slot = 2;
+    for (int side = 0; side < 2; side++) {
+      firstSlot[side][PieceCode.KING] = side;
+      for (int type : material.pieces(side)) {
+        if (slot == 2 || slotType[slot - 1] != type || slotSide[slot - 1] != side) {
+          firstSlot[side][type] = slot;
+        }
+        slotType[slot] = type;
+        slotSide[slot++] = side;
+      }
+    }
+
+    long positions = 2;
+    for (int i = 0; i < slots; i++) {
+      slotGroup[i] = slotSide[i] * 8 + slotType[i];
+      positions *= DOMAINS[slotType[i]][slotSide[i]].length;
+    }
+    if (positions > Integer.MAX_VALUE - Tablebase.HEADER_BYTES) {
+      throw new IllegalArgumentException("残局过大: " + material);
+    }
+    size = (int) positions;
+  }
+
+  /**
+   * 局面总数（含不合法的编号）
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * 棋子数（含将帅）
+   */
+  int slots() {
+    return slots;
+  }
+
+  int slotType(int slot) {
+    return slotType[slot];
+  }
+
+  int slotSide(int slot) {
+    return slotSide[slot];
+  }
+
+  /**
+   * 计算棋盘局面的编号，调用方需保证子力组合一致
+   *
+   * @param flipped 是否颜色互换（以黑方为红方角色，棋盘上下翻转）
+   * @param values  缓冲区，长度不小于棋子数，由调用方复用以免每次查询分配
+   * @return 编号，棋子不在定义域内时返回-1
+   */
+  int index(ChessBoard board, boolean flipped, int[] values) {
+    Arrays.fill(values, 0, slots, -1);
+    for (int side = 0; side < 2; side++) {
+      int role = flipped ? 1 - side : side;
+      int count = board.getPieceCount(side);
+      for (int i = 0; i < count; i++) {
+        int sq = board.getPieceSquare(side, i);
+        int type = PieceCode.type(board.getPieceCode(sq));
+        int value = DOMAIN_INDEX[type][role][flipped ? flip(sq) : sq];
+        int slot = firstSlot[role][type];
+        while (slot < slots && slotGroup[slot] == role * 8 + type && values[slot] >= 0) {
+          slot++;
+        }
+        if (value < 0 || slot == slots || slotGroup[slot] != role * 8 + type) {
+          return -1;
+        }
+        values[slot] = value;
+      }
+    }
+
+    // 同类棋子按下标排序
+    for (int i = 3; i < slots; i++) {
+      int value = values[i];
+      int j = i;
+      while (j > 2 && slotGroup[j - 1] == slotGroup[i] && values[j - 1] > value) {
+        values[j] = values[j - 1];
+        j--;
+      }
+      values[j] = value;
+    }
+
+    int index = 0;
+    for (int i = 0; i < slots; i++) {
+      if (values[i] < 0) {
+        return -1;
+      }
+      index = index * DOMAINS[slotType[i]][slotSide[i]].length + values[i];
+    }
+    int side = board.getSideToMove();
+    return index * 2 + (flipped ? 1 - side : side);
+  }
+
+  /**
+   * 把编号还原为各棋子所在格子
+   *
+   * @param squares 输出，按位置顺序
+   * @return 走棋方，同类棋子乱序的编号返回-1
+   */
+  int decode(int index, int[] squares) {
+    int side = index & 1;
+    int rest = index >>> 1;
+    for (int i = slots - 1; i >= 0; i--) {
+      int[] domain = DOMAINS[slotType[i]][slotSide[i]];
+      int value = rest % domain.length;
+      rest /= domain.length;
+      squares[i] = value;
+    }
+    for (int i = 3; i < slots; i++) {
+      if (slotGroup[i] == slotGroup[i - 1] && squares[i] <= squares[i - 1]) {
+        return -1;
+      }
+    }
+    for (int i = 0; i < slots; i++) {
+      squares[i] = DOMAINS[slotType[i]][slotSide[i]][squares[i]];
+    }
+    return side;
+  }
+
+  /**
+   * 上下翻转格子（颜色互换时使用）
+   */
+  static int flip(int square) {
+    return Square.of(9 - Square.row(square), Square.col(square));
+  }
+
+  private static void defineDomain(int type, int side, boolean[] squares) {
+    int count = 0;
+    int[] domain = new int[Square.SIZE];
+    Arrays.fill(DOMAIN_INDEX[type][side], -1);
+    for (int sq = 0; sq < Square.SIZE; sq++) {
+      if (squares[sq]) {
+        DOMAIN_INDEX[type][side][sq] = count;
+        domain[count++] = sq;
+      }
+    }
+    DOMAINS[type][side] = Arrays.copyOf(domain, count);
+  }
+
+  /**
+   * 从初始格子出发按走法表能到达的全部格子（不考虑阻挡）
+   */
+  private static boolean[] reachable(int type, int side, int... starts) {
+    boolean[] seen = new boolean[Square.SIZE];
+    int[] stack = new int[Square.SIZE];
+    int top = 0;
+    for (int start : starts) {
+      seen[start] = true;
+      stack[top++] = start;
+    }
+    while (top > 0) {
+      int sq = stack[--top];
+      for (int to : targets(type, side, sq)) {
+        if (!seen[to]) {
+          seen[to] = true;
+          stack[top++] = to;
+        }
+      }
+    }
+    return seen;
+  }
+
+  private static int[] targets(int type, int side, int square) {
+    switch (type) {
+      case PieceCode.KING:
+        return MoveTables.kingMoves(side, square);
+      case PieceCode.GUARD:
+        return MoveTables.guardMoves(side, square);
+      case PieceCode.ELEPHANT:
+        return MoveTables.elephantMoves(side, square);
+      default:
+        return MoveTables.pawnMoves(side, square);
+    }
+  }
+}
@@ -0,0 +1,221 @@
+package com.mimeng.chess.engine.tablebase;
+
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.GameLogic;
+import com.mimeng.chess.entity.chess.GameStatus;
+import com.mimeng.chess.entity.chess.MoveGenerator;
+import com.mimeng.chess.entity.chess.PackedMove;
+import com.mimeng.chess.entity.chess.PieceCode;
+import com.mimeng.chess.entity.chess.RepetitionTracker;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 一组残局库，按子力组合查找对应的表，颜色互换的局面自动翻转后查询。实例不可变，线程安全
+ * 供 AI 引擎在残局中直接取得最佳走法和精确分数，以及对局裁决时立即判定和棋或胜负
+ */
+public final class Tablebases {
+  /**
+   * 没有对应的残局库
+   */
+  public static final int NOT_FOUND = -1;
+  /**
+   * 残局库文件扩展名
+   */
+  public static final String EXTENSION = ".xtb";
+  /**
+   * {@link #probe(ChessBoard, int[])} 所需缓冲区的长度（棋盘上最多 32 个棋子）
+   */
+  public static final int SCRATCH_LENGTH = 32;
+
+  private static final Tablebases EMPTY = new Tablebases(List.of());
+
+  private final long[] keys; // 升序，与 tables 一一对应
+  private final Tablebase[] tables;
+  private final int maxPieces;
+
+  private Tablebases(Collection<Tablebase> tables) {
+    this.tables = tables.stream().sorted(Comparator.comparingLong(t -> t.getMaterial().key()))
+        .toArray(Tablebase[]::new);
+    this.keys = new long[this.tables.length];
+    int pieces = 0;
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = this.tables[i].getMaterial().key();
+      pieces = Math.max(pieces, this.tables[i].getMaterial().getPieceCount());
+    }
+    this.maxPieces = pieces;
+  }
+
+  /**
+   * 不含任何残局库
+   */
+  public static Tablebases empty() {
+    return EMPTY;
+  }
+
+  static Tablebases of(Collection<Tablebase> tables) {
+    return new Tablebases(tables);
+  }
+
+  /**
+   * 只读映射目录下全部 {@code *.xtb} 文件
+   *
+   * @throws IOException              读取失败
+   * @throws IllegalArgumentException 文件格式错误
+   */
+  public static Tablebases open(Path directory) throws IOException {
+    List<Path> files;
+    try (Stream<Path> list = Files.list(directory)) {
+      files = list.filter(file -> file.toString().endsWith(EXTENSION)).toList();
+    }
+    List<Tablebase> tables = new ArrayList<>();
+    for (Path file : files) {
+      tables.add(Tablebase.open(file));
+    }
+    return new Tablebases(tables);
+  }
+
+  /**
+   * 残局库数量
+   */
+  public int size() {
+    return tables.length;
+  }
+
+  /**
+   * 最大的残局棋子数（含将帅），棋子更多的局面不必查询
+   */
+  public int getMaxPieces() {
+    return maxPieces;
+  }
+
+  /**
+   * 查询当前走棋方的局面值（含义见 {@link Tablebase}），每次分配缓冲区，用于根节点和对局裁决等非热点调用
+   *
+   * @return 局面值，没有对应的残局库时返回 {@link #NOT_FOUND}
+   */
+  public int probe(ChessBoard board) {
+    return probe(board, new int[SCRATCH_LENGTH]);
+  }
+
+  /**
+   * 查询当前走棋方的局面值，搜索中每个节点调用，由调用方提供可复用的缓冲区
+   *
+   * @param scratch 长度为 {@link #SCRATCH_LENGTH} 的缓冲区
+   * @return 局面值，没有对应的残局库时返回 {@link #NOT_FOUND}
+   */
+  public int probe(ChessBoard board, int[] scratch) {
+    if (board.getPieceCount(PieceCode.SIDE_RED) + board.getPieceCount(PieceCode.SIDE_BLACK) > maxPieces) {
+      return NOT_FOUND;
+    }
+    long key = Material.key(board);
+    boolean flipped = false;
+    int table = find(key);
+    if (table < 0) {
+      flipped = true;
+      table = find(Material.flip(key));
+    }
+    if (table < 0) {
+      return NOT_FOUND;
+    }
+    int value = tables[table].probe(board, flipped, scratch);
+    return value == Tablebase.ILLEGAL ? NOT_FOUND : value;
+  }
+
+  /**
+   * 按残局库选择最佳走法：胜时选杀棋最快的，负时选坚持最久的，和时优先不将军的和棋走法（避免长将）
+   *
+   * @return 打包走法，局面或其后续局面不在库中时返回 {@link PackedMove#NONE}
+   */
+  public int bestMove(ChessBoard board) {
+    int[] scratch = new int[SCRATCH_LENGTH];
+    if (probe(board, scratch) == NOT_FOUND) {
+      return PackedMove.NONE;
+    }
+    int side = board.getSideToMove();
+    int[] moves = new int[MoveGenerator.MAX_MOVES];
+    int count = MoveGenerator.generate(board, side, moves, 0);
+    int best = PackedMove.NONE;
+    int bestRank = Integer.MIN_VALUE;
+    for (int i = 0; i < count; i++) {
+      int move = moves[i];
+      if (!GameLogic.isLegal(board, move)) {
+        continue;
+      }
+      board.makeMove(move);
+      int value = probe(board, scratch);
+      boolean check = GameLogic.isInCheck(board, 1 - side);
+      board.undoMove(move);
+      if (value == NOT_FOUND) {
+        return PackedMove.NONE;
+      }
+
+      // 局面值是对方的，排名从己方角度计算
+      int rank;
+      if (Tablebase.isLoss(value)) {
+        rank = 1000 - Tablebase.plies(value);
+      } else if (Tablebase.isWin(value)) {
+        rank = -1000 + Tablebase.plies(value);
+      } else {
+        rank = check ? -1 : 0;
+      }
+      if (rank > bestRank) {
+        bestRank = rank;
+        best = move;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * 残局裁决：库内的和棋立即判和，胜局在自然限着内能杀棋时立即判胜
+   *
+   * @param pliesSinceCapture 距上次吃子的半回合数
+   * @return 裁决结果，不能裁决时返回 {@link GameStatus#PLAYING}
+   */
+  public GameStatus adjudicate(ChessBoard board, int pliesSinceCapture) {
+    int value = probe(board);
+    if (value == NOT_FOUND) {
+      return GameStatus.PLAYING;
+    }
+    if (Tablebase.isDraw(value)) {
+      return GameStatus.DRAW;
+    }
+    if (Tablebase.plies(value) > RepetitionTracker.NATURAL_MOVE_LIMIT - pliesSinceCapture) {
+      return GameStatus.PLAYING;
+    }
+    boolean redToMove = board.getSideToMove() == PieceCode.SIDE_RED;
+    return Tablebase.isWin(value) == redToMove ? GameStatus.RED_WIN : GameStatus.BLACK_WIN;
+  }
+
+  private int find(long key) {
+    int low = 0;
+    int high = keys.length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (keys[mid] < key) {
+        low = mid + 1;
+      } else if (keys[mid] > key) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("Tablebases[");
+    for (int i = 0; i < tables.length; i++) {
+      sb.append(i > 0 ? ", " : "").append(tables[i].getMaterial());
+    }
+    return sb.append(']').toString();
+  }
+}
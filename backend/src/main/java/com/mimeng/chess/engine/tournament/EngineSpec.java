@@ -0,0 +1,106 @@
+package com.mimeng.chess.engine.tournament;
+
+import com.mimeng.chess.engine.ChessEngine;
+import com.mimeng.chess.engine.SearchOptions;
+import com.mimeng.chess.engine.TranspositionTable;
+import com.mimeng.chess.engine.nnue.Network;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * 参赛引擎的配置，由逗号分隔的 key=value 串解析，例如 {@code network=nnue.bin,without=LMR+FUTILITY,hash=32}：
+ * <ul>
+ * <li>network：评估网络权重文件，不指定时使用子力位置分</li>
+ * <li>without：关闭的启发式（{@link SearchOptions.Feature}，以 + 分隔）</li>
+ * <li>hash：置换表大小（MB），默认 16</li>
+ * </ul>
+ * 空串或 default 为默认配置。每局棋新建引擎，单线程搜索，评估网络由各局共享
+ */
+public final class EngineSpec {
+  private static final int DEFAULT_HASH_MB = 16;
+
+  private final String name;
+  private final Network network;
+  private final SearchOptions searchOptions;
+  private final int hashMb;
+
+  private EngineSpec(String name, Network network, SearchOptions searchOptions, int hashMb) {
+    this.name = name;
+    this.network = network;
+    this.searchOptions = searchOptions;
+    this.hashMb = hashMb;
+  }
+
+  /**
+   * 解析引擎配置，指定了评估网络时同时读取权重文件
+   *
+   * @throws IllegalArgumentException 配置格式错误
+   * @throws IOException              读取评估网络失败
+   */
+  public static EngineSpec parse(String text) throws IOException {
+    String spec = text == null ? "" : text.trim();
+    if (spec.isEmpty() || spec.equals("default")) {
+      return new EngineSpec("default", null, SearchOptions.DEFAULT, DEFAULT_HASH_MB);
+    }
+    Network network = null;
+    SearchOptions searchOptions = SearchOptions.DEFAULT;
+    int hashMb = DEFAULT_HASH_MB;
+    for (String option : spec.split(",")) {
+      int separator = option.indexOf('=');
+      if (separator <= 0) {
+        throw new IllegalArgumentException("引擎配置格式错误: " + option);
+      }
+      String key = option.substring(0, separator).trim();
+      String value = option.substring(separator + 1).trim();
+      switch (key) {
+        case "network":
+          network = Network.load(Path.of(value));
+          break;
+        case "without":
+          for (String feature : value.split("\\+")) {
+            searchOptions = searchOptions.without(feature(feature));
+          }
+          break;
+        case "hash":
+          hashMb = Integer.parseInt(value);
+          if (hashMb <= 0) {
+            throw new IllegalArgumentException("置换表大小必须为正数: " + value);
+          }
+          break;
+        default:
+          throw new IllegalArgumentException("未知的引擎配置项: " + key);
+      }
+    }
+    return new EngineSpec(spec, network, searchOptions, hashMb);
+  }
+
+  private static SearchOptions.Feature feature(String name) {
+    try {
+      return SearchOptions.Feature.valueOf(name.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("未知的启发式: " + name + "，可选 "
+          + Arrays.toString(SearchOptions.Feature.values()));
+    }
+  }
+
+  /**
+   * 按配置新建一个单线程引擎，用完后需关闭
+   */
+  public ChessEngine create() {
+    ChessEngine engine = new ChessEngine(new TranspositionTable(hashMb), 0, 1);
+    engine.setNetwork(network);
+    engine.setSearchOptions(searchOptions);
+    return engine;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
@@ -0,0 +1,131 @@
+package com.mimeng.chess.engine.tournament;
+
+/**
+ * 序贯概率比检验（SPRT）：H0 为 Elo 差等于 elo0，H1 为 Elo 差等于 elo1，
+ * 每局之后计算对数似然比（LLR），越过下界接受 H0、越过上界接受 H1，否则继续对局。
+ * 使用胜/和/负三项结果的广义 SPRT（按正态近似，Elo 与得分率按 logistic 模型换算），
+ * 计算方差时每项结果各加 0.5 局的先验，避免开始几局全胜或全和时方差为零
+ */
+public final class Sprt {
+
+  /**
+   * 检验结论
+   */
+  public enum Decision {
+    /**
+     * 尚无结论，继续对局
+     */
+    CONTINUE,
+    /**
+     * 接受 H0：没有达到 elo0 以上的提升（或有退步）
+     */
+    ACCEPT_H0,
+    /**
+     * 接受 H1：有 elo1 以上的提升
+     */
+    ACCEPT_H1
+  }
+
+  private final double elo0;
+  private final double elo1;
+  private final double lowerBound;
+  private final double upperBound;
+
+  /**
+   * @param alpha 第一类错误率（H0 成立时接受 H1 的概率）
+   * @param beta  第二类错误率（H1 成立时接受 H0 的概率）
+   * @throws IllegalArgumentException 参数不合法
+   */
+  public Sprt(double elo0, double elo1, double alpha, double beta) {
+    if (elo1 <= elo0 || alpha <= 0 || alpha >= 1 || beta <= 0 || beta >= 1) {
+      throw new IllegalArgumentException("SPRT 参数错误: elo0=" + elo0 + ", elo1=" + elo1 + ", alpha=" + alpha
+          + ", beta=" + beta);
+    }
+    this.elo0 = elo0;
+    this.elo1 = elo1;
+    this.lowerBound = Math.log(beta / (1 - alpha));
+    this.upperBound = Math.log((1 - beta) / alpha);
+  }
+
+  /**
+   * 当前结果的对数似然比
+   */
+  public double llr(long wins, long draws, long losses) {
+    long games = wins + draws + losses;
+    if (games == 0) {
+      return 0;
+    }
+    double score = (wins + draws * 0.5) / games;
+    double w = wins + 0.5;
+    double d = draws + 0.5;
+    double l = losses + 0.5;
+    double mean = (w + d * 0.5) / (w + d + l);
+    double variance = (w * (1 - mean) * (1 - mean) + d * (0.5 - mean) * (0.5 - mean) + l * mean * mean)
+        / (w + d + l);
+    double s0 = expectedScore(elo0);
+    double s1 = expectedScore(elo1);
+    return games * (s1 - s0) * (2 * score - s0 - s1) / (2 * variance);
+  }
+
+  public Decision decide(long wins, long draws, long losses) {
+    double llr = llr(wins, draws, losses);
+    if (llr >= upperBound) {
+      return Decision.ACCEPT_H1;
+    }
+    if (llr <= lowerBound) {
+      return Decision.ACCEPT_H0;
+    }
+    return Decision.CONTINUE;
+  }
+
+  public double getElo0() {
+    return elo0;
+  }
+
+  public double getElo1() {
+    return elo1;
+  }
+
+  public double getLowerBound() {
+    return lowerBound;
+  }
+
+  public double getUpperBound() {
+    return upperBound;
+  }
+
+  /**
+   * Elo 差对应的期望得分率
+   */
+  public static double expectedScore(double elo) {
+    return 1 / (1 + Math.pow(10, -elo / 400));
+  }
+
+  /**
+   * 得分率对应的 Elo 差，得分率截断到 0.001..0.999
+   */
+  public static double elo(double score) {
+    double clamped = Math.min(0.999, Math.max(0.001, score));
+    return -400 * Math.log10(1 / clamped - 1);
+  }
+
+  /**
+   * Elo 差 95% 置信区间的半宽（按得分率的标准误换算）
+   */
+  public static double eloMargin(long wins, long draws, long losses) {
+    long games = wins + draws + losses;
+    if (games == 0) {
+      return 0;
+    }
+    double score = (wins + draws * 0.5) / games;
+    double variance = (wins * (1 - score) * (1 - score) + draws * (0.5 - score) * (0.5 - score)
+        + losses * score * score) / games;
+    double margin = 1.96 * Math.sqrt(variance / games);
+    return (elo(score + margin) - elo(score - margin)) / 2;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("SPRT[%.1f, %.1f] (%.2f, %.2f)", elo0, elo1, lowerBound, upperBound);
+  }
+}
@@ -0,0 +1,440 @@
+package com.mimeng.chess.engine.tournament;
+
+import com.mimeng.chess.engine.ChessEngine;
+import com.mimeng.chess.engine.LatencyHistogram;
+import com.mimeng.chess.engine.SearchLimits;
+import com.mimeng.chess.engine.SearchResult;
+import com.mimeng.chess.engine.Searcher;
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.ChessGameState;
+import com.mimeng.chess.entity.chess.Fen;
+import com.mimeng.chess.entity.chess.GameLogic;
+import com.mimeng.chess.entity.chess.GameStatus;
+import com.mimeng.chess.entity.chess.PackedMove;
+import com.mimeng.chess.entity.chess.PieceCode;
+import com.mimeng.chess.entity.chess.PlayerColor;
+import com.mimeng.chess.entity.chess.Position;
+import com.mimeng.chess.entity.chess.RepetitionTracker;
+import com.mimeng.chess.entity.chess.Square;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+/**
+ * 引擎对引擎的无界面锦标赛，用于在上线前检查改动对速度和棋力的影响
+ * 每个开局（FEN 局面文件中的一行）连下两局，双方交换执红；对局使用 {@link ChessGameState} 的规则（将死、困毙、长将、长捉、自然限着），
+ * 超过 {@value #MAX_PLIES} 个半回合判和。每个线程同时只下一局、双方都单线程搜索，线程数默认等于 CPU 核数。
+ * 每局结束后做 {@link Sprt} 检验，有结论或达到局数上限时不再开始新的对局（已开始的对局下完并计入结果）。
+ * 对局按结束顺序以 PGN（ICCS 走法）写入文件；进度由调用方通过回调和 {@link #summary()} 输出，
+ * 结束后可取得 Elo、双方的 nodes/s 和每步用时分布
+ * <p>
+ * 运行：{@code ./gradlew tournament -PtestEngine=network=nnue.bin -PbaseEngine=default [-Popenings=openings.fen] [-Ppgn=tournament.pgn] [-PmoveTime=100] [-Pelo0=0] [-Pelo1=5]}
+ */
+public final class Tournament {
+  /**
+   * 超过该半回合数判和
+   */
+  public static final int MAX_PLIES = 400;
+
+  private static final double ALPHA = 0.05;
+  private static final double BETA = 0.05;
+
+  private final List<String> openings;
+  private final EngineSpec test;
+  private final EngineSpec base;
+  private final SearchLimits limits;
+  private final Sprt sprt;
+  private final int maxGames;
+  private final int threads;
+  private final Stats testStats = new Stats();
+  private final Stats baseStats = new Stats();
+  private final AtomicInteger nextGame = new AtomicInteger();
+  private volatile boolean stopped;
+
+  // 以下由 record 在同步块中更新，均为被测引擎的结果
+  private long wins;
+  private long draws;
+  private long losses;
+  private Sprt.Decision decision = Sprt.Decision.CONTINUE;
+
+  /**
+   * @param openings 开局局面（FEN）
+   * @param test     被测引擎
+   * @param base     对照引擎
+   * @param limits   每步的搜索限制
+   * @param sprt     停止条件
+   * @param maxGames 局数上限
+   * @param threads  同时进行的对局数
+   */
+  public Tournament(List<String> openings, EngineSpec test, EngineSpec base, SearchLimits limits, Sprt sprt,
+      int maxGames, int threads) {
+    if (openings.isEmpty()) {
+      throw new IllegalArgumentException("没有开局局面");
+    }
+    if (maxGames <= 0 || threads <= 0) {
+      throw new IllegalArgumentException("局数和线程数必须为正数: maxGames=" + maxGames + ", threads=" + threads);
+    }
+    this.openings = List.copyOf(openings);
+    this.test = test;
+    this.base = base;
+    this.limits = limits;
+    this.sprt = sprt;
+    this.maxGames = maxGames;
+    this.threads = threads;
+  }
+
+  /**
+   * 读取开局文件：每行一个 FEN 局面，空行和以 # 开头的行忽略
+   *
+   * @throws IOException              读取失败
+   * @throws IllegalArgumentException 局面格式错误或已经结束
+   */
+  public static List<String> loadOpenings(Path path) throws IOException {
+    List<String> openings = new ArrayList<>();
+    List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+    for (int i = 0; i < lines.size(); i++) {
+      String line = lines.get(i).trim();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      ChessBoard board;
+      try {
+        board = Fen.parse(line);
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("开局文件第 " + (i + 1) + " 行: " + e.getMessage(), e);
+      }
+      if (GameLogic.checkGameStatus(board, PieceCode.colorOf(board.getSideToMove())) != GameStatus.PLAYING) {
+        throw new IllegalArgumentException("开局文件第 " + (i + 1) + " 行的局面已经结束: " + line);
+      }
+      openings.add(Fen.format(board));
+    }
+    if (openings.isEmpty()) {
+      throw new IllegalArgumentException("开局文件中没有局面: " + path);
+    }
+    return openings;
+  }
+
+  /**
+   * 进行锦标赛直到 SPRT 有结论或达到局数上限，对局写入 output
+   *
+   * @param progress 每局结束后在对局线程上调用，参数为已结束的局数
+   * @return 检验结论，达到局数上限时为 {@link Sprt.Decision#CONTINUE}
+   * @throws IOException 写入对局失败
+   */
+  public Sprt.Decision run(Path output, IntConsumer progress) throws IOException, InterruptedException {
+    AtomicInteger threadCount = new AtomicInteger();
+    ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "tournament-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    try (BufferedWriter out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+      List<Callable<Void>> workers = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        workers.add(() -> {
+          while (!stopped) {
+            int index = nextGame.getAndIncrement();
+            if (index >= maxGames) {
+              break;
+            }
+            progress.accept(record(play(index), out));
+          }
+          return null;
+        });
+      }
+      for (Future<Void> future : pool.invokeAll(workers)) {
+        future.get();
+      }
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IllegalStateException("对局失败", e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+    synchronized (this) {
+      return decision;
+    }
+  }
+
+  /**
+   * 下一局棋，第 index 局使用第 index / 2 个开局，偶数局被测引擎执红
+   */
+  Game play(int index) {
+    String fen = openings.get((index / 2) % openings.size());
+    boolean testIsRed = (index & 1) == 0;
+    ChessBoard start = Fen.parse(fen);
+    ChessGameState game = new ChessGameState("tournament-" + index, "tournament");
+    game.setCurrentPlayer(PieceCode.colorOf(start.getSideToMove()));
+    game.setBoard(start);
+    game.setStatus(GameStatus.PLAYING);
+
+    List<String> moves = new ArrayList<>();
+    String termination = null;
+    try (ChessEngine testEngine = test.create(); ChessEngine baseEngine = base.create()) {
+      while (game.getStatus() == GameStatus.PLAYING) {
+        if (moves.size() >= MAX_PLIES) {
+          termination = "超过 " + MAX_PLIES + " 个半回合，判和";
+          game.adjudicate(GameStatus.DRAW, termination);
+          break;
+        }
+        PlayerColor mover = game.getCurrentPlayer();
+        boolean testToMove = (mover == PlayerColor.RED) == testIsRed;
+        ChessBoard board = game.getBoard().copy();
+        board.setSideToMove(PieceCode.sideOf(mover));
+        long startNanos = System.nanoTime();
+        SearchResult result = (testToMove ? testEngine : baseEngine).search(board, limits, game.getRepetition());
+        (testToMove ? testStats : baseStats).record(result, System.nanoTime() - startNanos);
+
+        int move = result.getBestMove();
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        if (move == PackedMove.NONE || !game.tryMove(Position.of(Square.row(from), Square.col(from)),
+            Position.of(Square.row(to), Square.col(to)))) {
+          termination = (mover == PlayerColor.RED ? "红方" : "黑方") + "走出非法走法 " + iccs(move) + "，判负";
+          game.adjudicate(mover == PlayerColor.RED ? GameStatus.BLACK_WIN : GameStatus.RED_WIN, termination);
+          break;
+        }
+        moves.add(iccs(move));
+      }
+    }
+    if (termination == null) {
+      termination = termination(game);
+    }
+    return new Game(index, fen, testIsRed, game.getStatus(), termination, moves);
+  }
+
+  /**
+   * 按规则结束的对局的终局原因
+   */
+  private static String termination(ChessGameState game) {
+    List<String> record = game.getGameRecord();
+    String last = record.isEmpty() ? null : record.get(record.size() - 1);
+    for (RepetitionTracker.Ruling ruling : RepetitionTracker.Ruling.values()) {
+      if (ruling.getDescription() != null && ruling.getDescription().equals(last)) {
+        return last;
+      }
+    }
+    if (game.getStatus() != GameStatus.DRAW) {
+      return "将死";
+    }
+    return GameLogic.getLegalMoves(game.getBoard(), game.getCurrentPlayer()).isEmpty() ? "困毙，判和" : "双方只剩将帅，判和";
+  }
+
+  /**
+   * 记录一局的结果并做 SPRT 检验，返回已结束的局数
+   */
+  private synchronized int record(Game game, BufferedWriter out) throws IOException {
+    double score = game.testScore();
+    if (score == 1) {
+      wins++;
+    } else if (score == 0) {
+      losses++;
+    } else {
+      draws++;
+    }
+    game.writePgn(out);
+    out.flush();
+
+    if (decision == Sprt.Decision.CONTINUE) {
+      decision = sprt.decide(wins, draws, losses);
+      if (decision != Sprt.Decision.CONTINUE) {
+        stopped = true;
+      }
+    }
+    return (int) (wins + draws + losses);
+  }
+
+  /**
+   * 当前的胜和负、Elo 和 LLR
+   */
+  public synchronized String summary() {
+    long games = wins + draws + losses;
+    return String.format("%d 局 +%d =%d -%d，得分率 %.3f，Elo %+.1f ± %.1f，LLR %.2f %s", games, wins, draws, losses,
+        score(), getElo(), getEloMargin(), sprt.llr(wins, draws, losses), sprt);
+  }
+
+  /**
+   * 被测引擎相对对照引擎的 Elo 差
+   */
+  public synchronized double getElo() {
+    return Sprt.elo(score());
+  }
+
+  /**
+   * Elo 差 95% 置信区间的半宽
+   */
+  public synchronized double getEloMargin() {
+    return Sprt.eloMargin(wins, draws, losses);
+  }
+
+  private double score() {
+    long games = wins + draws + losses;
+    return games == 0 ? 0.5 : (wins + draws * 0.5) / games;
+  }
+
+  /**
+   * 被测和对照引擎的 nodes/s、平均深度和每步用时分布
+   */
+  public String statistics() {
+    return test + ": " + testStats + System.lineSeparator() + base + ": " + baseStats;
+  }
+
+  /**
+   * 一方引擎的搜索统计
+   */
+  private static final class Stats {
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAdder depth = new LongAdder();
+    private final LatencyHistogram timePerMove = new LatencyHistogram();
+
+    void record(SearchResult result, long elapsedNanos) {
+      moves.increment();
+      nodes.add(result.getNodes());
+      nanos.add(elapsedNanos);
+      depth.add(result.getDepth());
+      timePerMove.record(elapsedNanos);
+    }
+
+    @Override
+    public String toString() {
+      long count = Math.max(1, moves.sum());
+      return String.format("%d 步，%.0f nodes/s，平均深度 %.1f，每步用时 p50 %.1fms / p90 %.1fms / p99 %.1fms / max %.1fms",
+          moves.sum(), nodes.sum() * 1e9 / Math.max(1, nanos.sum()), (double) depth.sum() / count,
+          timePerMove.getPercentileMillis(50), timePerMove.getPercentileMillis(90),
+          timePerMove.getPercentileMillis(99), timePerMove.getMaxMillis());
+    }
+  }
+
+  /**
+   * 一局棋的结果
+   */
+  final class Game {
+    private final int index;
+    private final String fen;
+    private final boolean testIsRed;
+    private final GameStatus status;
+    private final String termination;
+    private final List<String> moves;
+
+    Game(int index, String fen, boolean testIsRed, GameStatus status, String termination, List<String> moves) {
+      this.index = index;
+      this.fen = fen;
+      this.testIsRed = testIsRed;
+      this.status = status;
+      this.termination = termination;
+      this.moves = moves;
+    }
+
+    /**
+     * 被测引擎的得分：胜 1、和 0.5、负 0
+     */
+    double testScore() {
+      if (status == GameStatus.RED_WIN) {
+        return testIsRed ? 1 : 0;
+      }
+      if (status == GameStatus.BLACK_WIN) {
+        return testIsRed ? 0 : 1;
+      }
+      return 0.5;
+    }
+
+    String getTermination() {
+      return termination;
+    }
+
+    List<String> getMoves() {
+      return moves;
+    }
+
+    void writePgn(BufferedWriter out) throws IOException {
+      String result = status == GameStatus.RED_WIN ? "1-0" : status == GameStatus.BLACK_WIN ? "0-1" : "1/2-1/2";
+      out.write("[Game \"Chinese Chess\"]\n");
+      out.write("[Event \"" + test + " vs " + base + "\"]\n");
+      out.write("[Round \"" + (index + 1) + "\"]\n");
+      out.write("[Red \"" + (testIsRed ? test : base) + "\"]\n");
+      out.write("[Black \"" + (testIsRed ? base : test) + "\"]\n");
+      out.write("[Result \"" + result + "\"]\n");
+      out.write("[FEN \"" + fen + "\"]\n");
+      out.write("[Format \"ICCS\"]\n");
+      out.write("[Termination \"" + termination + "\"]\n");
+      out.write("[PlyCount \"" + moves.size() + "\"]\n\n");
+      StringBuilder line = new StringBuilder();
+      boolean blackFirst = fen.contains(" b ");
+      for (int ply = 0; ply < moves.size(); ply++) {
+        int number = (ply + (blackFirst ? 1 : 0)) / 2 + 1;
+        if (ply == 0 && blackFirst) {
+          line.append(number).append(". ... ");
+        } else if ((ply + (blackFirst ? 1 : 0)) % 2 == 0) {
+          line.append(number).append(". ");
+        }
+        line.append(moves.get(ply)).append(' ');
+      }
+      line.append(result);
+      out.write(line.toString());
+      out.write("\n\n");
+    }
+  }
+
+  /**
+   * ICCS 坐标走法（如 H2-E2）：列 A-I，行从红方底线 0 数起
+   */
+  static String iccs(int move) {
+    if (move == PackedMove.NONE) {
+      return "(无)";
+    }
+    int from = PackedMove.from(move);
+    int to = PackedMove.to(move);
+    return "" + (char) ('A' + Square.col(from)) + (9 - Square.row(from)) + '-'
+        + (char) ('A' + Square.col(to)) + (9 - Square.row(to));
+  }
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    if (args.length < 4) {
+      System.err.println("用法: Tournament <openings.fen> <games.pgn> <test> <base> [moveTime=100] [maxGames=20000] "
+          + "[elo0=0] [elo1=5] [threads]");
+      System.exit(1);
+    }
+    long moveTime = args.length > 4 ? Long.parseLong(args[4]) : 100;
+    int maxGames = args.length > 5 ? Integer.parseInt(args[5]) : 20_000;
+    double elo0 = args.length > 6 ? Double.parseDouble(args[6]) : 0;
+    double elo1 = args.length > 7 ? Double.parseDouble(args[7]) : 5;
+    int threads = args.length > 8 ? Integer.parseInt(args[8]) : Runtime.getRuntime().availableProcessors();
+
+    List<String> openings = loadOpenings(Path.of(args[0]));
+    EngineSpec test = EngineSpec.parse(args[2]);
+    EngineSpec base = EngineSpec.parse(args[3]);
+    Sprt sprt = new Sprt(elo0, elo1, ALPHA, BETA);
+    SearchLimits limits = SearchLimits.of(Searcher.MAX_PLY, moveTime, SearchLimits.UNLIMITED_NODES);
+    System.out.printf("%s 对 %s：%d 个开局，每步 %d ms，%d 线程，最多 %d 局，%s%n", test, base, openings.size(), moveTime,
+        threads, maxGames, sprt);
+
+    Tournament tournament = new Tournament(openings, test, base, limits, sprt, maxGames, threads);
+    long start = System.nanoTime();
+    Sprt.Decision decision = tournament.run(Path.of(args[1]), games -> {
+      if (games % 20 == 0) {
+        System.out.println(tournament.summary());
+      }
+    });
+    System.out.println(tournament.summary());
+    System.out.println(tournament.statistics());
+    String conclusion = decision == Sprt.Decision.ACCEPT_H1 ? "接受 H1（有提升）"
+        : decision == Sprt.Decision.ACCEPT_H0 ? "接受 H0（没有提升）" : "达到局数上限，没有结论";
+    System.out.printf("%s，用时 %d s，对局已写入 %s%n", conclusion, (System.nanoTime() - start) / 1_000_000_000L, args[1]);
+  }
+}
@@ -1,71 +1,101 @@
 package com.mimeng.chess.entity.chess;
 
-import com.mimeng.chess.entity.chess.pieces.*;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * 象棋棋盘类
+ * 内部以一维整数数组存放棋子编码（见 {@link Square}、{@link PieceCode}），
+ * 并为双方各维护一份棋子位置列表和子力位置分（见 {@link PieceSquareTable}）；ChessPiece/Position 接口只是其上的一层视图。
+ * 棋盘状态全部是基本类型数组，复制棋盘只需克隆数组
  */
 public class ChessBoard {
   private static final int ROWS = 10;
   private static final int COLS = 9;
+  private static final int MAX_PIECES_PER_SIDE = 16;
 
-  private ChessPiece[][] board;
+  private final int[] squares; // 格子 -> 棋子编码
+  private final int[][] pieceSquares; // 每方的棋子所在格子列表
+  private final int[] pieceCounts; // 每方的棋子数量
+  private final int[] pieceIndex; // 格子 -> 该棋子在列表中的下标
+  private final int[] kingSquares; // 双方将/帅所在格子，不在棋盘上时为-1
+  private final int[] scores; // 每方增量维护的子力价值 + 位置分
+  private int sideToMove; // 当前走棋方，每次走子/撤销时切换
+  private long zobristKey; // 增量维护的 Zobrist 哈希键（含走棋方）
 
   public ChessBoard() {
-    this.board = new ChessPiece[ROWS][COLS];
-    initializeBoard();
+    this(true);
+  }
+
+  private ChessBoard(boolean initialize) {
+    this.squares = new int[Square.SIZE];
+    this.pieceSquares = new int[2][MAX_PIECES_PER_SIDE];
+    this.pieceCounts = new int[2];
+    this.pieceIndex = new int[Square.SIZE];
+    this.kingSquares = new int[] { -1, -1 };
+    this.scores = new int[2];
+    this.sideToMove = PieceCode.SIDE_RED;
+    for (int sq = 0; sq < Square.SIZE; sq++) {
+      squares[sq] = Square.isOnBoard(sq) ? PieceCode.EMPTY : PieceCode.OFFBOARD;
+    }
+    if (initialize) {
+      initializeBoard();
+    }
+  }
+
+  /**
+   * 复制构造：克隆全部数组
+   */
+  private ChessBoard(ChessBoard other) {
+    this.squares = other.squares.clone();
+    this.pieceSquares = new int[][] { other.pieceSquares[0].clone(), other.pieceSquares[1].clone() };
+    this.pieceCounts = other.pieceCounts.clone();
+    this.pieceIndex = other.pieceIndex.clone();
+    this.kingSquares = other.kingSquares.clone();
+    this.scores = other.scores.clone();
+    this.sideToMove = other.sideToMove;
+    this.zobristKey = other.zobristKey;
+  }
+
+  /**
+   * 创建空棋盘（用于从 FEN 等外部格式构造局面）
+   */
+  static ChessBoard empty() {
+    return new ChessBoard(false);
   }
 
   /**
    * 初始化棋盘（标准开局）
    */
   private void initializeBoard() {
-    // 清空棋盘
-    for (int i = 0; i < ROWS; i++) {
-      for (int j = 0; j < COLS; j++) {
-        board[i][j] = null;
-      }
-    }
+    PieceType[] backRank = { PieceType.ROOK, PieceType.HORSE, PieceType.ELEPHANT, PieceType.GUARD, PieceType.KING,
+        PieceType.GUARD, PieceType.ELEPHANT, PieceType.HORSE, PieceType.ROOK };
 
     // 黑方棋子（上方）
-    board[0][0] = new Rook(PlayerColor.BLACK, new Position(0, 0));
-    board[0][1] = new Horse(PlayerColor.BLACK, new Position(0, 1));
-    board[0][2] = new Elephant(PlayerColor.BLACK, new Position(0, 2));
-    board[0][3] = new Guard(PlayerColor.BLACK, new Position(0, 3));
-    board[0][4] = new King(PlayerColor.BLACK, new Position(0, 4));
-    board[0][5] = new Guard(PlayerColor.BLACK, new Position(0, 5));
-    board[0][6] = new Elephant(PlayerColor.BLACK, new Position(0, 6));
-    board[0][7] = new Horse(PlayerColor.BLACK, new Position(0, 7));
-    board[0][8] = new Rook(PlayerColor.BLACK, new Position(0, 8));
-
-    board[2][1] = new Cannon(PlayerColor.BLACK, new Position(2, 1));
-    board[2][7] = new Cannon(PlayerColor.BLACK, new Position(2, 7));
-
+    for (int col = 0; col < COLS; col++) {
+      put(0, col, backRank[col], PlayerColor.BLACK);
+    }
+    put(2, 1, PieceType.CANNON, PlayerColor.BLACK);
+    put(2, 7, PieceType.CANNON, PlayerColor.BLACK);
     for (int col = 0; col < COLS; col += 2) {
-      board[3][col] = new Pawn(PlayerColor.BLACK, new Position(3, col));
+      put(3, col, PieceType.PAWN, PlayerColor.BLACK);
     }
 
     // 红方棋子（下方）
-    board[9][0] = new Rook(PlayerColor.RED, new Position(9, 0));
-    board[9][1] = new Horse(PlayerColor.RED, new Position(9, 1));
-    board[9][2] = new Elephant(PlayerColor.RED, new Position(9, 2));
-    board[9][3] = new Guard(PlayerColor.RED, new Position(9, 3));
-    board[9][4] = new King(PlayerColor.RED, new Position(9, 4));
-    board[9][5] = new Guard(PlayerColor.RED, new Position(9, 5));
-    board[9][6] = new Elephant(PlayerColor.RED, new Position(9, 6));
-    board[9][7] = new Horse(PlayerColor.RED, new Position(9, 7));
-    board[9][8] = new Rook(PlayerColor.RED, new Position(9, 8));
-
-    board[7][1] = new Cannon(PlayerColor.RED, new Position(7, 1));
-    board[7][7] = new Cannon(PlayerColor.RED, new Position(7, 7));
-
+    for (int col = 0; col < COLS; col++) {
+      put(9, col, backRank[col], PlayerColor.RED);
+    }
+    put(7, 1, PieceType.CANNON, PlayerColor.RED);
+    put(7, 7, PieceType.CANNON, PlayerColor.RED);
     for (int col = 0; col < COLS; col += 2) {
-      board[6][col] = new Pawn(PlayerColor.RED, new Position(6, col));
+      put(6, col, PieceType.PAWN, PlayerColor.RED);
     }
   }
 
+  private void put(int row, int col, PieceType type, PlayerColor color) {
+    addPiece(Square.of(row, col), PieceCode.of(type, color));
+  }
+
   /**
    * 获取指定位置的棋子
    */
@@ -73,7 +103,62 @@ public class ChessBoard {
     if (!position.isValid()) {
       return null;
     }
-    return board[position.getRow()][position.getCol()];
+    return ChessPiece.of(squares[Square.of(position.getRow(), position.getCol())]);
+  }
+
+  /**
+   * 获取指定行列的棋子
+   */
+  public ChessPiece getPieceAt(int row, int col) {
+    if (!isValidCoordinate(row, col)) {
+      return null;
+    }
+    return ChessPiece.of(squares[Square.of(row, col)]);
+  }
+
+  /**
+   * 获取指定格子的棋子编码（棋盘外返回 {@link PieceCode#OFFBOARD}）
+   */
+  public int getPieceCode(int square) {
+    return squares[square];
+  }
+
+  /**
+   * 获取指定行列的棋子编码（越界返回 {@link PieceCode#OFFBOARD}）
+   */
+  public int getPieceCode(int row, int col) {
+    if (!isValidCoordinate(row, col)) {
+      return PieceCode.OFFBOARD;
+    }
+    return squares[Square.of(row, col)];
+  }
+
+  /**
+   * 检查指定行列是否为空位（越界视为非空）
+   */
+  public boolean isEmpty(int row, int col) {
+    return getPieceCode(row, col) == PieceCode.EMPTY;
+  }
+
+  /**
+   * 获取指定颜色的棋子数量
+   */
+  public int getPieceCount(PlayerColor color) {
+    return pieceCounts[PieceCode.sideOf(color)];
+  }
+
+  /**
+   * 获取指定阵营的棋子数量
+   */
+  public int getPieceCount(int side) {
+    return pieceCounts[side];
+  }
+
+  /**
+   * 获取指定阵营棋子列表中第 index 个棋子所在格子
+   */
+  public int getPieceSquare(int side, int index) {
+    return pieceSquares[side][index];
   }
 
   /**
@@ -81,9 +166,12 @@ public class ChessBoard {
    */
   public void setPieceAt(Position position, ChessPiece piece) {
     if (position.isValid()) {
-      board[position.getRow()][position.getCol()] = piece;
+      int sq = Square.of(position.getRow(), position.getCol());
+      if (squares[sq] != PieceCode.EMPTY) {
+        removePiece(sq);
+      }
       if (piece != null) {
-        piece.setPosition(position);
+        addPiece(sq, PieceCode.of(piece));
       }
     }
   }
@@ -104,9 +192,14 @@ public class ChessBoard {
     ChessPiece piece = getPieceAt(from);
     ChessPiece capturedPiece = getPieceAt(to);
 
-    if (piece != null && piece.canMoveTo(to, this)) {
-      removePieceAt(from);
-      setPieceAt(to, piece);
+    if (piece != null && piece.canMoveTo(from, to, this)) {
+      int fromSq = Square.of(from.getRow(), from.getCol());
+      int toSq = Square.of(to.getRow(), to.getCol());
+      if (capturedPiece != null) {
+        removePiece(toSq);
+      }
+      movePiece(fromSq, toSq);
+      switchSide();
       return new Move(from, to, piece, capturedPiece);
     }
 
@@ -117,23 +210,70 @@ public class ChessBoard {
    * 撤销移动
    */
   public void undoMove(Move move) {
-    ChessPiece piece = getPieceAt(move.getTo());
-    setPieceAt(move.getFrom(), piece);
-    setPieceAt(move.getTo(), move.getCapturedPiece());
+    int fromSq = Square.of(move.getFrom().getRow(), move.getFrom().getCol());
+    int toSq = Square.of(move.getTo().getRow(), move.getTo().getCol());
+    if (!PieceCode.isPiece(squares[toSq]) || squares[fromSq] != PieceCode.EMPTY) {
+      throw new IllegalStateException("撤销的移动与当前棋盘不一致: " + move);
+    }
+    movePiece(toSq, fromSq);
+    ChessPiece capturedPiece = move.getCapturedPiece();
+    if (capturedPiece != null) {
+      addPiece(toSq, PieceCode.of(capturedPiece));
+    }
+    switchSide();
+  }
+
+  /**
+   * 原地执行打包移动（不做规则检查，调用方需保证其为当前局面的伪合法走法）
+   * 被吃的棋子编码记录在走法中，由 {@link #undoMove(int)} 恢复
+   */
+  public void makeMove(int move) {
+    int from = PackedMove.from(move);
+    int to = PackedMove.to(move);
+    if (PackedMove.isCapture(move)) {
+      removePiece(to);
+    }
+    movePiece(from, to);
+    switchSide();
+  }
+
+  /**
+   * 撤销由 {@link #makeMove(int)} 执行的打包移动
+   */
+  public void undoMove(int move) {
+    int from = PackedMove.from(move);
+    int to = PackedMove.to(move);
+    movePiece(to, from);
+    int captured = PackedMove.captured(move);
+    if (captured != PieceCode.EMPTY) {
+      addPiece(to, captured);
+    }
+    switchSide();
+  }
+
+  /**
+   * 空着：只交换走棋方，用于搜索中的空着裁剪，由 {@link #undoNullMove()} 撤销
+   */
+  public void makeNullMove() {
+    switchSide();
+  }
+
+  /**
+   * 撤销 {@link #makeNullMove()}
+   */
+  public void undoNullMove() {
+    switchSide();
   }
 
   /**
    * 获取所有指定颜色的棋子
    */
   public List<ChessPiece> getPieces(PlayerColor color) {
-    List<ChessPiece> pieces = new ArrayList<>();
-    for (int i = 0; i < ROWS; i++) {
-      for (int j = 0; j < COLS; j++) {
-        ChessPiece piece = board[i][j];
-        if (piece != null && piece.getColor() == color) {
-          pieces.add(piece);
-        }
-      }
+    int side = PieceCode.sideOf(color);
+    int count = pieceCounts[side];
+    List<ChessPiece> pieces = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      pieces.add(ChessPiece.of(squares[pieceSquares[side][i]]));
     }
     return pieces;
   }
@@ -142,70 +282,145 @@ public class ChessBoard {
    * 获取指定颜色的将/帅
    */
   public ChessPiece getKing(PlayerColor color) {
-    for (ChessPiece piece : getPieces(color)) {
-      if (piece.getType() == PieceType.KING) {
-        return piece;
-      }
+    int sq = kingSquares[PieceCode.sideOf(color)];
+    return sq < 0 ? null : ChessPiece.of(squares[sq]);
+  }
+
+  /**
+   * 获取指定阵营将/帅所在格子（随走子增量维护），不在棋盘上时返回-1
+   */
+  public int getKingSquare(int side) {
+    return kingSquares[side];
+  }
+
+  /**
+   * 获取当前走棋方（阵营下标）
+   */
+  public int getSideToMove() {
+    return sideToMove;
+  }
+
+  /**
+   * 设置当前走棋方，同时修正哈希键
+   */
+  public void setSideToMove(int side) {
+    if (side != sideToMove) {
+      switchSide();
     }
-    return null;
+  }
+
+  /**
+   * 获取当前局面的 Zobrist 哈希键，由走子/撤销增量维护
+   */
+  public long getZobristKey() {
+    return zobristKey;
+  }
+
+  /**
+   * 从头重新计算哈希键（用于校验增量结果）
+   */
+  public long computeZobristKey() {
+    return Zobrist.compute(this);
+  }
+
+  /**
+   * 获取一方的子力价值与位置分之和，由走子/撤销增量维护
+   */
+  public int getPieceSquareScore(int side) {
+    return scores[side];
+  }
+
+  /**
+   * 从头重新计算一方的子力位置分（用于校验增量结果）
+   */
+  public int computePieceSquareScore(int side) {
+    return PieceSquareTable.compute(this, side);
   }
 
   /**
    * 获取所有可能的移动
    */
   public List<Move> getAllPossibleMoves(PlayerColor color) {
-    List<Move> moves = new ArrayList<>();
-    for (ChessPiece piece : getPieces(color)) {
-      for (Position target : piece.getPossibleMoves(this)) {
-        ChessPiece capturedPiece = getPieceAt(target);
-        moves.add(new Move(piece.getPosition(), target, piece, capturedPiece));
-      }
+    int[] buffer = new int[MoveGenerator.MAX_MOVES];
+    int count = MoveGenerator.generate(this, PieceCode.sideOf(color), buffer, 0);
+    List<Move> moves = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      moves.add(PackedMove.toMove(buffer[i], this));
     }
     return moves;
   }
 
   /**
-   * 复制棋盘状态
+   * 复制棋盘状态（纯数组克隆，棋子是共享的无状态对象）
    */
   public ChessBoard copy() {
-    ChessBoard newBoard = new ChessBoard();
-    for (int i = 0; i < ROWS; i++) {
-      for (int j = 0; j < COLS; j++) {
-        ChessPiece piece = board[i][j];
-        if (piece != null) {
-          ChessPiece newPiece = createPieceCopy(piece);
-          newBoard.board[i][j] = newPiece;
-        }
-      }
+    return new ChessBoard(this);
+  }
+
+  /**
+   * 在格子上放置棋子并登记到棋子列表
+   */
+  private void addPiece(int sq, int code) {
+    int side = PieceCode.side(code);
+    int count = pieceCounts[side];
+    if (count >= MAX_PIECES_PER_SIDE) {
+      throw new IllegalStateException("棋子数量超出上限: " + PieceCode.color(code));
+    }
+    squares[sq] = code;
+    pieceSquares[side][count] = sq;
+    pieceIndex[sq] = count;
+    pieceCounts[side] = count + 1;
+    zobristKey ^= Zobrist.piece(code, sq);
+    scores[side] += PieceSquareTable.score(code, sq);
+    if (PieceCode.type(code) == PieceCode.KING) {
+      kingSquares[side] = sq;
     }
-    return newBoard;
   }
 
   /**
-   * 创建棋子副本
+   * 移除格子上的棋子，列表中由最后一个棋子填补空位
    */
-  private ChessPiece createPieceCopy(ChessPiece piece) {
-    Position pos = piece.getPosition();
-    PlayerColor color = piece.getColor();
+  private void removePiece(int sq) {
+    int code = squares[sq];
+    int side = PieceCode.side(code);
+    if (PieceCode.type(code) == PieceCode.KING && kingSquares[side] == sq) {
+      kingSquares[side] = -1;
+    }
+    int last = --pieceCounts[side];
+    int lastSq = pieceSquares[side][last];
+    int index = pieceIndex[sq];
+    pieceSquares[side][index] = lastSq;
+    pieceIndex[lastSq] = index;
+    squares[sq] = PieceCode.EMPTY;
+    zobristKey ^= Zobrist.piece(code, sq);
+    scores[side] -= PieceSquareTable.score(code, sq);
+  }
 
-    switch (piece.getType()) {
-      case KING:
-        return new King(color, pos);
-      case GUARD:
-        return new Guard(color, pos);
-      case ELEPHANT:
-        return new Elephant(color, pos);
-      case HORSE:
-        return new Horse(color, pos);
-      case ROOK:
-        return new Rook(color, pos);
-      case CANNON:
-        return new Cannon(color, pos);
-      case PAWN:
-        return new Pawn(color, pos);
-      default:
-        return null;
+  /**
+   * 将棋子移动到空格子
+   */
+  private void movePiece(int from, int to) {
+    int code = squares[from];
+    int side = PieceCode.side(code);
+    int index = pieceIndex[from];
+    pieceSquares[side][index] = to;
+    if (PieceCode.type(code) == PieceCode.KING) {
+      kingSquares[side] = to;
     }
+    pieceIndex[to] = index;
+    squares[to] = code;
+    squares[from] = PieceCode.EMPTY;
+    zobristKey ^= Zobrist.piece(code, from) ^ Zobrist.piece(code, to);
+    scores[side] += PieceSquareTable.score(code, to) - PieceSquareTable.score(code, from);
+  }
+
+  private void switchSide() {
+    sideToMove = 1 - sideToMove;
+    zobristKey ^= Zobrist.side();
+  }
+
+  private static boolean isValidCoordinate(int row, int col) {
+    return row >= 0 && row < ROWS && col >= 0 && col < COLS;
   }
 
   /**
@@ -218,11 +433,11 @@ public class ChessBoard {
     for (int i = 0; i < ROWS; i++) {
       sb.append(i).append(" ");
       for (int j = 0; j < COLS; j++) {
-        ChessPiece piece = board[i][j];
-        if (piece == null) {
+        int code = squares[Square.of(i, j)];
+        if (code == PieceCode.EMPTY) {
           sb.append("· ");
         } else {
-          sb.append(piece.getName()).append(" ");
+          sb.append(PieceCode.pieceType(code).getName(PieceCode.color(code))).append(" ");
         }
       }
       sb.append("\n");
@@ -26,6 +26,7 @@ public class ChessGameState {
   // 棋盘和移动历史
   private ChessBoard board; // 当前棋盘状态
   private Stack<Move> moveHistory; // 移动历史（用于悔棋）
+  private RepetitionTracker repetition; // 重复局面记录（长将、长捉、自然限着）
   private List<String> gameRecord; // 游戏记录（棋谱）
 
   // 前端交互相关（主要用于Android客户端）
@@ -53,6 +54,7 @@ public class ChessGameState {
     this.currentPlayer = PlayerColor.RED; // 红方先手
     this.board = new ChessBoard();
     this.moveHistory = new Stack<>();
+    this.repetition = new RepetitionTracker(board.getZobristKey());
     this.gameRecord = new ArrayList<>();
     this.availableMoves = new ArrayList<>();
     this.selectedPiece = null;
@@ -186,6 +188,12 @@ public class ChessGameState {
    * 执行移动
    */
   private boolean executeMove(Move move) {
+    // 走子前判断是否构成捉子
+    int from = Square.of(move.getFrom().getRow(), move.getFrom().getCol());
+    int to = Square.of(move.getTo().getRow(), move.getTo().getCol());
+    boolean chase = GameLogic.isChasingMove(board,
+        PackedMove.of(from, to, board.getPieceCode(from), board.getPieceCode(to)));
+
     // 执行移动
     Move executedMove = board.makeMove(move.getFrom(), move.getTo());
     if (executedMove == null) {
@@ -204,9 +212,18 @@ public class ChessGameState {
 
     // 切换玩家
     switchPlayer();
+    repetition.push(board.getZobristKey(), PieceCode.sideOf(executedMove.getPiece().getColor()),
+        executedMove.isCapture(), GameLogic.isInCheck(board, currentPlayer), chase);
 
-    // 检查游戏是否结束
+    // 检查游戏是否结束，将死、困毙优先，其次是长将、长捉等裁决
     GameStatus newStatus = GameLogic.checkGameStatus(board, currentPlayer);
+    if (newStatus == GameStatus.PLAYING) {
+      RepetitionTracker.Ruling ruling = repetition.adjudicate();
+      if (ruling != RepetitionTracker.Ruling.NONE) {
+        newStatus = ruling.getStatus();
+        gameRecord.add(ruling.getDescription());
+      }
+    }
     if (newStatus != GameStatus.PLAYING) {
       this.status = newStatus;
     }
@@ -235,6 +252,7 @@ public class ChessGameState {
 
     Move lastMove = moveHistory.pop();
     board.undoMove(lastMove);
+    repetition.pop();
     gameRecord.add("悔棋");
 
     currentUndoCount++;
@@ -272,6 +290,16 @@ public class ChessGameState {
     }
   }
 
+  /**
+   * 按外部裁决（如残局库）结束对局
+   */
+  public void adjudicate(GameStatus result, String reason) {
+    if (status == GameStatus.PLAYING && result != GameStatus.PLAYING) {
+      status = result;
+      gameRecord.add(reason);
+    }
+  }
+
   /**
    * 获取当前玩家
    */
@@ -397,6 +425,9 @@ public class ChessGameState {
 
   public void setCurrentPlayer(PlayerColor currentPlayer) {
     this.currentPlayer = currentPlayer;
+    board.setSideToMove(PieceCode.sideOf(currentPlayer));
+    // 外部直接设置局面时，重复局面记录从当前局面重新开始
+    repetition.reset(board.getZobristKey());
   }
 
   public Player getRedPlayer() {
@@ -413,6 +444,10 @@ public class ChessGameState {
 
   public void setBoard(ChessBoard board) {
     this.board = board;
+    if (board != null) {
+      board.setSideToMove(PieceCode.sideOf(currentPlayer));
+      repetition.reset(board.getZobristKey());
+    }
   }
 
   public Position getSelectedPiece() {
@@ -435,6 +470,10 @@ public class ChessGameState {
     return new ArrayList<>(moveHistory);
   }
 
+  public RepetitionTracker getRepetition() {
+    return repetition;
+  }
+
   public List<String> getGameRecord() {
     return new ArrayList<>(gameRecord);
   }
@@ -1,53 +1,90 @@
 package com.mimeng.chess.entity.chess;
 
+import com.mimeng.chess.entity.chess.pieces.*;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * 象棋棋子抽象基类
+ * 棋子是无状态的不可变对象，每种（类型, 颜色）只有一个共享实例，通过 {@link #of(PieceType, PlayerColor)} 获取；
+ * 棋子的位置只由棋盘记录，走法相关方法都需要传入起点
  */
 public abstract class ChessPiece {
+  private static final ChessPiece[] BY_CODE = new ChessPiece[PieceCode.COUNT];
+
+  static {
+    for (PlayerColor color : PlayerColor.values()) {
+      register(new King(color));
+      register(new Guard(color));
+      register(new Elephant(color));
+      register(new Horse(color));
+      register(new Rook(color));
+      register(new Cannon(color));
+      register(new Pawn(color));
+    }
+  }
+
   protected final PieceType type;
   protected final PlayerColor color;
-  protected Position position;
 
-  public ChessPiece(PieceType type, PlayerColor color, Position position) {
+  protected ChessPiece(PieceType type, PlayerColor color) {
     this.type = type;
     this.color = color;
-    this.position = position;
   }
 
-  public PieceType getType() {
-    return type;
+  private static void register(ChessPiece piece) {
+    BY_CODE[PieceCode.of(piece.type, piece.color)] = piece;
   }
 
-  public PlayerColor getColor() {
-    return color;
+  /**
+   * 获取指定类型和颜色的棋子实例
+   */
+  public static ChessPiece of(PieceType type, PlayerColor color) {
+    return BY_CODE[PieceCode.of(type, color)];
   }
 
-  public Position getPosition() {
-    return position;
+  /**
+   * 按棋子编码获取棋子实例，空位返回 null
+   */
+  public static ChessPiece of(int code) {
+    return PieceCode.isPiece(code) ? BY_CODE[code] : null;
   }
 
-  public void setPosition(Position position) {
-    this.position = position;
+  public PieceType getType() {
+    return type;
+  }
+
+  public PlayerColor getColor() {
+    return color;
   }
 
   /**
-   * 获取所有可能的移动位置
+   * 获取所有可能的移动位置（基于 MoveGenerator 的适配接口）
    * 
+   * @param from  棋子所在位置
    * @param board 当前棋盘状态
    * @return 可移动的位置列表
    */
-  public abstract List<Position> getPossibleMoves(ChessBoard board);
+  public List<Position> getPossibleMoves(Position from, ChessBoard board) {
+    int[] buffer = new int[MoveGenerator.MAX_PIECE_MOVES];
+    int count = MoveGenerator.generateFrom(board, square(from), PieceCode.of(type, color), buffer, 0);
+    List<Position> moves = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      int to = PackedMove.to(buffer[i]);
+      moves.add(Position.of(Square.row(to), Square.col(to)));
+    }
+    return moves;
+  }
 
   /**
-   * 检查是否可以移动到指定位置
+   * 检查是否可以从起点移动到指定位置
    * 
+   * @param from   棋子所在位置
    * @param target 目标位置
    * @param board  当前棋盘状态
    * @return 是否可以移动
    */
-  public abstract boolean canMoveTo(Position target, ChessBoard board);
+  public abstract boolean canMoveTo(Position from, Position target, ChessBoard board);
 
   /**
    * 获取棋子的显示名称
@@ -75,7 +112,7 @@ public abstract class ChessPiece {
     int currentCol = from.getCol() + colStep;
 
     while (currentRow != to.getRow() || currentCol != to.getCol()) {
-      if (board.getPieceAt(new Position(currentRow, currentCol)) != null) {
+      if (!board.isEmpty(currentRow, currentCol)) {
         return false;
       }
       currentRow += rowStep;
@@ -85,6 +122,28 @@ public abstract class ChessPiece {
     return true;
   }
 
+  /**
+   * 坐标对应的格子编号
+   */
+  protected static int square(Position position) {
+    return Square.of(position.getRow(), position.getCol());
+  }
+
+  /**
+   * 按落点表检查一步走法（将帅、士、兵卒）
+   */
+  protected boolean isTableStep(int[] targets, Position target) {
+    return MoveTables.indexOf(targets, square(target)) >= 0;
+  }
+
+  /**
+   * 按落点表检查可被蹩住的走法（马腿、象眼），blockers 与 targets 一一对应
+   */
+  protected boolean isUnblockedTableMove(int[] targets, int[] blockers, Position target, ChessBoard board) {
+    int index = MoveTables.indexOf(targets, square(target));
+    return index >= 0 && board.getPieceCode(blockers[index]) == PieceCode.EMPTY;
+  }
+
   /**
    * 检查目标位置是否可以放置（空位或敌方棋子）
    */
@@ -93,12 +152,12 @@ public abstract class ChessPiece {
       return false;
     }
 
-    ChessPiece targetPiece = board.getPieceAt(target);
-    return targetPiece == null || targetPiece.getColor() != this.color;
+    int code = board.getPieceCode(target.getRow(), target.getCol());
+    return code == PieceCode.EMPTY || !PieceCode.isSide(code, PieceCode.sideOf(color));
   }
 
   @Override
   public String toString() {
-    return getName() + "@" + position;
+    return getName();
   }
 }
@@ -263,6 +263,26 @@ public class ChessRoom extends Room {
     return success;
   }
 
+  /**
+   * AI 玩家移动，只有轮到 AI 走棋时才会执行
+   */
+  public boolean aiMove(Position from, Position to) {
+    if (gameState == null || gameState.getStatus() != GameStatus.PLAYING) {
+      return false;
+    }
+
+    Player player = gameState.getCurrentPlayerInfo();
+    if (player == null || !player.isAI()) {
+      return false;
+    }
+
+    boolean success = gameState.tryMove(from, to);
+    if (success) {
+      updateLastActivity();
+    }
+    return success;
+  }
+
   /**
    * 玩家选择棋子
    */
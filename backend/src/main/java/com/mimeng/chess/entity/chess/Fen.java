@@ -0,0 +1,101 @@
+package com.mimeng.chess.entity.chess;
+
+/**
+ * 中国象棋 FEN 局面串的解析与生成
+ * 格式与常见引擎一致：从黑方底线（第0行）到红方底线逐行描述，大写为红方、小写为黑方，
+ * K/A/B/N/R/C/P 分别对应将、士、象、马、车、炮、兵；走棋方 w（或 r）为红方，b 为黑方
+ */
+public final class Fen {
+  /**
+   * 标准开局
+   */
+  public static final String START = "rnbakabnr/9/1c5c1/p1p1p1p1p/9/9/P1P1P1P1P/1C5C1/9/RNBAKABNR w - - 0 1";
+
+  private static final String PIECE_LETTERS = "KABNRCP"; // 下标 + 1 即棋子类型
+
+  private Fen() {
+  }
+
+  /**
+   * 解析 FEN 串，返回对应的棋盘
+   *
+   * @throws IllegalArgumentException FEN 格式错误
+   */
+  public static ChessBoard parse(String fen) {
+    if (fen == null || fen.isBlank()) {
+      throw new IllegalArgumentException("FEN 不能为空");
+    }
+    String[] fields = fen.trim().split("\\s+");
+    String[] rows = fields[0].split("/");
+    if (rows.length != 10) {
+      throw new IllegalArgumentException("FEN 行数错误: " + fen);
+    }
+
+    ChessBoard board = ChessBoard.empty();
+    for (int row = 0; row < rows.length; row++) {
+      int col = 0;
+      for (char c : rows[row].toCharArray()) {
+        if (c >= '1' && c <= '9') {
+          col += c - '0';
+          continue;
+        }
+        int index = PIECE_LETTERS.indexOf(Character.toUpperCase(c));
+        if (index < 0 || col >= 9) {
+          throw new IllegalArgumentException("FEN 第" + row + "行格式错误: " + fen);
+        }
+        PlayerColor color = Character.isUpperCase(c) ? PlayerColor.RED : PlayerColor.BLACK;
+        board.setPieceAt(Position.of(row, col), ChessPiece.of(PieceType.values()[index], color));
+        col++;
+      }
+      if (col != 9) {
+        throw new IllegalArgumentException("FEN 第" + row + "行列数错误: " + fen);
+      }
+    }
+
+    if (fields.length > 1) {
+      switch (fields[1]) {
+        case "w":
+        case "r":
+          board.setSideToMove(PieceCode.SIDE_RED);
+          break;
+        case "b":
+          board.setSideToMove(PieceCode.SIDE_BLACK);
+          break;
+        default:
+          throw new IllegalArgumentException("FEN 走棋方错误: " + fen);
+      }
+    }
+    return board;
+  }
+
+  /**
+   * 生成棋盘的 FEN 串
+   */
+  public static String format(ChessBoard board) {
+    StringBuilder sb = new StringBuilder();
+    for (int row = 0; row < 10; row++) {
+      if (row > 0) {
+        sb.append('/');
+      }
+      int empty = 0;
+      for (int col = 0; col < 9; col++) {
+        int code = board.getPieceCode(row, col);
+        if (code == PieceCode.EMPTY) {
+          empty++;
+          continue;
+        }
+        if (empty > 0) {
+          sb.append(empty);
+          empty = 0;
+        }
+        char letter = PIECE_LETTERS.charAt(PieceCode.type(code) - 1);
+        sb.append(PieceCode.side(code) == PieceCode.SIDE_RED ? letter : Character.toLowerCase(letter));
+      }
+      if (empty > 0) {
+        sb.append(empty);
+      }
+    }
+    sb.append(board.getSideToMove() == PieceCode.SIDE_RED ? " w" : " b").append(" - - 0 1");
+    return sb.toString();
+  }
+}
@@ -7,21 +7,81 @@ import java.util.List;
  * 象棋游戏逻辑类 - 负责胜负判断和游戏规则检查
  */
 public class GameLogic {
+  private static final int[] ORTHOGONAL = { Square.UP, Square.DOWN, Square.LEFT, Square.RIGHT };
+  // 将/帅四个斜角（即马腿）以及每个马腿对应的两个马位
+  private static final int[] HORSE_LEGS = { -17, -15, 15, 17 };
+  private static final int[] HORSE_ATTACKERS = { -33, -18, -31, -14, 31, 14, 33, 18 };
+  private static final int[] DIAGONAL = { -17, -15, 15, 17 };
+  // 判断捉子时使用的粗略子力价值，下标为棋子类型
+  private static final int[] CHASE_VALUES = { 0, 0, 2, 2, 4, 9, 4, 1 };
 
   /**
    * 检查是否将军
    */
   public static boolean isInCheck(ChessBoard board, PlayerColor color) {
-    ChessPiece king = board.getKing(color);
-    if (king == null) {
+    return isInCheck(board, PieceCode.sideOf(color));
+  }
+
+  /**
+   * 检查指定阵营是否被将军
+   * 从将/帅所在格子向外反查：直线上的车、炮和照面的将帅，马腿所在的斜角，以及兵卒可能所在的格子
+   */
+  public static boolean isInCheck(ChessBoard board, int side) {
+    int king = board.getKingSquare(side);
+    if (king < 0) {
       return false;
     }
+    int opponent = 1 - side;
+    int flag = PieceCode.sideFlag(opponent);
+
+    // 车、炮、将帅照面
+    for (int dir = 0; dir < 4; dir++) {
+      int delta = ORTHOGONAL[dir];
+      int sq = king + delta;
+      int code = board.getPieceCode(sq);
+      while (code == PieceCode.EMPTY) {
+        sq += delta;
+        code = board.getPieceCode(sq);
+      }
+      if (code == PieceCode.OFFBOARD) {
+        continue;
+      }
+      if (code == (flag | PieceCode.ROOK)) {
+        return true;
+      }
+      if (code == (flag | PieceCode.KING) && (delta == Square.UP || delta == Square.DOWN)) {
+        return true;
+      }
+      // 越过炮台找炮
+      do {
+        sq += delta;
+        code = board.getPieceCode(sq);
+      } while (code == PieceCode.EMPTY);
+      if (code == (flag | PieceCode.CANNON)) {
+        return true;
+      }
+    }
 
-    PlayerColor opponentColor = (color == PlayerColor.RED) ? PlayerColor.BLACK : PlayerColor.RED;
-    List<ChessPiece> opponentPieces = board.getPieces(opponentColor);
+    // 马：每个斜角既是马腿，也对应两个可能的马位
+    int horse = flag | PieceCode.HORSE;
+    for (int i = 0; i < 4; i++) {
+      if (board.getPieceCode(king + HORSE_LEGS[i]) != PieceCode.EMPTY) {
+        continue;
+      }
+      if (board.getPieceCode(king + HORSE_ATTACKERS[2 * i]) == horse
+          || board.getPieceCode(king + HORSE_ATTACKERS[2 * i + 1]) == horse) {
+        return true;
+      }
+    }
 
-    for (ChessPiece piece : opponentPieces) {
-      if (piece.canMoveTo(king.getPosition(), board)) {
+    // 兵卒：正面迎来，或过河后从左右横吃
+    int pawn = flag | PieceCode.PAWN;
+    if (board.getPieceCode(king - Square.forward(opponent)) == pawn) {
+      return true;
+    }
+    for (int delta = Square.LEFT; delta <= Square.RIGHT; delta += 2) {
+      int sq = king + delta;
+      if (board.getPieceCode(sq) == pawn && !Square.isOnOwnSide(sq, opponent)) {
         return true;
       }
     }
@@ -30,50 +90,154 @@ public class GameLogic {
   }
 
   /**
-   * 检查是否将死
+   * 检查格子是否受到指定阵营的攻击（不考虑攻击方走子后是否送将）
+   * 与 {@link #isInCheck(ChessBoard, int)} 一样从目标格子向外反查，另外包括将帅、士、象的攻击，但不含将帅照面
    */
-  public static boolean isCheckmate(ChessBoard board, PlayerColor color) {
-    if (!isInCheck(board, color)) {
-      return false;
+  public static boolean isSquareAttacked(ChessBoard board, int square, int bySide) {
+    int flag = PieceCode.sideFlag(bySide);
+
+    // 车、炮、相邻的将帅
+    for (int dir = 0; dir < 4; dir++) {
+      int delta = ORTHOGONAL[dir];
+      int sq = square + delta;
+      int code = board.getPieceCode(sq);
+      while (code == PieceCode.EMPTY) {
+        sq += delta;
+        code = board.getPieceCode(sq);
+      }
+      if (code == PieceCode.OFFBOARD) {
+        continue;
+      }
+      if (code == (flag | PieceCode.ROOK)) {
+        return true;
+      }
+      if (code == (flag | PieceCode.KING) && sq == square + delta && Square.isInPalace(square, bySide)) {
+        return true;
+      }
+      do {
+        sq += delta;
+        code = board.getPieceCode(sq);
+      } while (code == PieceCode.EMPTY);
+      if (code == (flag | PieceCode.CANNON)) {
+        return true;
+      }
     }
 
-    // 尝试所有可能的移动，看是否能解除将军
-    List<Move> possibleMoves = board.getAllPossibleMoves(color);
+    // 马
+    int horse = flag | PieceCode.HORSE;
+    for (int i = 0; i < 4; i++) {
+      if (board.getPieceCode(square + HORSE_LEGS[i]) != PieceCode.EMPTY) {
+        continue;
+      }
+      if (board.getPieceCode(square + HORSE_ATTACKERS[2 * i]) == horse
+          || board.getPieceCode(square + HORSE_ATTACKERS[2 * i + 1]) == horse) {
+        return true;
+      }
+    }
 
-    for (Move move : possibleMoves) {
-      // 临时执行移动
-      ChessBoard tempBoard = board.copy();
-      tempBoard.makeMove(move.getFrom(), move.getTo());
+    // 兵卒
+    int pawn = flag | PieceCode.PAWN;
+    if (board.getPieceCode(square - Square.forward(bySide)) == pawn) {
+      return true;
+    }
+    for (int delta = Square.LEFT; delta <= Square.RIGHT; delta += 2) {
+      int sq = square + delta;
+      if (board.getPieceCode(sq) == pawn && !Square.isOnOwnSide(sq, bySide)) {
+        return true;
+      }
+    }
 
-      // 检查移动后是否仍然被将军
-      if (!isInCheck(tempBoard, color)) {
-        return false; // 找到了解除将军的方法
+    // 士只在九宫内，象只在己方半场（需象眼为空）
+    if (Square.isInPalace(square, bySide)) {
+      for (int delta : DIAGONAL) {
+        if (board.getPieceCode(square + delta) == (flag | PieceCode.GUARD)) {
+          return true;
+        }
+      }
+    }
+    if (Square.isOnOwnSide(square, bySide)) {
+      for (int delta : DIAGONAL) {
+        if (board.getPieceCode(square + delta) == PieceCode.EMPTY
+            && board.getPieceCode(square + 2 * delta) == (flag | PieceCode.ELEPHANT)) {
+          return true;
+        }
       }
     }
 
-    return true; // 没有任何移动能解除将军
+    return false;
   }
 
   /**
-   * 检查是否困毙（无子可动但未被将军）
+   * 检查伪合法的打包移动是否构成"捉"
+   * 简化规则：走动的棋子（将帅、兵卒除外）走后新攻击到对方的某个棋子，该吃子合法，
+   * 且被攻击的棋子无根或价值高于攻击者；将帅和未过河的兵卒不算被捉。不考虑闪击产生的捉
    */
-  public static boolean isStalemate(ChessBoard board, PlayerColor color) {
-    if (isInCheck(board, color)) {
+  public static boolean isChasingMove(ChessBoard board, int move) {
+    int code = PackedMove.piece(move);
+    int type = PieceCode.type(code);
+    if (type == PieceCode.KING || type == PieceCode.PAWN) {
       return false;
     }
+    int from = PackedMove.from(move);
+    int to = PackedMove.to(move);
+
+    int[] before = new int[MoveGenerator.MAX_PIECE_MOVES];
+    int beforeCount = MoveGenerator.generateFrom(board, from, code, before, 0);
+    int[] after = new int[MoveGenerator.MAX_PIECE_MOVES];
+
+    board.makeMove(move);
+    boolean chase = false;
+    int afterCount = MoveGenerator.generateFrom(board, to, code, after, 0);
+    for (int i = 0; i < afterCount && !chase; i++) {
+      int victim = PackedMove.captured(after[i]);
+      if (victim == PieceCode.EMPTY || PieceCode.type(victim) == PieceCode.KING) {
+        continue;
+      }
+      int target = PackedMove.to(after[i]);
+      int victimSide = PieceCode.side(victim);
+      if (PieceCode.type(victim) == PieceCode.PAWN && Square.isOnOwnSide(target, victimSide)) {
+        continue;
+      }
+      if (attacksBefore(before, beforeCount, target) || !isLegal(board, after[i])) {
+        continue;
+      }
+      chase = CHASE_VALUES[PieceCode.type(victim)] > CHASE_VALUES[type]
+          || !isSquareAttacked(board, target, victimSide);
+    }
+    board.undoMove(move);
+    return chase;
+  }
 
-    List<Move> possibleMoves = board.getAllPossibleMoves(color);
+  private static boolean attacksBefore(int[] moves, int count, int target) {
+    for (int i = 0; i < count; i++) {
+      if (PackedMove.to(moves[i]) == target && PackedMove.isCapture(moves[i])) {
+        return true;
+      }
+    }
+    return false;
+  }
 
-    for (Move move : possibleMoves) {
-      ChessBoard tempBoard = board.copy();
-      tempBoard.makeMove(move.getFrom(), move.getTo());
+  /**
+   * 检查是否将死
+   */
+  public static boolean isCheckmate(ChessBoard board, PlayerColor color) {
+    if (!isInCheck(board, color)) {
+      return false;
+    }
 
-      if (!isInCheck(tempBoard, color)) {
-        return false; // 还有合法移动
-      }
+    // 尝试所有可能的移动，看是否能解除将军
+    return !hasLegalMove(board, PieceCode.sideOf(color));
+  }
+
+  /**
+   * 检查是否困毙（无子可动但未被将军）
+   */
+  public static boolean isStalemate(ChessBoard board, PlayerColor color) {
+    if (isInCheck(board, color)) {
+      return false;
     }
 
-    return true; // 没有合法移动
+    return !hasLegalMove(board, PieceCode.sideOf(color));
   }
 
   /**
@@ -86,43 +250,75 @@ public class GameLogic {
     }
 
     // 检查棋子本身是否可以移动到目标位置
-    if (!piece.canMoveTo(move.getTo(), board)) {
+    if (!piece.canMoveTo(move.getFrom(), move.getTo(), board)) {
       return false;
     }
 
-    // 临时执行移动
-    ChessBoard tempBoard = board.copy();
-    tempBoard.makeMove(move.getFrom(), move.getTo());
+    int from = Square.of(move.getFrom().getRow(), move.getFrom().getCol());
+    int to = Square.of(move.getTo().getRow(), move.getTo().getCol());
+    return isLegal(board, PackedMove.of(from, to, board.getPieceCode(from), board.getPieceCode(to)));
+  }
 
-    // 检查移动后是否会导致自己被将军
-    return !isInCheck(tempBoard, piece.getColor());
+  /**
+   * 检查伪合法的打包移动是否合法：原地执行、检查将军后立即撤销，不分配对象
+   */
+  public static boolean isLegal(ChessBoard board, int move) {
+    int side = PieceCode.side(PackedMove.piece(move));
+    board.makeMove(move);
+    boolean inCheck = isInCheck(board, side);
+    board.undoMove(move);
+    return !inCheck;
   }
 
   /**
    * 获取所有合法移动
    */
   public static List<Move> getLegalMoves(ChessBoard board, PlayerColor color) {
-    List<Move> allMoves = board.getAllPossibleMoves(color);
+    int[] buffer = new int[MoveGenerator.MAX_MOVES];
+    int count = MoveGenerator.generate(board, PieceCode.sideOf(color), buffer, 0);
     List<Move> legalMoves = new ArrayList<>();
 
-    for (Move move : allMoves) {
-      if (isLegalMove(board, move)) {
-        legalMoves.add(move);
+    for (int i = 0; i < count; i++) {
+      if (isLegal(board, buffer[i])) {
+        legalMoves.add(PackedMove.toMove(buffer[i], board));
       }
     }
 
     return legalMoves;
   }
 
+  /**
+   * 检查指定阵营是否还有合法移动
+   * 逐个棋子生成走法并立即检查，找到第一个合法移动即返回，无需生成全部走法
+   */
+  private static boolean hasLegalMove(ChessBoard board, int side) {
+    int[] buffer = new int[MoveGenerator.MAX_PIECE_MOVES];
+    int pieceCount = board.getPieceCount(side);
+    for (int i = 0; i < pieceCount; i++) {
+      int sq = board.getPieceSquare(side, i);
+      int count = MoveGenerator.generateFrom(board, sq, board.getPieceCode(sq), buffer, 0);
+      for (int j = 0; j < count; j++) {
+        if (isLegal(board, buffer[j])) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   /**
    * 检查游戏是否结束
+   * 一次遍历同时得到"是否被将军/是否还有合法移动/双方子力"，找到第一个合法移动即停止
    */
   public static GameStatus checkGameStatus(ChessBoard board, PlayerColor currentPlayer) {
-    if (isCheckmate(board, currentPlayer)) {
-      return (currentPlayer == PlayerColor.RED) ? GameStatus.BLACK_WIN : GameStatus.RED_WIN;
-    }
+    int side = PieceCode.sideOf(currentPlayer);
 
-    if (isStalemate(board, currentPlayer)) {
+    if (!hasLegalMove(board, side)) {
+      if (isInCheck(board, side)) {
+        // 将死
+        return (currentPlayer == PlayerColor.RED) ? GameStatus.BLACK_WIN : GameStatus.RED_WIN;
+      }
+      // 困毙
       return GameStatus.DRAW;
     }
 
@@ -138,37 +334,33 @@ public class GameLogic {
    * 检查是否只剩下将帅对峙
    */
   private static boolean isKingVsKingOnly(ChessBoard board) {
-    List<ChessPiece> redPieces = board.getPieces(PlayerColor.RED);
-    List<ChessPiece> blackPieces = board.getPieces(PlayerColor.BLACK);
+    return isBareKing(board, PieceCode.SIDE_RED) && isBareKing(board, PieceCode.SIDE_BLACK);
+  }
 
-    return redPieces.size() == 1 && blackPieces.size() == 1 &&
-        redPieces.get(0).getType() == PieceType.KING &&
-        blackPieces.get(0).getType() == PieceType.KING;
+  private static boolean isBareKing(ChessBoard board, int side) {
+    return board.getPieceCount(side) == 1
+        && PieceCode.type(board.getPieceCode(board.getPieceSquare(side, 0))) == PieceCode.KING;
   }
 
   /**
    * 检查将帅是否照面（同一列且中间无子）
    */
   public static boolean areKingsFacing(ChessBoard board) {
-    ChessPiece redKing = board.getKing(PlayerColor.RED);
-    ChessPiece blackKing = board.getKing(PlayerColor.BLACK);
+    int redKing = board.getKingSquare(PieceCode.SIDE_RED);
+    int blackKing = board.getKingSquare(PieceCode.SIDE_BLACK);
 
-    if (redKing == null || blackKing == null) {
+    if (redKing < 0 || blackKing < 0) {
       return false;
     }
 
     // 必须在同一列
-    if (redKing.getPosition().getCol() != blackKing.getPosition().getCol()) {
+    if (Square.col(redKing) != Square.col(blackKing)) {
       return false;
     }
 
     // 检查中间是否有其他棋子
-    int col = redKing.getPosition().getCol();
-    int startRow = Math.min(redKing.getPosition().getRow(), blackKing.getPosition().getRow()) + 1;
-    int endRow = Math.max(redKing.getPosition().getRow(), blackKing.getPosition().getRow()) - 1;
-
-    for (int row = startRow; row <= endRow; row++) {
-      if (board.getPieceAt(new Position(row, col)) != null) {
+    for (int sq = blackKing + Square.DOWN; sq != redKing; sq += Square.DOWN) {
+      if (board.getPieceCode(sq) != PieceCode.EMPTY) {
         return false;
       }
     }
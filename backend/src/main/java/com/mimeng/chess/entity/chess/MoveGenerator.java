@@ -0,0 +1,183 @@
+package com.mimeng.chess.entity.chess;
+
+/**
+ * 伪合法走法生成器
+ * 走法以 {@link PackedMove} 整数写入调用方提供的缓冲区，生成过程不分配任何对象
+ * 车、炮沿直线扫描，其余棋子查 {@link MoveTables}
+ */
+public final class MoveGenerator {
+  /**
+   * 单个棋子最多的走法数（车/炮在空旷棋盘上为17）
+   */
+  public static final int MAX_PIECE_MOVES = 17;
+
+  /**
+   * 一方最多的伪合法走法数，可作为缓冲区长度
+   */
+  public static final int MAX_MOVES = 16 * MAX_PIECE_MOVES;
+
+  /**
+   * 只生成吃子走法
+   */
+  public static final int CAPTURES = 1;
+  /**
+   * 只生成不吃子的走法
+   */
+  public static final int QUIETS = 2;
+  /**
+   * 生成全部走法
+   */
+  public static final int ALL = CAPTURES | QUIETS;
+
+  private static final int[] ORTHOGONAL = { Square.UP, Square.DOWN, Square.LEFT, Square.RIGHT };
+
+  private MoveGenerator() {
+  }
+
+  /**
+   * 生成指定阵营的全部伪合法走法
+   *
+   * @param board 当前棋盘
+   * @param side  阵营下标（见 {@link PieceCode#SIDE_RED}）
+   * @param moves 走法缓冲区
+   * @param start 写入起始下标
+   * @return 写入结束后的下标
+   */
+  public static int generate(ChessBoard board, int side, int[] moves, int start) {
+    return generate(board, side, ALL, moves, start);
+  }
+
+  /**
+   * 按类别生成指定阵营的伪合法走法，用于分阶段取走法（先吃子、后不吃子）
+   *
+   * @param kinds {@link #CAPTURES}、{@link #QUIETS} 或 {@link #ALL}
+   * @return 写入结束后的下标
+   */
+  public static int generate(ChessBoard board, int side, int kinds, int[] moves, int start) {
+    int end = start;
+    int count = board.getPieceCount(side);
+    for (int i = 0; i < count; i++) {
+      int sq = board.getPieceSquare(side, i);
+      end = generateFrom(board, sq, board.getPieceCode(sq), kinds, moves, end);
+    }
+    return end;
+  }
+
+  /**
+   * 生成位于指定格子的棋子的伪合法走法
+   *
+   * @param code 棋子编码（通常即该格子上的棋子）
+   * @return 写入结束后的下标
+   */
+  public static int generateFrom(ChessBoard board, int sq, int code, int[] moves, int start) {
+    return generateFrom(board, sq, code, ALL, moves, start);
+  }
+
+  /**
+   * 按类别生成位于指定格子的棋子的伪合法走法
+   *
+   * @param kinds {@link #CAPTURES}、{@link #QUIETS} 或 {@link #ALL}
+   * @return 写入结束后的下标
+   */
+  public static int generateFrom(ChessBoard board, int sq, int code, int kinds, int[] moves, int start) {
+    int side = PieceCode.side(code);
+    int own = PieceCode.sideFlag(side) | PieceCode.OFFBOARD;
+    boolean quiets = (kinds & QUIETS) != 0;
+    boolean captures = (kinds & CAPTURES) != 0;
+    int end = start;
+
+    switch (PieceCode.type(code)) {
+      case PieceCode.KING:
+        end = generateSteps(board, sq, code, own, kinds, MoveTables.kingMoves(side, sq), moves, end);
+        break;
+      case PieceCode.GUARD:
+        end = generateSteps(board, sq, code, own, kinds, MoveTables.guardMoves(side, sq), moves, end);
+        break;
+      case PieceCode.ELEPHANT:
+        end = generateBlockable(board, sq, code, own, kinds, MoveTables.elephantMoves(side, sq),
+            MoveTables.elephantEyes(side, sq), moves, end);
+        break;
+      case PieceCode.HORSE:
+        end = generateBlockable(board, sq, code, own, kinds, MoveTables.horseMoves(sq),
+            MoveTables.horseLegs(sq), moves, end);
+        break;
+      case PieceCode.ROOK:
+        for (int delta : ORTHOGONAL) {
+          int to = sq + delta;
+          int target = board.getPieceCode(to);
+          while (target == PieceCode.EMPTY) {
+            if (quiets) {
+              moves[end++] = PackedMove.of(sq, to, code, PieceCode.EMPTY);
+            }
+            to += delta;
+            target = board.getPieceCode(to);
+          }
+          if (captures && (target & own) == 0) {
+            moves[end++] = PackedMove.of(sq, to, code, target);
+          }
+        }
+        break;
+      case PieceCode.CANNON:
+        for (int delta : ORTHOGONAL) {
+          int to = sq + delta;
+          int target = board.getPieceCode(to);
+          while (target == PieceCode.EMPTY) {
+            if (quiets) {
+              moves[end++] = PackedMove.of(sq, to, code, PieceCode.EMPTY);
+            }
+            to += delta;
+            target = board.getPieceCode(to);
+          }
+          if (target == PieceCode.OFFBOARD || !captures) {
+            continue;
+          }
+          // 越过炮台寻找第一个棋子
+          do {
+            to += delta;
+            target = board.getPieceCode(to);
+          } while (target == PieceCode.EMPTY);
+          if ((target & own) == 0) {
+            moves[end++] = PackedMove.of(sq, to, code, target);
+          }
+        }
+        break;
+      case PieceCode.PAWN:
+        end = generateSteps(board, sq, code, own, kinds, MoveTables.pawnMoves(side, sq), moves, end);
+        break;
+      default:
+        break;
+    }
+    return end;
+  }
+
+  /**
+   * 按落点表生成一步走法（将帅、士、兵卒）
+   */
+  private static int generateSteps(ChessBoard board, int sq, int code, int own, int kinds, int[] targets,
+      int[] moves, int end) {
+    for (int to : targets) {
+      int target = board.getPieceCode(to);
+      if ((target & own) == 0 && (kinds & (target == PieceCode.EMPTY ? QUIETS : CAPTURES)) != 0) {
+        moves[end++] = PackedMove.of(sq, to, code, target);
+      }
+    }
+    return end;
+  }
+
+  /**
+   * 按落点表生成可被蹩住的走法（马腿、象眼）
+   */
+  private static int generateBlockable(ChessBoard board, int sq, int code, int own, int kinds, int[] targets,
+      int[] blockers, int[] moves, int end) {
+    for (int i = 0; i < targets.length; i++) {
+      if (board.getPieceCode(blockers[i]) != PieceCode.EMPTY) {
+        continue;
+      }
+      int target = board.getPieceCode(targets[i]);
+      if ((target & own) == 0 && (kinds & (target == PieceCode.EMPTY ? QUIETS : CAPTURES)) != 0) {
+        moves[end++] = PackedMove.of(sq, targets[i], code, target);
+      }
+    }
+    return end;
+  }
+}
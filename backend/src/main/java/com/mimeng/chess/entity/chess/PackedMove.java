@@ -0,0 +1,52 @@
+package com.mimeng.chess.entity.chess;
+
+/**
+ * 整数打包的移动表示
+ * 低到高每8位依次为：起始格子、目标格子、移动的棋子编码、被吃的棋子编码（无则为0）
+ */
+public final class PackedMove {
+  public static final int NONE = 0; // 空移动
+
+  private PackedMove() {
+  }
+
+  public static int of(int from, int to, int piece, int captured) {
+    return from | (to << 8) | (piece << 16) | (captured << 24);
+  }
+
+  public static int from(int move) {
+    return move & 0xFF;
+  }
+
+  public static int to(int move) {
+    return (move >>> 8) & 0xFF;
+  }
+
+  public static int piece(int move) {
+    return (move >>> 16) & 0xFF;
+  }
+
+  public static int captured(int move) {
+    return move >>> 24;
+  }
+
+  public static boolean isCapture(int move) {
+    return captured(move) != PieceCode.EMPTY;
+  }
+
+  /**
+   * 转换为 Move 对象（需在移动执行前调用，以便取得被吃的棋子）
+   */
+  public static Move toMove(int move, ChessBoard board) {
+    int from = from(move);
+    int to = to(move);
+    return new Move(Position.of(Square.row(from), Square.col(from)), Position.of(Square.row(to), Square.col(to)),
+        board.getPieceAt(Square.row(from), Square.col(from)), board.getPieceAt(Square.row(to), Square.col(to)));
+  }
+
+  public static String toString(int move) {
+    int from = from(move);
+    int to = to(move);
+    return "(" + Square.row(from) + "," + Square.col(from) + ")->(" + Square.row(to) + "," + Square.col(to) + ")";
+  }
+}
@@ -0,0 +1,40 @@
+package com.mimeng.chess.entity.chess;
+
+/**
+ * Perft：统计指定深度内全部合法走法序列的叶子节点数，用于校验走法生成和衡量其性能
+ * 每层使用预先分配的走法缓冲区，遍历过程中不分配对象
+ */
+public final class Perft {
+  private Perft() {
+  }
+
+  /**
+   * 从当前走棋方开始统计指定深度的叶子节点数
+   */
+  public static long perft(ChessBoard board, int depth) {
+    if (depth <= 0) {
+      return 1;
+    }
+    return perft(board, depth, new int[depth][MoveGenerator.MAX_MOVES]);
+  }
+
+  private static long perft(ChessBoard board, int depth, int[][] buffers) {
+    int[] moves = buffers[depth - 1];
+    int count = MoveGenerator.generate(board, board.getSideToMove(), moves, 0);
+    long nodes = 0;
+    for (int i = 0; i < count; i++) {
+      int move = moves[i];
+      if (!GameLogic.isLegal(board, move)) {
+        continue;
+      }
+      if (depth == 1) {
+        nodes++;
+      } else {
+        board.makeMove(move);
+        nodes += perft(board, depth - 1, buffers);
+        board.undoMove(move);
+      }
+    }
+    return nodes;
+  }
+}
@@ -0,0 +1,110 @@
+package com.mimeng.chess.entity.chess;
+
+/**
+ * 棋子整数编码工具类
+ * 编码 = 阵营标志位 | 棋子类型，红方为8-15，黑方为16-23，0为空位，32为棋盘外
+ */
+public final class PieceCode {
+  public static final int EMPTY = 0; // 空位
+  public static final int OFFBOARD = 32; // 棋盘外（边界哨兵）
+
+  // 棋子类型，与 PieceType 的声明顺序一致
+  public static final int KING = 1;
+  public static final int GUARD = 2;
+  public static final int ELEPHANT = 3;
+  public static final int HORSE = 4;
+  public static final int ROOK = 5;
+  public static final int CANNON = 6;
+  public static final int PAWN = 7;
+
+  public static final int RED = 8; // 红方标志位
+  public static final int BLACK = 16; // 黑方标志位
+
+  public static final int SIDE_RED = 0; // 红方下标
+  public static final int SIDE_BLACK = 1; // 黑方下标
+
+  public static final int COUNT = 24; // 编码取值上限，可直接作为数组长度
+
+  private static final int TYPE_MASK = 7;
+  private static final PieceType[] TYPES = PieceType.values();
+
+  private PieceCode() {
+  }
+
+  /**
+   * 由棋子类型和颜色得到编码
+   */
+  public static int of(PieceType type, PlayerColor color) {
+    return sideFlag(sideOf(color)) | (type.ordinal() + 1);
+  }
+
+  /**
+   * 由棋子对象得到编码
+   */
+  public static int of(ChessPiece piece) {
+    return piece == null ? EMPTY : of(piece.getType(), piece.getColor());
+  }
+
+  /**
+   * 棋子类型 (1-7)
+   */
+  public static int type(int code) {
+    return code & TYPE_MASK;
+  }
+
+  /**
+   * 棋子类型枚举
+   */
+  public static PieceType pieceType(int code) {
+    return TYPES[type(code) - 1];
+  }
+
+  /**
+   * 棋子所属阵营下标（0红 1黑），仅对棋子编码有效
+   */
+  public static int side(int code) {
+    return code >> 4;
+  }
+
+  /**
+   * 棋子颜色
+   */
+  public static PlayerColor color(int code) {
+    return side(code) == SIDE_RED ? PlayerColor.RED : PlayerColor.BLACK;
+  }
+
+  /**
+   * 检查编码是否属于指定阵营
+   */
+  public static boolean isSide(int code, int side) {
+    return (code & sideFlag(side)) != 0;
+  }
+
+  /**
+   * 检查编码是否为棋子（非空位、非棋盘外）
+   */
+  public static boolean isPiece(int code) {
+    return (code & (RED | BLACK)) != 0;
+  }
+
+  /**
+   * 阵营标志位
+   */
+  public static int sideFlag(int side) {
+    return RED << side;
+  }
+
+  /**
+   * 颜色对应的阵营下标
+   */
+  public static int sideOf(PlayerColor color) {
+    return color == PlayerColor.RED ? SIDE_RED : SIDE_BLACK;
+  }
+
+  /**
+   * 阵营下标对应的颜色
+   */
+  public static PlayerColor colorOf(int side) {
+    return side == SIDE_RED ? PlayerColor.RED : PlayerColor.BLACK;
+  }
+}
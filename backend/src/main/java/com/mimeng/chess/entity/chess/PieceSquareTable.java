@@ -0,0 +1,105 @@
+package com.mimeng.chess.entity.chess;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * 子力价值与位置分表
+ * 每种棋子在每个格子上的分值（子力价值 + 位置分），由棋盘在走子/撤销时增量累加（见 {@link ChessBoard#getPieceSquareScore}），
+ * 评估时直接取双方的累计值。参数在类加载时从 classpath 的 {@code chess/evaluation.properties} 读取，
+ * 调参时可用系统属性 {@code chess.evaluation} 指定其他文件
+ */
+public final class PieceSquareTable {
+  /**
+   * 默认参数文件（classpath 资源）
+   */
+  public static final String RESOURCE = "chess/evaluation.properties";
+  /**
+   * 指定参数文件路径的系统属性
+   */
+  public static final String PROPERTY = "chess.evaluation";
+
+  private static final int[] PIECE_VALUES = new int[8]; // 下标为棋子类型
+  private static final int[] SCORES = new int[PieceCode.COUNT * Square.SIZE]; // 编码 << 8 | 格子
+
+  static {
+    Properties properties = load();
+    for (PieceType type : PieceType.values()) {
+      String name = type.name().toLowerCase();
+      int code = type.ordinal() + 1;
+      PIECE_VALUES[code] = Integer.parseInt(required(properties, "value." + name).trim());
+      String[] cells = required(properties, "pst." + name).trim().split("\\s+");
+      if (cells.length != 90) {
+        throw new IllegalStateException("位置分表 pst." + name + " 应有 90 个数，实际 " + cells.length);
+      }
+      for (int row = 0; row < 10; row++) {
+        for (int col = 0; col < 9; col++) {
+          int score = PIECE_VALUES[code] + Integer.parseInt(cells[row * 9 + col]);
+          SCORES[(PieceCode.RED | code) << 8 | Square.of(row, col)] = score;
+          SCORES[(PieceCode.BLACK | code) << 8 | Square.of(9 - row, col)] = score;
+        }
+      }
+    }
+  }
+
+  private PieceSquareTable() {
+  }
+
+  /**
+   * 棋子位于某格子的分值（子力价值 + 位置分）
+   */
+  public static int score(int code, int square) {
+    return SCORES[code << 8 | square];
+  }
+
+  /**
+   * 棋子类型的子力价值
+   */
+  public static int pieceValue(int type) {
+    return PIECE_VALUES[type];
+  }
+
+  /**
+   * 从头计算一方的累计分值
+   */
+  public static int compute(ChessBoard board, int side) {
+    int score = 0;
+    int count = board.getPieceCount(side);
+    for (int i = 0; i < count; i++) {
+      int sq = board.getPieceSquare(side, i);
+      score += score(board.getPieceCode(sq), sq);
+    }
+    return score;
+  }
+
+  private static Properties load() {
+    Properties properties = new Properties();
+    String file = System.getProperty(PROPERTY);
+    try (InputStream in = file != null ? Files.newInputStream(Path.of(file))
+        : PieceSquareTable.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+      if (in == null) {
+        throw new IllegalStateException("找不到评估参数文件: " + RESOURCE);
+      }
+      try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+        properties.load(reader);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("读取评估参数文件失败: " + (file != null ? file : RESOURCE), e);
+    }
+    return properties;
+  }
+
+  private static String required(Properties properties, String key) {
+    String value = properties.getProperty(key);
+    if (value == null) {
+      throw new IllegalStateException("评估参数缺少 " + key);
+    }
+    return value;
+  }
+}
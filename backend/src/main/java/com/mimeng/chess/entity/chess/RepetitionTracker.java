@@ -0,0 +1,271 @@
+package com.mimeng.chess.entity.chess;
+
+import java.util.Arrays;
+
+/**
+ * 重复局面跟踪器 - 负责长将、长捉、重复局面和自然限着的判定
+ * 每一步只记录局面哈希键和几个标志位；相同键的历史通过"散列桶链 + 同键链"串起来，
+ * 入栈、出栈和重复次数查询均为均摊 O(1)
+ */
+public class RepetitionTracker {
+  /**
+   * 同一局面出现的次数达到该值时进行裁决
+   */
+  public static final int REPETITION_LIMIT = 3;
+
+  /**
+   * 自然限着：双方各走60步（120个半回合）未吃子判和
+   */
+  public static final int NATURAL_MOVE_LIMIT = 120;
+
+  private static final int BUCKETS = 1024; // 必须是2的幂
+  private static final int INITIAL_CAPACITY = 256;
+
+  private static final byte FLAG_BLACK = 1; // 该步由黑方走出
+  private static final byte FLAG_CAPTURE = 2;
+  private static final byte FLAG_CHECK = 4;
+  private static final byte FLAG_CHASE = 8;
+
+  /**
+   * 裁决结果
+   */
+  public enum Ruling {
+    NONE(GameStatus.PLAYING, null),
+    REPETITION_DRAW(GameStatus.DRAW, "重复局面，判和"),
+    RED_PERPETUAL_CHECK(GameStatus.BLACK_WIN, "红方长将，判负"),
+    BLACK_PERPETUAL_CHECK(GameStatus.RED_WIN, "黑方长将，判负"),
+    RED_PERPETUAL_CHASE(GameStatus.BLACK_WIN, "红方长捉，判负"),
+    BLACK_PERPETUAL_CHASE(GameStatus.RED_WIN, "黑方长捉，判负"),
+    NATURAL_MOVE_LIMIT(GameStatus.DRAW, "六十回合未吃子，判和");
+
+    private final GameStatus status;
+    private final String description;
+
+    Ruling(GameStatus status, String description) {
+      this.status = status;
+      this.description = description;
+    }
+
+    public GameStatus getStatus() {
+      return status;
+    }
+
+    public String getDescription() {
+      return description;
+    }
+  }
+
+  private long[] keys; // 每一步之后的局面键，下标0为初始局面
+  private byte[] flags; // 走出该局面的那一步的标志位
+  private int[] sameKeyPrev; // 上一次出现相同局面的下标，没有则为-1
+  private int[] repeats; // 该局面到此为止出现的次数
+  private int[] bucketPrev; // 同一散列桶中的上一个下标
+  private int[] lastCaptures; // 到此为止最近一次吃子的下标
+  private final int[] bucketHeads = new int[BUCKETS];
+  private int size;
+
+  public RepetitionTracker(long initialKey) {
+    keys = new long[INITIAL_CAPACITY];
+    flags = new byte[INITIAL_CAPACITY];
+    sameKeyPrev = new int[INITIAL_CAPACITY];
+    repeats = new int[INITIAL_CAPACITY];
+    bucketPrev = new int[INITIAL_CAPACITY];
+    lastCaptures = new int[INITIAL_CAPACITY];
+    reset(initialKey);
+  }
+
+  private RepetitionTracker(RepetitionTracker other) {
+    keys = other.keys.clone();
+    flags = other.flags.clone();
+    sameKeyPrev = other.sameKeyPrev.clone();
+    repeats = other.repeats.clone();
+    bucketPrev = other.bucketPrev.clone();
+    lastCaptures = other.lastCaptures.clone();
+    System.arraycopy(other.bucketHeads, 0, bucketHeads, 0, BUCKETS);
+    size = other.size;
+  }
+
+  /**
+   * 复制当前历史（供其他线程中的搜索只读使用）
+   */
+  public RepetitionTracker copy() {
+    return new RepetitionTracker(this);
+  }
+
+  /**
+   * 清空历史，从指定局面重新开始
+   */
+  public void reset(long initialKey) {
+    Arrays.fill(bucketHeads, -1);
+    size = 0;
+    append(initialKey, (byte) 0);
+  }
+
+  /**
+   * 记录一步棋走完后的局面
+   *
+   * @param key     走完后的局面键
+   * @param side    走棋方
+   * @param capture 是否吃子
+   * @param check   是否将军
+   * @param chase   是否捉子（见 {@link GameLogic#isChasingMove}）
+   */
+  public void push(long key, int side, boolean capture, boolean check, boolean chase) {
+    byte flag = 0;
+    if (side == PieceCode.SIDE_BLACK) {
+      flag |= FLAG_BLACK;
+    }
+    if (capture) {
+      flag |= FLAG_CAPTURE;
+    }
+    if (check) {
+      flag |= FLAG_CHECK;
+    }
+    if (chase) {
+      flag |= FLAG_CHASE;
+    }
+    append(key, flag);
+  }
+
+  /**
+   * 撤销最近一步的记录（悔棋时调用）
+   */
+  public void pop() {
+    if (size <= 1) {
+      throw new IllegalStateException("没有可撤销的记录");
+    }
+    int index = --size;
+    bucketHeads[bucket(keys[index])] = bucketPrev[index];
+  }
+
+  /**
+   * 已记录的步数（不含初始局面）
+   */
+  public int getPlyCount() {
+    return size - 1;
+  }
+
+  /**
+   * 当前局面到目前为止出现的次数（含本次）
+   */
+  public int getRepetitionCount() {
+    return repeats[size - 1];
+  }
+
+  /**
+   * 距离最近一次吃子（或开局）经过的步数
+   */
+  public int getPliesSinceCapture() {
+    return size - 1 - lastCaptures[size - 1];
+  }
+
+  /**
+   * 指定局面自最近一次吃子以来是否出现过
+   */
+  public boolean contains(long key) {
+    return findLatest(key, size) >= 0;
+  }
+
+  /**
+   * 对当前局面进行裁决
+   * 局面第三次出现时，检查两次出现之间的循环：只有一方每步都在将军则该方判负；
+   * 双方都不长将时，只有一方每步都在将军或捉子（且至少捉一次）则该方判负；其余情况判和
+   */
+  public Ruling adjudicate() {
+    int current = size - 1;
+    if (repeats[current] >= REPETITION_LIMIT) {
+      return judgeCycle(sameKeyPrev[current] + 1, current);
+    }
+    if (getPliesSinceCapture() >= NATURAL_MOVE_LIMIT) {
+      return Ruling.NATURAL_MOVE_LIMIT;
+    }
+    return Ruling.NONE;
+  }
+
+  private Ruling judgeCycle(int first, int last) {
+    // 下标0为红方、1为黑方
+    boolean[] allCheck = { true, true };
+    boolean[] allChaseOrCheck = { true, true };
+    boolean[] anyChase = { false, false };
+    boolean[] moved = { false, false };
+
+    for (int i = first; i <= last; i++) {
+      byte flag = flags[i];
+      int side = (flag & FLAG_BLACK) != 0 ? PieceCode.SIDE_BLACK : PieceCode.SIDE_RED;
+      boolean check = (flag & FLAG_CHECK) != 0;
+      boolean chase = (flag & FLAG_CHASE) != 0;
+      moved[side] = true;
+      allCheck[side] &= check;
+      allChaseOrCheck[side] &= check || chase;
+      anyChase[side] |= chase;
+    }
+
+    boolean redCheck = moved[PieceCode.SIDE_RED] && allCheck[PieceCode.SIDE_RED];
+    boolean blackCheck = moved[PieceCode.SIDE_BLACK] && allCheck[PieceCode.SIDE_BLACK];
+    if (redCheck != blackCheck) {
+      return redCheck ? Ruling.RED_PERPETUAL_CHECK : Ruling.BLACK_PERPETUAL_CHECK;
+    }
+    if (redCheck) {
+      return Ruling.REPETITION_DRAW;
+    }
+
+    boolean redChase = moved[PieceCode.SIDE_RED] && allChaseOrCheck[PieceCode.SIDE_RED]
+        && anyChase[PieceCode.SIDE_RED];
+    boolean blackChase = moved[PieceCode.SIDE_BLACK] && allChaseOrCheck[PieceCode.SIDE_BLACK]
+        && anyChase[PieceCode.SIDE_BLACK];
+    if (redChase != blackChase) {
+      return redChase ? Ruling.RED_PERPETUAL_CHASE : Ruling.BLACK_PERPETUAL_CHASE;
+    }
+    return Ruling.REPETITION_DRAW;
+  }
+
+  private void append(long key, byte flag) {
+    if (size == keys.length) {
+      grow();
+    }
+    int index = size++;
+    int previous = index > 0 && (flag & FLAG_CAPTURE) == 0 ? findLatest(key, index) : -1;
+    int b = bucket(key);
+
+    keys[index] = key;
+    flags[index] = flag;
+    sameKeyPrev[index] = previous;
+    repeats[index] = previous >= 0 ? repeats[previous] + 1 : 1;
+    bucketPrev[index] = bucketHeads[b];
+    bucketHeads[b] = index;
+    if ((flag & FLAG_CAPTURE) != 0 || index == 0) {
+      lastCaptures[index] = index;
+    } else {
+      lastCaptures[index] = lastCaptures[index - 1];
+    }
+  }
+
+  /**
+   * 在最近一次吃子之后的历史中查找相同局面（吃子之前的局面子力不同，不可能重复）
+   *
+   * @param limit 当前记录数，最近一次吃子的位置取自 limit - 1
+   */
+  private int findLatest(long key, int limit) {
+    int floor = lastCaptures[limit - 1];
+    for (int i = bucketHeads[bucket(key)]; i >= floor; i = bucketPrev[i]) {
+      if (keys[i] == key) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static int bucket(long key) {
+    return (int) (key ^ (key >>> 32)) & (BUCKETS - 1);
+  }
+
+  private void grow() {
+    int capacity = keys.length * 2;
+    keys = Arrays.copyOf(keys, capacity);
+    flags = Arrays.copyOf(flags, capacity);
+    sameKeyPrev = Arrays.copyOf(sameKeyPrev, capacity);
+    repeats = Arrays.copyOf(repeats, capacity);
+    bucketPrev = Arrays.copyOf(bucketPrev, capacity);
+    lastCaptures = Arrays.copyOf(lastCaptures, capacity);
+  }
+}
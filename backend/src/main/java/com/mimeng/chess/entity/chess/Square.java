@@ -0,0 +1,80 @@
+package com.mimeng.chess.entity.chess;
+
+/**
+ * 棋盘格子编号工具类
+ * 棋盘使用16x16的一维带边框数组表示（类似0x88布局），
+ * 实际棋盘位于第3-12行、第3-11列，其余格子为边界哨兵
+ */
+public final class Square {
+  public static final int SIZE = 256; // 一维数组长度
+
+  public static final int UP = -16; // 向上（行数减少）
+  public static final int DOWN = 16; // 向下（行数增加）
+  public static final int LEFT = -1; // 向左
+  public static final int RIGHT = 1; // 向右
+
+  private static final int ROW_OFFSET = 3;
+  private static final int COL_OFFSET = 3;
+
+  private static final boolean[] ON_BOARD = new boolean[SIZE];
+
+  static {
+    for (int row = 0; row < 10; row++) {
+      for (int col = 0; col < 9; col++) {
+        ON_BOARD[of(row, col)] = true;
+      }
+    }
+  }
+
+  private Square() {
+  }
+
+  /**
+   * 由行列坐标计算格子编号（调用方需保证坐标合法）
+   */
+  public static int of(int row, int col) {
+    return ((row + ROW_OFFSET) << 4) | (col + COL_OFFSET);
+  }
+
+  /**
+   * 格子所在行 (0-9)
+   */
+  public static int row(int square) {
+    return (square >> 4) - ROW_OFFSET;
+  }
+
+  /**
+   * 格子所在列 (0-8)
+   */
+  public static int col(int square) {
+    return (square & 15) - COL_OFFSET;
+  }
+
+  /**
+   * 检查格子是否在棋盘范围内
+   */
+  public static boolean isOnBoard(int square) {
+    return square >= 0 && square < SIZE && ON_BOARD[square];
+  }
+
+  /**
+   * 检查格子是否在指定阵营的九宫格内
+   */
+  public static boolean isInPalace(int square, int side) {
+    return MoveTables.isInPalace(square, side);
+  }
+
+  /**
+   * 检查格子是否在指定阵营的己方半场（未过河）
+   */
+  public static boolean isOnOwnSide(int square, int side) {
+    return MoveTables.isOnOwnSide(square, side);
+  }
+
+  /**
+   * 指定阵营兵卒的前进方向
+   */
+  public static int forward(int side) {
+    return side == PieceCode.SIDE_RED ? UP : DOWN;
+  }
+}
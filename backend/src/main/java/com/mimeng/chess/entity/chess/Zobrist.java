@@ -0,0 +1,68 @@
+package com.mimeng.chess.entity.chess;
+
+/**
+ * Zobrist 哈希键表
+ * 使用固定种子生成，保证不同进程、不同机器上同一局面的键一致（开局库、残局库等文件依赖这一点）
+ */
+public final class Zobrist {
+  private static final long SEED = 0x9E3779B97F4A7C15L;
+
+  private static final long[][] PIECE_KEYS = new long[PieceCode.COUNT][Square.SIZE];
+  private static final long SIDE_KEY; // 黑方走棋时异或
+
+  static {
+    long state = SEED;
+    for (int code = 0; code < PieceCode.COUNT; code++) {
+      for (int sq = 0; sq < Square.SIZE; sq++) {
+        state += SEED;
+        PIECE_KEYS[code][sq] = mix(state);
+      }
+    }
+    state += SEED;
+    SIDE_KEY = mix(state);
+  }
+
+  private Zobrist() {
+  }
+
+  /**
+   * 棋子位于某格子的键
+   */
+  public static long piece(int code, int square) {
+    return PIECE_KEYS[code][square];
+  }
+
+  /**
+   * 走棋方的键（黑方走棋时计入）
+   */
+  public static long side() {
+    return SIDE_KEY;
+  }
+
+  /**
+   * 从头计算棋盘的哈希键
+   */
+  public static long compute(ChessBoard board) {
+    long key = 0;
+    for (int side = 0; side < 2; side++) {
+      int count = board.getPieceCount(side);
+      for (int i = 0; i < count; i++) {
+        int sq = board.getPieceSquare(side, i);
+        key ^= PIECE_KEYS[board.getPieceCode(sq)][sq];
+      }
+    }
+    if (board.getSideToMove() == PieceCode.SIDE_BLACK) {
+      key ^= SIDE_KEY;
+    }
+    return key;
+  }
+
+  /**
+   * SplitMix64 混合函数
+   */
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
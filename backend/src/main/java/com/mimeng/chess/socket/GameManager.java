@@ -1,5 +1,9 @@
 package com.mimeng.chess.socket;
 
+import com.mimeng.chess.engine.AiSearchExecutor;
+import com.mimeng.chess.engine.Ponder;
+import com.mimeng.chess.engine.SearchResult;
+import com.mimeng.chess.engine.tablebase.Tablebases;
 import com.mimeng.chess.entity.chess.*;
 import com.mimeng.chess.service.RoomService;
 import com.mimeng.chess.entity.Room;
@@ -10,6 +14,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.Map;
 
 /**
@@ -26,9 +31,18 @@ public class GameManager {
   @Autowired
   private StringRedisTemplate redisTemplate;
 
+  @Autowired
+  private AiSearchExecutor aiSearchExecutor;
+
+  @Autowired
+  private Tablebases tablebases;
+
   // 存储活跃的游戏房间 roomId -> ChessRoom
   private final Map<String, ChessRoom> activeRooms = new ConcurrentHashMap<>();
 
+  // AI 走子后在对手思考期间的后台思考 roomId -> Ponder
+  private final Map<String, Ponder> ponders = new ConcurrentHashMap<>();
+
   /**
    * 获取或创建游戏房间
    */
@@ -92,6 +106,7 @@ public class GameManager {
    * 移除房间
    */
   public void removeRoom(String roomId) {
+    stopPonder(roomId);
     activeRooms.remove(roomId);
     logger.info("Removed room {} from active rooms", roomId);
   }
@@ -410,7 +425,212 @@ public class GameManager {
       return false;
     }
 
-    return room.playerMove(userId, from, to);
+    synchronized (room) {
+      boolean moved = room.playerMove(userId, from, to);
+      if (moved) {
+        adjudicateEndgame(roomId, room);
+      }
+      return moved;
+    }
+  }
+
+  /**
+   * 走子后查询残局库：库内和棋立即判和，自然限着内能杀棋的局面立即判胜，调用方需持有房间锁
+   */
+  private void adjudicateEndgame(String roomId, ChessRoom room) {
+    ChessGameState gameState = room.getGameState();
+    if (gameState.getStatus() != GameStatus.PLAYING) {
+      return;
+    }
+    GameStatus result = tablebases.adjudicate(gameState.getBoard(),
+        gameState.getRepetition().getPliesSinceCapture());
+    if (result != GameStatus.PLAYING) {
+      gameState.adjudicate(result, "残局库裁决");
+      logger.info("Endgame adjudicated by tablebase in room {}: {}", roomId, result);
+    }
+  }
+
+  /**
+   * 如果轮到AI走棋，把当前局面的快照提交给AI线程池异步搜索，不阻塞调用线程
+   * 对手走出了后台思考预测的应着时，后台思考转为这一步的搜索，从此刻起按正常的单步用时继续（已被抢占时仍正常搜索）。
+   * 搜索完成后，只有对局仍停留在提交时的局面才会执行走法（期间悔棋、投降等会使结果作废），并回调 onMoved；
+   * 走子后如果轮到人类玩家，再按主变例预测其应着并启动后台思考
+   *
+   * @return 是否提交了搜索
+   */
+  public boolean requestAiMove(String roomId, Consumer<Move> onMoved) {
+    ChessRoom room = activeRooms.get(roomId);
+    if (room == null) {
+      return false;
+    }
+
+    ChessBoard board;
+    RepetitionTracker history;
+    Player player;
+    long key;
+    long clockMillis;
+    synchronized (room) {
+      ChessGameState gameState = room.getGameState();
+      if (gameState == null) {
+        return false;
+      }
+      player = gameState.getCurrentPlayerInfo();
+      if (gameState.getStatus() != GameStatus.PLAYING || player == null || !player.isAI()) {
+        return false;
+      }
+      key = gameState.getBoard().getZobristKey();
+      board = gameState.getBoard().copy();
+      board.setSideToMove(PieceCode.sideOf(gameState.getCurrentPlayer()));
+      history = gameState.getRepetition().copy();
+      int timeLeft = gameState.getCurrentPlayer() == PlayerColor.RED ? gameState.getRedTimeLeft()
+          : gameState.getBlackTimeLeft();
+      clockMillis = gameState.isUseTimer() ? timeLeft * 1000L : 0;
+    }
+
+    AiTurn turn = new AiTurn(roomId, room, player, board, history, clockMillis, key, onMoved);
+    Ponder ponder = ponders.remove(roomId);
+    if (ponder != null && ponder.matches(board)) {
+      aiSearchExecutor.ponderHit(ponder, player.getType(), clockMillis).whenComplete((result, error) -> {
+        if (result != null) {
+          logger.info("Ponder hit in room {}", roomId);
+          onAiSearchDone(turn, result, null);
+        } else {
+          submitAiSearch(turn);
+        }
+      });
+      return true;
+    }
+    if (ponder != null) {
+      ponder.stop();
+    }
+    submitAiSearch(turn);
+    return true;
+  }
+
+  /**
+   * 一次轮到AI走棋时的局面快照和回调
+   */
+  private static final class AiTurn {
+    private final String roomId;
+    private final ChessRoom room;
+    private final Player player;
+    private final ChessBoard board;
+    private final RepetitionTracker history;
+    private final long clockMillis;
+    private final long key;
+    private final int ply;
+    private final Consumer<Move> onMoved;
+
+    AiTurn(String roomId, ChessRoom room, Player player, ChessBoard board, RepetitionTracker history,
+        long clockMillis, long key, Consumer<Move> onMoved) {
+      this.roomId = roomId;
+      this.room = room;
+      this.player = player;
+      this.board = board;
+      this.history = history;
+      this.clockMillis = clockMillis;
+      this.key = key;
+      this.ply = history.getPlyCount();
+      this.onMoved = onMoved;
+    }
+  }
+
+  private void submitAiSearch(AiTurn turn) {
+    aiSearchExecutor.submit(turn.board, turn.player.getType(), turn.clockMillis, turn.history)
+        .whenComplete((result, error) -> onAiSearchDone(turn, result, error));
+  }
+
+  private void onAiSearchDone(AiTurn turn, SearchResult result, Throwable error) {
+    if (error != null) {
+      logger.error("AI search failed in room {}: {}", turn.roomId, error.getMessage(), error);
+      return;
+    }
+    Move move = applyAiMove(turn.roomId, turn.room, result, turn.key, turn.ply);
+    if (move != null) {
+      logger.info("AI {} ({}) played {} in room {}: {}", turn.player.getName(), turn.player.getType(),
+          PackedMove.toString(result.getBestMove()), turn.roomId, result);
+      turn.onMoved.accept(move);
+      startPonder(turn, result);
+    }
+  }
+
+  /**
+   * AI 走子后轮到人类玩家时，按主变例的第二步预测其应着，在线程池有空闲时后台思考预测应着之后的局面
+   */
+  private void startPonder(AiTurn turn, SearchResult result) {
+    int[] pv = result.getPv();
+    if (pv.length < 2) {
+      return;
+    }
+    int predicted = pv[1];
+    ChessBoard board;
+    RepetitionTracker history;
+    synchronized (turn.room) {
+      ChessGameState gameState = turn.room.getGameState();
+      if (gameState == null || gameState.getStatus() != GameStatus.PLAYING) {
+        return;
+      }
+      Player opponent = gameState.getCurrentPlayerInfo();
+      if (opponent == null || opponent.isAI()) {
+        return;
+      }
+      board = gameState.getBoard().copy();
+      board.setSideToMove(PieceCode.sideOf(gameState.getCurrentPlayer()));
+      int piece = PackedMove.piece(predicted);
+      if (PieceCode.side(piece) != board.getSideToMove()
+          || board.getPieceCode(PackedMove.from(predicted)) != piece
+          || board.getPieceCode(PackedMove.to(predicted)) != PackedMove.captured(predicted)
+          || !GameLogic.isLegal(board, predicted)) {
+        return;
+      }
+      board.makeMove(predicted);
+      history = gameState.getRepetition().copy();
+    }
+
+    Ponder ponder = aiSearchExecutor.ponder(board, turn.player.getType(), history);
+    if (ponder != null) {
+      Ponder previous = ponders.put(turn.roomId, ponder);
+      if (previous != null) {
+        previous.stop();
+      }
+    }
+  }
+
+  /**
+   * 停止房间的后台思考（悔棋、投降、房间关闭等）
+   */
+  private void stopPonder(String roomId) {
+    Ponder ponder = ponders.remove(roomId);
+    if (ponder != null) {
+      ponder.stop();
+    }
+  }
+
+  /**
+   * 执行AI搜索得到的走法，对局在搜索期间发生变化时放弃
+   */
+  private Move applyAiMove(String roomId, ChessRoom room, SearchResult result, long key, int ply) {
+    if (result.getBestMove() == PackedMove.NONE) {
+      logger.warn("AI has no legal move in room {}", roomId);
+      return null;
+    }
+
+    synchronized (room) {
+      ChessGameState gameState = room.getGameState();
+      if (gameState == null || gameState.getBoard().getZobristKey() != key
+          || gameState.getRepetition().getPlyCount() != ply) {
+        logger.info("Discarded stale AI move {} in room {}", PackedMove.toString(result.getBestMove()), roomId);
+        return null;
+      }
+
+      Move move = PackedMove.toMove(result.getBestMove(), gameState.getBoard());
+      if (!room.aiMove(move.getFrom(), move.getTo())) {
+        logger.error("AI move {} rejected in room {}", PackedMove.toString(result.getBestMove()), roomId);
+        return null;
+      }
+      adjudicateEndgame(roomId, room);
+      return move;
+    }
   }
 
   /**
@@ -438,6 +658,7 @@ public class GameManager {
    */
   public boolean surrender(String roomId, Long userId) {
     logger.info("Surrender request - roomId: {}, userId: {}", roomId, userId);
+    stopPonder(roomId);
 
     ChessRoom room = activeRooms.get(roomId);
     if (room == null) {
@@ -487,7 +708,9 @@ public class GameManager {
 
     if (isValidPlayer) {
       logger.info("User {} is valid player, executing surrender", userId);
-      gameState.surrender();
+      synchronized (room) {
+        gameState.surrender();
+      }
       logger.info("Surrender executed successfully. New status: {}", gameState.getStatus());
       return true;
     } else {
@@ -508,7 +731,10 @@ public class GameManager {
     ChessGameState gameState = room.getGameState();
     // 简单实现：只有轮到该玩家时才能悔棋
     if (gameState.isPlayerTurn(userId)) {
-      return gameState.undoMove();
+      stopPonder(roomId);
+      synchronized (room) {
+        return gameState.undoMove();
+      }
     }
 
     return false;
@@ -350,6 +350,9 @@ public class RoomSocketServer implements InitializingBean {
             logger.info("Game started in room {}", userInfo.roomId);
             broadcastToRoom(userInfo.roomId, "game_started", Map.of(
                 "message", "游戏开始！"));
+
+            // AI执红时先走
+            replyWithAiMove(userInfo.roomId);
           }
         } else {
           logger.warn("Failed to set ready status for player {} in room {}", userInfo.userId, userInfo.roomId);
@@ -410,7 +413,7 @@ public class RoomSocketServer implements InitializingBean {
           return;
         }
 
-        Position position = new Position(row, col);
+        Position position = Position.of(row, col);
         boolean success = gameManager.playerSelectPiece(userInfo.roomId, userInfo.userId, position);
 
         if (success) {
@@ -484,8 +487,8 @@ public class RoomSocketServer implements InitializingBean {
           return;
         }
 
-        Position fromPos = new Position((Integer) from.get("row"), (Integer) from.get("col"));
-        Position toPos = new Position((Integer) to.get("row"), (Integer) to.get("col"));
+        Position fromPos = Position.of((Integer) from.get("row"), (Integer) from.get("col"));
+        Position toPos = Position.of((Integer) to.get("row"), (Integer) to.get("col"));
 
         boolean success = gameManager.playerMove(userInfo.roomId, userInfo.userId, fromPos, toPos);
 
@@ -503,16 +506,9 @@ public class RoomSocketServer implements InitializingBean {
           // 发送更新的游戏状态
           sendGameState(userInfo.roomId);
 
-          // 检查游戏是否结束（将帅被吃）
-          ChessGameState gameState = gameManager.getGameState(userInfo.roomId);
-          if (gameState != null && gameState.getStatus() != GameStatus.PLAYING) {
-            logger.info("Game ended in room {} with status {}", userInfo.roomId, gameState.getStatus());
-            broadcastToRoom(userInfo.roomId, "game_ended", Map.of(
-                "status", gameState.getStatus().toString(),
-                "message", gameState.getGameStatusSummary()));
-
-            // 游戏结束后，延迟10秒后通知用户退出并删除房间
-            handleGameEnded(userInfo.roomId);
+          // 检查游戏是否结束，未结束且轮到AI时由AI应着
+          if (!notifyIfGameEnded(userInfo.roomId)) {
+            replyWithAiMove(userInfo.roomId);
           }
         } else {
           logger.debug("Player {} failed to move piece from ({}, {}) to ({}, {}) in room {}",
@@ -845,7 +841,7 @@ public class RoomSocketServer implements InitializingBean {
 
     for (int row = 0; row < 10; row++) {
       for (int col = 0; col < 9; col++) {
-        Position pos = new Position(row, col);
+        Position pos = Position.of(row, col);
         ChessPiece piece = board.getPieceAt(pos);
 
         if (piece != null) {
@@ -863,6 +859,42 @@ public class RoomSocketServer implements InitializingBean {
     return boardData;
   }
 
+  /**
+   * 检查游戏是否结束（将死、困毙、长将等），结束时广播结果并安排房间清理
+   *
+   * @return 游戏是否已结束
+   */
+  private boolean notifyIfGameEnded(String roomId) {
+    ChessGameState gameState = gameManager.getGameState(roomId);
+    if (gameState == null || gameState.getStatus() == GameStatus.PLAYING) {
+      return false;
+    }
+
+    logger.info("Game ended in room {} with status {}", roomId, gameState.getStatus());
+    broadcastToRoom(roomId, "game_ended", Map.of(
+        "status", gameState.getStatus().toString(),
+        "message", gameState.getGameStatusSummary()));
+
+    // 游戏结束后，延迟10秒后通知用户退出并删除房间
+    handleGameEnded(roomId);
+    return true;
+  }
+
+  /**
+   * 轮到AI走棋时提交给AI线程池异步应着，应着完成后广播移动和最新的游戏状态
+   * 不在 Socket.IO 事件线程上搜索
+   */
+  private void replyWithAiMove(String roomId) {
+    gameManager.requestAiMove(roomId, move -> {
+      broadcastToRoom(roomId, "piece_moved", Map.of(
+          "ai", true,
+          "from", Map.of("row", move.getFrom().getRow(), "col", move.getFrom().getCol()),
+          "to", Map.of("row", move.getTo().getRow(), "col", move.getTo().getCol())));
+      sendGameState(roomId);
+      notifyIfGameEnded(roomId);
+    });
+  }
+
   /**
    * 处理游戏结束后的清理工作
    */
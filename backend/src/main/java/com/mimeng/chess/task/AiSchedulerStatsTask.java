@@ -0,0 +1,44 @@
+package com.mimeng.chess.task;
+
+import com.mimeng.chess.engine.AiSearchExecutor;
+import com.mimeng.chess.engine.TranspositionTable;
+import com.mimeng.chess.entity.chess.PlayerType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AiSchedulerStatsTask {
+  private static final Logger logger = LoggerFactory.getLogger(AiSchedulerStatsTask.class);
+
+  @Autowired
+  private AiSearchExecutor aiSearchExecutor;
+
+  @Autowired
+  private TranspositionTable transpositionTable;
+
+  // 每分钟输出一次各难度的排队等待和搜索耗时分位数、置换表的命中率/冲突率/占用率，输出后清零
+  @Scheduled(fixedRate = 60_000)
+  public void logLatencies() {
+    for (PlayerType type : PlayerType.values()) {
+      if (aiSearchExecutor.getSearchTime(type).getCount() == 0) {
+        continue;
+      }
+      logger.info("AI {} queue wait: {}; search time: {}", type,
+          aiSearchExecutor.getQueueWait(type), aiSearchExecutor.getSearchTime(type));
+      aiSearchExecutor.getQueueWait(type).reset();
+      aiSearchExecutor.getSearchTime(type).reset();
+    }
+    logger.info("AI scheduler: queued={}, active={}, submitted={}, degraded={}, shed={}",
+        aiSearchExecutor.getQueuedCount(), aiSearchExecutor.getActiveCount(), aiSearchExecutor.getSubmittedCount(),
+        aiSearchExecutor.getDegradedCount(), aiSearchExecutor.getShedCount());
+    if (transpositionTable.getProbes() > 0) {
+      logger.info("AI transposition table: probes={}, hitRate={}, collisionRate={}, hashfull={}‰",
+          transpositionTable.getProbes(), String.format("%.3f", transpositionTable.getHitRate()),
+          String.format("%.3f", transpositionTable.getCollisionRate()), transpositionTable.hashfull());
+      transpositionTable.resetStats();
+    }
+  }
+}
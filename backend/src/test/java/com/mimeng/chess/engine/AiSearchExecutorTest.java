@@ -0,0 +1,123 @@
+package com.mimeng.chess.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.Fen;
+import com.mimeng.chess.entity.chess.GameLogic;
+import com.mimeng.chess.entity.chess.PlayerType;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class AiSearchExecutorTest {
+
+  @Test
+  void saturatedQueueDegradesInsteadOfBlocking() throws Exception {
+    ChessBoard board = Fen.parse(Fen.START);
+    SearchLimits limits = SearchLimits.of(Searcher.MAX_PLY, 100, SearchLimits.UNLIMITED_NODES);
+    try (ChessEngine engine = new ChessEngine(new TranspositionTable(4), 0, 1);
+        AiSearchExecutor executor = new AiSearchExecutor(engine, 1, 2)) {
+      @SuppressWarnings("unchecked")
+      CompletableFuture<SearchResult>[] futures = new CompletableFuture[6];
+      for (int i = 0; i < futures.length; i++) {
+        futures[i] = executor.submit(board.copy(), limits, null);
+      }
+
+      for (CompletableFuture<SearchResult> future : futures) {
+        SearchResult result = future.get(5, TimeUnit.SECONDS);
+        assertTrue(GameLogic.isLegal(board, result.getBestMove()));
+      }
+      assertEquals(6, executor.getSubmittedCount());
+      assertTrue(executor.getShedCount() > 0);
+      assertTrue(executor.getDegradedCount() > 0);
+    }
+  }
+
+  @Test
+  void earliestDeadlineRunsFirst() throws Exception {
+    ChessBoard board = Fen.parse(Fen.START);
+    SearchLimits blocker = SearchLimits.of(Searcher.MAX_PLY, 200, SearchLimits.UNLIMITED_NODES);
+    SearchLimits slow = SearchLimits.of(Searcher.MAX_PLY, 1000, SearchLimits.UNLIMITED_NODES);
+    SearchLimits fast = SearchLimits.of(Searcher.MAX_PLY, 100, SearchLimits.UNLIMITED_NODES);
+    try (ChessEngine engine = new ChessEngine(new TranspositionTable(4), 0, 1);
+        AiSearchExecutor executor = new AiSearchExecutor(engine, 1, 16)) {
+      CompletableFuture<SearchResult> running = executor.submit(board.copy(), blocker, null);
+      CompletableFuture<SearchResult> late = executor.submit(board.copy(), slow, null);
+      CompletableFuture<SearchResult> early = executor.submit(board.copy(), fast, null);
+
+      early.get(5, TimeUnit.SECONDS);
+      assertFalse(late.isDone());
+      late.get(5, TimeUnit.SECONDS);
+      running.get(5, TimeUnit.SECONDS);
+      assertEquals(3, executor.getQueueWait().getCount());
+    }
+  }
+
+  @Test
+  void ponderIsPreemptedByRealSearchAndKeepsItsResult() throws Exception {
+    ChessBoard board = Fen.parse(Fen.START);
+    SearchLimits limits = SearchLimits.of(Searcher.MAX_PLY, 100, SearchLimits.UNLIMITED_NODES);
+    try (ChessEngine engine = new ChessEngine(new TranspositionTable(4), 0, 1);
+        AiSearchExecutor executor = new AiSearchExecutor(engine, 1, 16)) {
+      Ponder ponder = executor.ponder(board.copy(), PlayerType.AI_HARD, null);
+      assertNotNull(ponder);
+      assertTrue(ponder.matches(board));
+      assertNull(executor.ponder(board.copy(), PlayerType.AI_HARD, null)); // 没有空闲线程
+      Thread.sleep(300);
+
+      SearchResult result = executor.submit(board.copy(), limits, null).get(5, TimeUnit.SECONDS);
+      assertTrue(GameLogic.isLegal(board, result.getBestMove()));
+      assertTrue(ponder.isStopped());
+      assertEquals(1, executor.getPreemptedPonderCount());
+
+      SearchResult pondered = ponder.stop().get(5, TimeUnit.SECONDS);
+      assertNotNull(pondered);
+      assertTrue(GameLogic.isLegal(board, pondered.getBestMove()));
+      assertEquals(0, executor.getActivePonderCount());
+      // 被抢占的思考比正常搜索浅，命中时也要重新搜索
+      assertNull(executor.ponderHit(ponder, PlayerType.AI_HARD, 0).get(5, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  void ponderHitKeepsSearchingForTheMoveBudget() throws Exception {
+    ChessBoard board = Fen.parse(Fen.START);
+    try (ChessEngine engine = new ChessEngine(new TranspositionTable(4), 0, 1);
+        AiSearchExecutor executor = new AiSearchExecutor(engine, 1, 16)) {
+      Ponder ponder = executor.ponder(board.copy(), PlayerType.AI_HARD, null);
+      assertNotNull(ponder);
+      Thread.sleep(100);
+
+      // 棋钟剩余 9 秒：单步预算为 300ms，从命中时算起
+      long start = System.nanoTime();
+      CompletableFuture<SearchResult> hit = executor.ponderHit(ponder, PlayerType.AI_HARD, 9_000);
+      assertEquals(1, executor.getActiveCount());
+      SearchResult result = hit.get(5, TimeUnit.SECONDS);
+      long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      assertNotNull(result);
+      assertTrue(GameLogic.isLegal(board, result.getBestMove()));
+      assertTrue(elapsedMillis >= 150 && elapsedMillis < 2_000, "elapsed " + elapsedMillis);
+      assertFalse(ponder.isStopped());
+      assertEquals(1, executor.getPonderHitCount());
+      assertEquals(0, executor.getActivePonderCount());
+    }
+  }
+
+  @Test
+  void histogramPercentilesAreWithinBucketError() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int millis = 1; millis <= 100; millis++) {
+      histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    assertEquals(100, histogram.getCount());
+    assertEquals(50, histogram.getPercentileMillis(50), 50 / 16.0);
+    assertEquals(99, histogram.getPercentileMillis(99), 99 / 16.0);
+    assertEquals(100.0, histogram.getMaxMillis());
+  }
+}
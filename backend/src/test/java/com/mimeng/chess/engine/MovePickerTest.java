@@ -0,0 +1,59 @@
+package com.mimeng.chess.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.Fen;
+import com.mimeng.chess.entity.chess.MoveGenerator;
+import com.mimeng.chess.entity.chess.PackedMove;
+import com.mimeng.chess.entity.chess.PieceCode;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class MovePickerTest {
+
+  @Test
+  void yieldsEveryMoveOnceInStageOrder() {
+    ChessBoard board = Fen.parse("r1bakab1r/9/1cn4c1/p1p1p1p1p/4n4/2P6/P3P1P1P/1C2C1N2/9/RNBAKAB1R w");
+    int[] all = new int[MoveGenerator.MAX_MOVES];
+    int count = MoveGenerator.generate(board, board.getSideToMove(), all, 0);
+    int hash = firstQuiet(all, count, 3);
+    int killer = firstQuiet(all, count, 7);
+    int staleCapture = PackedMove.of(PackedMove.from(all[0]), PackedMove.to(all[0]), PackedMove.piece(all[0]),
+        PieceCode.BLACK | PieceCode.ROOK);
+
+    MovePicker picker = new MovePicker(new StaticExchange());
+    picker.init(board, hash, killer, staleCapture, new int[MovePicker.HISTORY_SIZE], true, false);
+    Set<Integer> seen = new HashSet<>();
+    int previousCapture = Integer.MAX_VALUE;
+    boolean quietSeen = false;
+    int move;
+    for (int i = 0; (move = picker.next()) != PackedMove.NONE; i++) {
+      assertTrue(seen.add(move), "重复的走法 " + PackedMove.toString(move));
+      if (i == 0) {
+        assertEquals(hash, move);
+      } else if (PackedMove.isCapture(move)) {
+        assertFalse(quietSeen);
+        int score = MovePicker.mvvLvaScore(move);
+        assertTrue(score <= previousCapture);
+        previousCapture = score;
+      } else if (!quietSeen) {
+        quietSeen = true;
+        assertEquals(killer, move);
+      }
+    }
+    assertEquals(count, seen.size());
+  }
+
+  private static int firstQuiet(int[] moves, int count, int skip) {
+    for (int i = 0; i < count; i++) {
+      if (!PackedMove.isCapture(moves[i]) && skip-- == 0) {
+        return moves[i];
+      }
+    }
+    throw new IllegalStateException("没有足够的不吃子走法");
+  }
+}
@@ -0,0 +1,89 @@
+package com.mimeng.chess.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.Fen;
+import com.mimeng.chess.entity.chess.GameLogic;
+import com.mimeng.chess.entity.chess.GameStatus;
+import com.mimeng.chess.entity.chess.PackedMove;
+import com.mimeng.chess.entity.chess.PieceCode;
+import com.mimeng.chess.entity.chess.PlayerColor;
+import com.mimeng.chess.entity.chess.Square;
+import org.junit.jupiter.api.Test;
+
+class SearcherTest {
+
+  @Test
+  void findsMateInOne() {
+    // 只有车进到 d7 才能将死：e9 与帅照面，d8 被车控制
+    ChessBoard board = Fen.parse("3k5/9/R8/9/9/9/9/9/9/4K4 w");
+    SearchResult result = new ChessEngine().search(board, SearchLimits.of(4, 5000, SearchLimits.UNLIMITED_NODES), null);
+
+    assertEquals(Square.of(2, 0), PackedMove.from(result.getBestMove()));
+    assertEquals(Square.of(2, 3), PackedMove.to(result.getBestMove()));
+    assertEquals(Searcher.MATE - 1, result.getScore());
+  }
+
+  @Test
+  void stalemateIsADraw() {
+    // 黑将不被将军，但 e7 与帅照面、d8 被车控制，无子可走
+    ChessBoard stalemated = Fen.parse("9/7R1/3k5/9/9/9/9/9/4K4/9 b");
+    assertEquals(GameStatus.DRAW, GameLogic.checkGameStatus(stalemated, PlayerColor.BLACK));
+    SearchResult result = new ChessEngine().search(stalemated, SearchLimits.of(3, 1000, 10_000), null);
+    assertEquals(PackedMove.NONE, result.getBestMove());
+    assertEquals(0, result.getScore());
+
+    // 车进 h8 即困毙黑将，两层内不能当作杀棋（真正的杀棋需要三层）
+    ChessBoard board = Fen.parse("9/9/3k5/9/9/9/9/9/4K2R1/9 w");
+    result = new ChessEngine().search(board, SearchLimits.of(2, 5000, SearchLimits.UNLIMITED_NODES), null);
+    assertFalse(result.isMate(), result.toString());
+    assertNotEquals(PackedMove.of(Square.of(8, 7), Square.of(1, 7), board.getPieceCode(Square.of(8, 7)),
+        PieceCode.EMPTY), result.getBestMove());
+  }
+
+  @Test
+  void nodeLimitIsHonouredAndMoveIsLegal() {
+    ChessBoard board = Fen.parse(Fen.START);
+    SearchResult result = new ChessEngine().search(board, SearchLimits.of(Searcher.MAX_PLY, 60_000, 5_000), null);
+
+    assertTrue(result.getNodes() <= 5_000);
+    assertTrue(result.getDepth() >= 1);
+    assertTrue(GameLogic.isLegal(board, result.getBestMove()));
+    assertEquals(Fen.START, Fen.format(board));
+  }
+
+  @Test
+  void lazySmpIsCappedAndReleasesHelpers() {
+    ChessBoard board = Fen.parse(Fen.START);
+    try (ChessEngine engine = new ChessEngine(new TranspositionTable(4), 2, 4)) {
+      SearchLimits limits = SearchLimits.of(4, 60_000, SearchLimits.UNLIMITED_NODES).withThreads(8);
+      SearchResult result = engine.search(board, limits, null);
+
+      assertEquals(4, result.getDepth());
+      assertTrue(GameLogic.isLegal(board, result.getBestMove()));
+      assertEquals(2, engine.getAvailableHelperThreads());
+    }
+  }
+
+  @Test
+  void checkmatedSideHasNoMove() {
+    ChessBoard board = Fen.parse("3k5/9/9/9/9/9/9/4R4/9/3RK4 b");
+    SearchResult result = new ChessEngine().search(board, SearchLimits.of(3, 1000, 10_000), null);
+
+    assertEquals(PackedMove.NONE, result.getBestMove());
+    assertTrue(result.isMate());
+  }
+
+  @Test
+  void quiescenceSeesTheCannonRecapture() {
+    ChessBoard board = Fen.parse("c2k5/9/n8/9/p7R/9/9/9/9/5K3 w");
+    SearchResult result = new ChessEngine().search(board, SearchLimits.of(1, 5000, SearchLimits.UNLIMITED_NODES), null);
+
+    assertTrue(result.getScore() < 100);
+    assertTrue(PackedMove.to(result.getBestMove()) != Square.of(4, 0));
+  }
+}
@@ -0,0 +1,82 @@
+package com.mimeng.chess.engine;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+import com.mimeng.chess.engine.SearchOptions.Feature;
+import com.mimeng.chess.engine.tournament.EngineSpec;
+import com.mimeng.chess.engine.tournament.Sprt;
+import com.mimeng.chess.engine.tournament.Tournament;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 自对弈：用 {@link Tournament} 让全部裁剪开启的引擎对关闭其中一项的引擎，固定每步用时，SPRT 有结论或达到局数上限时停止，
+ * 输出每项裁剪带来的 Elo 差（95% 置信区间），置信区间整个低于 0（该项裁剪使棋力下降）时测试失败；
+ * 指定评估网络时再测网络评估对子力位置分评估的 Elo 差。对局写入 build/selfplay。
+ * 耗时较长，不随 ./gradlew test 运行，单独运行：./gradlew selfPlay [-PselfPlayGames=2000] [-PselfPlayMoveTime=20] [-PselfPlayNetwork=nnue.bin]
+ */
+@Tag("selfplay")
+class SelfPlayTest {
+  private static final Logger logger = LoggerFactory.getLogger(SelfPlayTest.class);
+
+  private static final int GAMES = Integer.getInteger("selfplay.games", 2000);
+  private static final long MOVE_TIME_MILLIS = Long.getLong("selfplay.moveTime", 20L);
+  private static final String NETWORK = System.getProperty("selfplay.network", "");
+  private static final Path OPENINGS = Path.of(System.getProperty("selfplay.openings", "openings.fen"));
+  private static final Path OUTPUT = Path.of(System.getProperty("selfplay.output", "build/selfplay"));
+
+  @Test
+  void pruningGainsAtFixedTimeControl() throws Exception {
+    List<String> losing = new ArrayList<>();
+    for (Feature feature : new Feature[] { Feature.NULL_MOVE, Feature.LMR, Feature.FUTILITY, Feature.RAZORING }) {
+      Tournament tournament = match(feature.toString(), "default", "without=" + feature);
+      if (isSignificantlyWorse(tournament)) {
+        losing.add(feature + ": " + tournament.summary());
+      }
+    }
+    assertTrue(losing.isEmpty(), "裁剪使棋力显著下降: " + losing);
+  }
+
+  @Test
+  void networkAgainstPieceSquareTable() throws Exception {
+    assumeFalse(NETWORK.isBlank(), "未指定评估网络（-PselfPlayNetwork）");
+    Tournament tournament = match("NNUE", "network=" + NETWORK, "default");
+    assertFalse(isSignificantlyWorse(tournament), "评估网络弱于子力位置分: " + tournament.summary());
+  }
+
+  /**
+   * 被测一方的 Elo 差的 95% 置信区间整个低于 0
+   */
+  private static boolean isSignificantlyWorse(Tournament tournament) {
+    return tournament.getElo() + tournament.getEloMargin() < 0;
+  }
+
+  /**
+   * 进行一场锦标赛并输出结果
+   *
+   * @param test 被测一方的引擎配置（{@link EngineSpec}）
+   * @param base 对照一方的引擎配置
+   */
+  private static Tournament match(String name, String test, String base) throws Exception {
+    SearchLimits limits = SearchLimits.of(Searcher.MAX_PLY, MOVE_TIME_MILLIS, SearchLimits.UNLIMITED_NODES);
+    Tournament tournament = new Tournament(Tournament.loadOpenings(OPENINGS), EngineSpec.parse(test),
+        EngineSpec.parse(base), limits, new Sprt(0, 5, 0.05, 0.05), GAMES, Runtime.getRuntime().availableProcessors());
+    Files.createDirectories(OUTPUT);
+    Sprt.Decision decision = tournament.run(OUTPUT.resolve(name + ".pgn"), games -> {
+      if (games % 100 == 0) {
+        logger.info("{}: {}", name, tournament.summary());
+      }
+    });
+    logger.info("{}: {}，{}", name, tournament.summary(), decision);
+    logger.info("{}", tournament.statistics());
+    return tournament;
+  }
+}
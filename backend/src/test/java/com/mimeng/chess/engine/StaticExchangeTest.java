@@ -0,0 +1,37 @@
+package com.mimeng.chess.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.Fen;
+import com.mimeng.chess.entity.chess.PackedMove;
+import com.mimeng.chess.entity.chess.PieceCode;
+import com.mimeng.chess.entity.chess.Square;
+import org.junit.jupiter.api.Test;
+
+class StaticExchangeTest {
+
+  @Test
+  void cannonRecapturesOnlyOverAScreen() {
+    assertEquals(-800, rookTakesPawn("c2k5/9/n8/9/p7R/9/9/9/9/5K3 w", 0));
+    assertEquals(100, rookTakesPawn("c2k5/9/9/9/p7R/9/9/9/9/5K3 w", 0));
+  }
+
+  @Test
+  void blockedHorseLegCannotRecapture() {
+    assertEquals(100, rookTakesPawn("3k5/9/3n5/3p5/4p3R/9/9/9/9/5K3 w", 4));
+    assertEquals(-800, rookTakesPawn("3k5/9/3n5/9/4p3R/9/9/9/9/5K3 w", 4));
+  }
+
+  /**
+   * 第4行右端的车吃同一行第 col 列的卒，返回交换得失，并确认棋盘已恢复
+   */
+  private static int rookTakesPawn(String fen, int col) {
+    ChessBoard board = Fen.parse(fen);
+    int move = PackedMove.of(Square.of(4, 8), Square.of(4, col), PieceCode.RED | PieceCode.ROOK,
+        PieceCode.BLACK | PieceCode.PAWN);
+    int gain = new StaticExchange().evaluate(board, move);
+    assertEquals(Fen.format(Fen.parse(fen)), Fen.format(board));
+    return gain;
+  }
+}
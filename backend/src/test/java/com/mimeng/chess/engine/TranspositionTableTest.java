@@ -0,0 +1,88 @@
+package com.mimeng.chess.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class TranspositionTableTest {
+
+  @Test
+  void storedEntryRoundTrips() {
+    TranspositionTable table = new TranspositionTable(1);
+    table.store(42L, 0x0A0B0C0D, -1234, 7, TranspositionTable.BOUND_LOWER, 3);
+
+    long data = table.probe(42L);
+    assertEquals(0x0A0B0C0D, TranspositionTable.move(data));
+    assertEquals(-1234, TranspositionTable.score(data, 3));
+    assertEquals(7, TranspositionTable.depth(data));
+    assertEquals(TranspositionTable.BOUND_LOWER, TranspositionTable.bound(data));
+    assertEquals(0, table.probe(43L));
+    assertEquals(0.5, table.getHitRate());
+
+    // 统计清零后条目仍然保留
+    table.resetStats();
+    assertEquals(0, table.getProbes());
+    assertEquals(0x0A0B0C0D, TranspositionTable.move(table.probe(42L)));
+    assertEquals(1.0, table.getHitRate());
+  }
+
+  @Test
+  void mateScoresAreStoredRelativeToNode() {
+    TranspositionTable table = new TranspositionTable(1);
+    table.store(7L, 1, Searcher.MATE - 5, 3, TranspositionTable.BOUND_EXACT, 2);
+
+    // 同一局面在更深的层数被找到时，杀棋距离相应变远
+    assertEquals(Searcher.MATE - 7, TranspositionTable.score(table.probe(7L), 4));
+  }
+
+  @Test
+  void staleShallowEntriesAreReplacedFirst() {
+    TranspositionTable table = new TranspositionTable(1);
+    long stride = table.getCapacity() / 4; // 同一个桶
+    for (int i = 0; i < 4; i++) {
+      table.store(1 + i * stride, 1, 0, 10 + i, TranspositionTable.BOUND_EXACT, 0);
+    }
+    table.newSearch();
+    table.store(1 + 4 * stride, 1, 0, 1, TranspositionTable.BOUND_EXACT, 0);
+
+    assertEquals(0, table.probe(1));
+    for (int i = 1; i <= 4; i++) {
+      assertTrue(table.probe(1 + i * stride) != 0);
+    }
+    assertEquals(1, table.getOverwrites());
+  }
+
+  @Test
+  void concurrentWritersNeverProduceMismatchedEntries() throws InterruptedException {
+    TranspositionTable table = new TranspositionTable(1);
+    AtomicInteger corrupted = new AtomicInteger();
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      long seed = t;
+      threads[t] = new Thread(() -> {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < 200_000; i++) {
+          long key = random.nextLong(1 << 14);
+          // 走法由键推出，读到的走法与键不符即为撕裂条目
+          int move = (int) (key * 31 + 1);
+          if ((i & 1) == 0) {
+            table.store(key, move, (int) key & 0x3FF, 5, TranspositionTable.BOUND_EXACT, 0);
+          } else {
+            long data = table.probe(key);
+            if (data != 0 && TranspositionTable.move(data) != move) {
+              corrupted.incrementAndGet();
+            }
+          }
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(0, corrupted.get());
+  }
+}
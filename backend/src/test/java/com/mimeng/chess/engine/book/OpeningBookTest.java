@@ -0,0 +1,61 @@
+package com.mimeng.chess.engine.book;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.Fen;
+import com.mimeng.chess.entity.chess.PackedMove;
+import com.mimeng.chess.entity.chess.Square;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class OpeningBookTest {
+
+  @Test
+  void mirroredGamesShareEntries() throws Exception {
+    OpeningBookBuilder builder = new OpeningBookBuilder(OpeningBookBuilder.DEFAULT_MAX_PLY);
+    builder.addGame("h2e2 h9g7 1/2-1/2");
+    builder.addGame("b2e2 b9c7 1/2-1/2"); // 上一局的左右镜像
+    assertFalse(builder.addGame("a0a5 a9a8")); // 车被兵挡住
+    assertEquals(1, builder.getRejectedGames());
+
+    Path file = Files.createTempFile("book", ".bin");
+    try {
+      // 开局和中炮后的局面各只占一个条目
+      assertEquals(2, builder.write(file));
+      OpeningBook book = OpeningBook.open(file);
+
+      ChessBoard board = Fen.parse(Fen.START);
+      // 对称局面两步镜像走法共享一个条目，平分权重
+      assertEquals(Map.of("h2e2", 1, "b2e2", 1), candidates(book, board));
+
+      board.makeMove(OpeningBookBuilder.parseIccs(board, "b2e2"));
+      assertEquals(Map.of("b9c7", 2), candidates(book, board));
+
+      board.makeMove(book.probe(board, new SplittableRandom(1)));
+      assertEquals(PackedMove.NONE, book.probe(board, new SplittableRandom(2)));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  private static Map<String, Integer> candidates(OpeningBook book, ChessBoard board) {
+    int[] moves = new int[OpeningBook.MAX_CANDIDATES];
+    int[] weights = new int[OpeningBook.MAX_CANDIDATES];
+    int found = book.findMoves(board, moves, weights);
+    Map<String, Integer> result = new HashMap<>();
+    for (int i = 0; i < found; i++) {
+      result.put(iccs(PackedMove.from(moves[i])) + iccs(PackedMove.to(moves[i])), weights[i]);
+    }
+    return result;
+  }
+
+  private static String iccs(int square) {
+    return "" + (char) ('a' + Square.col(square)) + (9 - Square.row(square));
+  }
+}
@@ -0,0 +1,106 @@
+package com.mimeng.chess.engine.nnue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.Fen;
+import com.mimeng.chess.entity.chess.GameLogic;
+import com.mimeng.chess.entity.chess.MoveGenerator;
+import com.mimeng.chess.entity.chess.PackedMove;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class NetworkTest {
+  private static final String MIDDLEGAME = "r1bakab1r/9/1cn3nc1/p1p1p1p1p/9/2P6/P3P1P1P/1C2C1N2/9/RNBAKAB1R b - - 0 1";
+
+  @Test
+  void incrementalUpdateMatchesFullRefresh() {
+    Network network = Network.random(64, 16, 1);
+    ChessBoard board = Fen.parse(Fen.START);
+    Accumulator accumulator = new Accumulator(network, 80);
+    accumulator.reset(board);
+    Random random = new Random(7);
+    int[] moves = new int[MoveGenerator.MAX_MOVES];
+    for (int ply = 0; ply < 80; ply++) {
+      assertEquals(network.evaluate(board), accumulator.evaluate(ply, board.getSideToMove()), "ply " + ply);
+      if (ply % 7 == 3) {
+        board.makeNullMove();
+        accumulator.push(ply, PackedMove.NONE);
+        continue;
+      }
+      int count = legalMoves(board, moves);
+      if (count == 0) {
+        break;
+      }
+      // 优先吃子，覆盖被吃子特征的更新
+      int move = moves[random.nextInt(count)];
+      for (int i = 0; i < count; i++) {
+        if (PackedMove.isCapture(moves[i]) && random.nextBoolean()) {
+          move = moves[i];
+          break;
+        }
+      }
+      board.makeMove(move);
+      accumulator.push(ply, move);
+    }
+  }
+
+  @Test
+  void vectorAndScalarKernelsAgree() {
+    Network network = Network.random(128, 32, 2);
+    Network scalar = network.withScalarKernel();
+    for (String fen : new String[] { Fen.START, MIDDLEGAME }) {
+      ChessBoard board = Fen.parse(fen);
+      // 浮点累加顺序不同，舍入后最多差 1
+      assertEquals(scalar.evaluate(board), network.evaluate(board), 1);
+    }
+  }
+
+  @Test
+  void colourFlippedPositionEvaluatesTheSame() {
+    Network network = Network.random(64, 16, 3);
+    ChessBoard board = Fen.parse(MIDDLEGAME);
+    assertEquals(network.evaluate(board), network.evaluate(Fen.parse(flipColours(MIDDLEGAME))));
+  }
+
+  @Test
+  void weightsSurviveWriteAndLoad() throws Exception {
+    Network network = Network.random(32, 8, 4);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    network.write(out);
+    Network loaded = Network.load(new ByteArrayInputStream(out.toByteArray()));
+
+    ChessBoard board = Fen.parse(MIDDLEGAME);
+    assertEquals(network.evaluate(board), loaded.evaluate(board));
+    assertEquals(32, loaded.getHiddenSize());
+  }
+
+  /**
+   * 上下翻转并交换红黑
+   */
+  private static String flipColours(String fen) {
+    String[] fields = fen.split(" ");
+    String[] rows = fields[0].split("/");
+    StringBuilder sb = new StringBuilder();
+    for (int row = rows.length - 1; row >= 0; row--) {
+      for (char c : rows[row].toCharArray()) {
+        sb.append(Character.isUpperCase(c) ? Character.toLowerCase(c) : Character.toUpperCase(c));
+      }
+      sb.append(row > 0 ? "/" : "");
+    }
+    return sb + (fields[1].equals("w") ? " b" : " w");
+  }
+
+  private static int legalMoves(ChessBoard board, int[] moves) {
+    int count = MoveGenerator.generate(board, board.getSideToMove(), moves, 0);
+    int legal = 0;
+    for (int i = 0; i < count; i++) {
+      if (GameLogic.isLegal(board, moves[i])) {
+        moves[legal++] = moves[i];
+      }
+    }
+    return legal;
+  }
+}
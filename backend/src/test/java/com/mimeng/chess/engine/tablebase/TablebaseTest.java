@@ -0,0 +1,65 @@
+package com.mimeng.chess.engine.tablebase;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.mimeng.chess.entity.chess.ChessBoard;
+import com.mimeng.chess.entity.chess.Fen;
+import com.mimeng.chess.entity.chess.GameLogic;
+import com.mimeng.chess.entity.chess.GameStatus;
+import com.mimeng.chess.entity.chess.PackedMove;
+import com.mimeng.chess.entity.chess.PieceCode;
+import com.mimeng.chess.entity.chess.RepetitionTracker;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+
+class TablebaseTest {
+
+  @Test
+  void bestMovesFollowDistanceToMate() {
+    TablebaseGenerator generator = new TablebaseGenerator(2);
+    generator.generate(Material.parse("KRvK"));
+    Tablebases tablebases = Tablebases.of(generator.getTables());
+
+    ChessBoard board = Fen.parse("4k4/9/9/9/9/9/9/9/R8/3K5 w");
+    int value = tablebases.probe(board);
+    assertTrue(Tablebase.isWin(value));
+    // 颜色互换的同一局面
+    assertEquals(value, tablebases.probe(Fen.parse("3k5/r8/9/9/9/9/9/9/9/4K4 b")));
+
+    int plies = Tablebase.plies(value);
+    for (int ply = 1; ply <= plies; ply++) {
+      board.makeMove(tablebases.bestMove(board));
+      assertEquals(plies - ply, Tablebase.plies(tablebases.probe(board)));
+    }
+    assertTrue(GameLogic.isCheckmate(board, PieceCode.colorOf(board.getSideToMove())));
+    assertEquals(PackedMove.NONE, tablebases.bestMove(board));
+  }
+
+  @Test
+  void mappedFilesAdjudicateGames() throws Exception {
+    TablebaseGenerator generator = new TablebaseGenerator(2);
+    generator.generate(Material.parse("KRvKA"));
+    Path directory = Files.createTempDirectory("tablebases");
+    try {
+      generator.write(directory);
+      Tablebases tablebases = Tablebases.open(directory);
+      assertEquals(generator.getTables().size(), tablebases.size());
+
+      ChessBoard won = Fen.parse("3ak4/9/9/9/9/9/9/9/R8/3K5 w");
+      assertEquals(GameStatus.RED_WIN, tablebases.adjudicate(won, 0));
+      // 自然限着前来不及杀棋时不裁决
+      assertEquals(GameStatus.PLAYING, tablebases.adjudicate(won, RepetitionTracker.NATURAL_MOVE_LIMIT - 1));
+      assertEquals(GameStatus.DRAW, tablebases.adjudicate(Fen.parse("3ak4/9/9/9/9/9/9/9/9/3K5 w"), 0));
+      assertEquals(GameStatus.PLAYING, tablebases.adjudicate(Fen.parse(Fen.START), 0));
+    } finally {
+      try (var files = Files.list(directory)) {
+        for (Path file : files.toList()) {
+          Files.delete(file);
+        }
+      }
+      Files.delete(directory);
+    }
+  }
+}
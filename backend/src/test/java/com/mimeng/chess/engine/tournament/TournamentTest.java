@@ -0,0 +1,76 @@
+package com.mimeng.chess.engine.tournament;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.mimeng.chess.engine.SearchLimits;
+import com.mimeng.chess.entity.chess.Fen;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TournamentTest {
+
+  @Test
+  void sprtStopsOnlyWithEnoughEvidence() {
+    Sprt sprt = new Sprt(0, 5, 0.05, 0.05);
+    assertEquals(Sprt.Decision.CONTINUE, sprt.decide(3, 1, 2));
+    assertEquals(Sprt.Decision.ACCEPT_H1, sprt.decide(600, 200, 200));
+    assertEquals(Sprt.Decision.ACCEPT_H0, sprt.decide(200, 200, 600));
+    // 势均力敌时需要足够多的对局才能否定 5 Elo 的提升
+    assertEquals(Sprt.Decision.CONTINUE, sprt.decide(50, 100, 50));
+    assertEquals(Sprt.Decision.ACCEPT_H0, sprt.decide(5000, 10000, 5000));
+
+    assertEquals(0, Sprt.elo(0.5), 1e-9);
+    assertEquals(100, Sprt.elo(Sprt.expectedScore(100)), 1e-6);
+    assertTrue(Sprt.eloMargin(500, 1000, 500) < Sprt.eloMargin(50, 100, 50));
+  }
+
+  @Test
+  void openingsAreValidated() throws Exception {
+    Path file = Files.createTempFile("openings", ".fen");
+    try {
+      Files.writeString(file, "# 中炮\n\nrnbakabnr/9/1c5c1/p1p1p1p1p/9/9/P1P1P1P1P/1C2C4/9/RNBAKABNR b\n");
+      assertEquals(List.of("rnbakabnr/9/1c5c1/p1p1p1p1p/9/9/P1P1P1P1P/1C2C4/9/RNBAKABNR b - - 0 1"),
+          Tournament.loadOpenings(file));
+
+      Files.writeString(file, Fen.START + "\n3k5/9/9/9/9/9/9/9/9/4K4 w\n");
+      // 只剩将帅，局面已经结束
+      assertThrows(IllegalArgumentException.class, () -> Tournament.loadOpenings(file));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  void eachOpeningIsPlayedWithBothColoursAndWrittenToDisk() throws Exception {
+    EngineSpec test = EngineSpec.parse("without=LMR");
+    EngineSpec base = EngineSpec.parse("default");
+    Tournament tournament = new Tournament(List.of(Fen.START), test, base,
+        SearchLimits.of(2, 10_000, SearchLimits.UNLIMITED_NODES), new Sprt(0, 5, 0.05, 0.05), 2, 2);
+    Path pgn = Files.createTempFile("tournament", ".pgn");
+    try {
+      assertEquals(Sprt.Decision.CONTINUE, tournament.run(pgn, games -> { }));
+      String games = Files.readString(pgn);
+      assertTrue(games.contains("[Red \"without=LMR\"]\n[Black \"default\"]"), games);
+      assertTrue(games.contains("[Red \"default\"]\n[Black \"without=LMR\"]"), games);
+      assertTrue(games.contains("1. "), games);
+      assertTrue(tournament.summary().startsWith("2 局"), tournament.summary());
+      assertTrue(tournament.statistics().contains("nodes/s"), tournament.statistics());
+    } finally {
+      Files.delete(pgn);
+    }
+
+    Tournament.Game game = tournament.play(1);
+    assertTrue(!game.getMoves().isEmpty() && game.getTermination() != null);
+  }
+
+  @Test
+  void engineSpecRejectsUnknownOptions() {
+    assertThrows(IllegalArgumentException.class, () -> EngineSpec.parse("without=NOTHING"));
+    assertThrows(IllegalArgumentException.class, () -> EngineSpec.parse("threads=4"));
+    assertThrows(IllegalArgumentException.class, () -> EngineSpec.parse("hash=0"));
+  }
+}
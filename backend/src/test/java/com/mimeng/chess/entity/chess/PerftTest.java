@@ -0,0 +1,43 @@
+package com.mimeng.chess.entity.chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class PerftTest {
+
+  @Test
+  void startPosition() {
+    ChessBoard board = new ChessBoard();
+    long[] expected = { 44, 1920, 79666, 3290240 };
+    for (int depth = 1; depth <= expected.length; depth++) {
+      assertEquals(expected[depth - 1], Perft.perft(board, depth), "depth " + depth);
+    }
+    assertEquals(Fen.START, Fen.format(board));
+  }
+
+  @Test
+  void tacticalPositions() {
+    assertPerft("r1ba1a3/4kn3/2n1b4/pNp1p1p1p/4c4/6P2/P1P2R2P/1CcC5/9/2BAKAB2 w - - 0 1", 38, 1128, 43929);
+    assertPerft("5a3/3k5/3aR4/9/5r3/5n3/9/3A1A3/5K3/2BC2B2 w - - 0 1", 25, 424, 9850, 202884);
+    assertPerft("CRN1k1b2/3ca4/4ba3/9/2nr5/9/9/4B4/4A4/4KA3 w - - 0 1", 28, 516, 14808, 395483);
+    assertPerft("R1N1k1b2/9/3aba3/9/2nr5/2B6/9/4B4/4A4/4KA3 w - - 0 1", 21, 364, 7626, 162837);
+  }
+
+  @Test
+  void fenRoundTrip() {
+    String fen = "r1ba1a3/4kn3/2n1b4/pNp1p1p1p/4c4/6P2/P1P2R2P/1CcC5/9/2BAKAB2 b - - 0 1";
+    ChessBoard board = Fen.parse(fen);
+    assertEquals(fen, Fen.format(board));
+    assertEquals(board.computeZobristKey(), board.getZobristKey());
+    assertEquals(new ChessBoard().getZobristKey(), Fen.parse(Fen.START).getZobristKey());
+  }
+
+  private static void assertPerft(String fen, long... expected) {
+    ChessBoard board = Fen.parse(fen);
+    for (int depth = 1; depth <= expected.length; depth++) {
+      assertEquals(expected[depth - 1], Perft.perft(board, depth), fen + " depth " + depth);
+    }
+    assertEquals(fen, Fen.format(board));
+  }
+}
@@ -0,0 +1,58 @@
+package com.mimeng.chess.entity.chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class PieceSquareTableTest {
+
+  @Test
+  void incrementalScoresMatchRecomputationDuringRandomGames() {
+    Random random = new Random(20240715L);
+    int[] buffer = new int[MoveGenerator.MAX_MOVES];
+    int[] line = new int[200];
+
+    for (int game = 0; game < 100; game++) {
+      ChessBoard board = new ChessBoard();
+      int plies = 0;
+      while (plies < line.length) {
+        int count = MoveGenerator.generate(board, board.getSideToMove(), buffer, 0);
+        int move = PackedMove.NONE;
+        for (int tries = 0; tries < count && move == PackedMove.NONE; tries++) {
+          int candidate = buffer[random.nextInt(count)];
+          move = GameLogic.isLegal(board, candidate) ? candidate : PackedMove.NONE;
+        }
+        if (move == PackedMove.NONE) {
+          break;
+        }
+        board.makeMove(move);
+        line[plies++] = move;
+        assertScoresInSync(board);
+      }
+      while (plies > 0) {
+        board.undoMove(line[--plies]);
+        assertScoresInSync(board);
+      }
+    }
+  }
+
+  @Test
+  void startPositionIsBalancedAndCrossedPawnsGainValue() {
+    ChessBoard board = new ChessBoard();
+    assertEquals(board.getPieceSquareScore(PieceCode.SIDE_RED), board.getPieceSquareScore(PieceCode.SIDE_BLACK));
+
+    int pawn = PieceCode.RED | PieceCode.PAWN;
+    int crossed = PieceSquareTable.score(pawn, Square.of(4, 4)) - PieceSquareTable.score(pawn, Square.of(6, 4));
+    assertTrue(crossed >= PieceSquareTable.pieceValue(PieceCode.PAWN) / 2);
+    assertEquals(PieceSquareTable.score(pawn, Square.of(4, 2)),
+        PieceSquareTable.score(PieceCode.BLACK | PieceCode.PAWN, Square.of(5, 2)));
+  }
+
+  private static void assertScoresInSync(ChessBoard board) {
+    for (int side = 0; side < 2; side++) {
+      assertEquals(board.computePieceSquareScore(side), board.getPieceSquareScore(side));
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package com.mimeng.chess.entity.chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class RepetitionTrackerTest {
+
+  @Test
+  void idleShufflingIsDrawnOnThirdOccurrence() {
+    ChessGameState game = new ChessGameState("g", "r");
+    game.setStatus(GameStatus.PLAYING);
+
+    for (int round = 0; round < 2; round++) {
+      move(game, 9, 1, 7, 2);
+      move(game, 0, 1, 2, 2);
+      move(game, 7, 2, 9, 1);
+      assertEquals(GameStatus.PLAYING, game.getStatus());
+      move(game, 2, 2, 0, 1);
+    }
+
+    assertEquals(3, game.getRepetition().getRepetitionCount());
+    assertEquals(GameStatus.DRAW, game.getStatus());
+  }
+
+  @Test
+  void perpetualCheckLoses() {
+    ChessGameState game = emptyGame();
+    ChessBoard board = game.getBoard();
+    board.setPieceAt(new Position(9, 3), ChessPiece.of(PieceType.KING, PlayerColor.RED));
+    board.setPieceAt(new Position(0, 4), ChessPiece.of(PieceType.KING, PlayerColor.BLACK));
+    board.setPieceAt(new Position(1, 0), ChessPiece.of(PieceType.ROOK, PlayerColor.RED));
+    game.setCurrentPlayer(PlayerColor.RED);
+
+    for (int round = 0; round < 2; round++) {
+      move(game, 1, 0, 0, 0);
+      move(game, 0, 4, 1, 4);
+      move(game, 0, 0, 1, 0);
+      move(game, 1, 4, 0, 4);
+    }
+
+    assertEquals(GameStatus.BLACK_WIN, game.getStatus());
+    assertTrue(game.getGameRecord().contains(RepetitionTracker.Ruling.RED_PERPETUAL_CHECK.getDescription()));
+  }
+
+  @Test
+  void perpetualChaseOfUnprotectedPieceLoses() {
+    ChessGameState game = emptyGame();
+    ChessBoard board = game.getBoard();
+    board.setPieceAt(new Position(9, 3), ChessPiece.of(PieceType.KING, PlayerColor.RED));
+    board.setPieceAt(new Position(0, 4), ChessPiece.of(PieceType.KING, PlayerColor.BLACK));
+    board.setPieceAt(new Position(5, 1), ChessPiece.of(PieceType.ROOK, PlayerColor.RED));
+    board.setPieceAt(new Position(2, 0), ChessPiece.of(PieceType.HORSE, PlayerColor.BLACK));
+    game.setCurrentPlayer(PlayerColor.RED);
+
+    for (int round = 0; round < 2; round++) {
+      move(game, 5, 1, 5, 0);
+      move(game, 2, 0, 4, 1);
+      move(game, 5, 0, 5, 1);
+      move(game, 4, 1, 2, 0);
+    }
+
+    assertEquals(GameStatus.BLACK_WIN, game.getStatus());
+    assertTrue(game.getGameRecord().contains(RepetitionTracker.Ruling.RED_PERPETUAL_CHASE.getDescription()));
+  }
+
+  @Test
+  void naturalMoveLimitAndUndo() {
+    RepetitionTracker tracker = new RepetitionTracker(0L);
+    for (int ply = 1; ply < RepetitionTracker.NATURAL_MOVE_LIMIT; ply++) {
+      tracker.push(ply, ply & 1, false, false, false);
+    }
+    assertEquals(RepetitionTracker.Ruling.NONE, tracker.adjudicate());
+
+    tracker.push(-1L, PieceCode.SIDE_BLACK, false, false, false);
+    assertEquals(RepetitionTracker.Ruling.NATURAL_MOVE_LIMIT, tracker.adjudicate());
+
+    tracker.pop();
+    tracker.push(-1L, PieceCode.SIDE_BLACK, true, false, false);
+    assertEquals(0, tracker.getPliesSinceCapture());
+    assertEquals(RepetitionTracker.Ruling.NONE, tracker.adjudicate());
+  }
+
+  @Test
+  void popRestoresRepetitionCounts() {
+    RepetitionTracker tracker = new RepetitionTracker(10L);
+    tracker.push(20L, PieceCode.SIDE_RED, false, false, false);
+    tracker.push(10L, PieceCode.SIDE_BLACK, false, false, false);
+    assertEquals(2, tracker.getRepetitionCount());
+    assertTrue(tracker.contains(20L));
+
+    tracker.pop();
+    tracker.pop();
+    assertEquals(1, tracker.getRepetitionCount());
+    assertFalse(tracker.contains(20L));
+    assertEquals(0, tracker.getPlyCount());
+  }
+
+  private static ChessGameState emptyGame() {
+    ChessGameState game = new ChessGameState("g", "r");
+    game.setStatus(GameStatus.PLAYING);
+    ChessBoard board = game.getBoard();
+    for (int row = 0; row < 10; row++) {
+      for (int col = 0; col < 9; col++) {
+        board.removePieceAt(new Position(row, col));
+      }
+    }
+    return game;
+  }
+
+  private static void move(ChessGameState game, int fromRow, int fromCol, int toRow, int toCol) {
+    assertTrue(game.tryMove(new Position(fromRow, fromCol), new Position(toRow, toCol)),
+        "move " + fromRow + "," + fromCol + " -> " + toRow + "," + toCol);
+  }
+}
@@ -0,0 +1,115 @@
+package com.mimeng.chess.entity.chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class ZobristTest {
+
+  @Test
+  void incrementalKeyMatchesRecomputationDuringRandomGames() {
+    Random random = new Random(20240601L);
+    int[] buffer = new int[MoveGenerator.MAX_MOVES];
+    int[] line = new int[200];
+
+    for (int game = 0; game < 200; game++) {
+      ChessBoard board = new ChessBoard();
+      long startKey = board.getZobristKey();
+      assertEquals(board.computeZobristKey(), startKey);
+
+      int plies = 0;
+      while (plies < line.length) {
+        int count = MoveGenerator.generate(board, board.getSideToMove(), buffer, 0);
+        int move = pickLegal(board, buffer, count, random);
+        if (move == PackedMove.NONE || PieceCode.type(PackedMove.captured(move)) == PieceCode.KING) {
+          break;
+        }
+        board.makeMove(move);
+        line[plies++] = move;
+        assertEquals(board.computeZobristKey(), board.getZobristKey(), "after move " + plies);
+      }
+
+      // 全部撤销后应回到初始键
+      while (plies > 0) {
+        board.undoMove(line[--plies]);
+        assertEquals(board.computeZobristKey(), board.getZobristKey(), "after undo " + plies);
+      }
+      assertEquals(startKey, board.getZobristKey());
+    }
+  }
+
+  @Test
+  void objectApiKeepsKeyInSync() {
+    ChessGameState game = new ChessGameState("g", "r");
+    ChessBoard board = game.getBoard();
+    Random random = new Random(7L);
+
+    for (int i = 0; i < 60; i++) {
+      List<Move> moves = GameLogic.getLegalMoves(board, game.getCurrentPlayer());
+      if (moves.isEmpty()) {
+        break;
+      }
+      Move move = moves.get(random.nextInt(moves.size()));
+      Move done = board.makeMove(move.getFrom(), move.getTo());
+      game.setCurrentPlayer(game.getCurrentPlayer() == PlayerColor.RED ? PlayerColor.BLACK : PlayerColor.RED);
+      assertEquals(board.computeZobristKey(), board.getZobristKey());
+      assertEquals(PieceCode.sideOf(game.getCurrentPlayer()), board.getSideToMove());
+      if (i % 3 == 0) {
+        board.undoMove(done);
+        game.setCurrentPlayer(done.getPiece().getColor());
+        assertEquals(board.computeZobristKey(), board.getZobristKey());
+      }
+    }
+
+    ChessBoard copy = board.copy();
+    assertEquals(board.getZobristKey(), copy.getZobristKey());
+    board.setPieceAt(new Position(4, 4), null);
+    assertEquals(board.computeZobristKey(), board.getZobristKey());
+  }
+
+  @Test
+  void transpositionsShareKeyAndSideToMoveIsHashed() {
+    ChessBoard a = new ChessBoard();
+    play(a, 9, 1, 7, 2);
+    play(a, 0, 1, 2, 2);
+    play(a, 9, 7, 7, 6);
+    play(a, 0, 7, 2, 6);
+
+    ChessBoard b = new ChessBoard();
+    play(b, 9, 7, 7, 6);
+    play(b, 0, 7, 2, 6);
+    play(b, 9, 1, 7, 2);
+    play(b, 0, 1, 2, 2);
+
+    assertEquals(a.getZobristKey(), b.getZobristKey());
+
+    long key = a.getZobristKey();
+    a.setSideToMove(PieceCode.SIDE_BLACK);
+    assertNotEquals(key, a.getZobristKey());
+    assertEquals(a.computeZobristKey(), a.getZobristKey());
+  }
+
+  private static void play(ChessBoard board, int fromRow, int fromCol, int toRow, int toCol) {
+    Move move = board.makeMove(new Position(fromRow, fromCol), new Position(toRow, toCol));
+    assertNotNull(move);
+  }
+
+  private static int pickLegal(ChessBoard board, int[] moves, int count, Random random) {
+    for (int tries = 0; tries < count; tries++) {
+      int move = moves[random.nextInt(count)];
+      if (GameLogic.isLegal(board, move)) {
+        return move;
+      }
+    }
+    for (int i = 0; i < count; i++) {
+      if (GameLogic.isLegal(board, moves[i])) {
+        return moves[i];
+      }
+    }
+    return PackedMove.NONE;
+  }
+}
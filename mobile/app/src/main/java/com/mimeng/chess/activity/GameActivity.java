@@ -521,7 +521,7 @@ public class GameActivity extends BaseActivity implements SocketEventListener {
           StringBuilder boardDebug = new StringBuilder();
           for (int row = 0; row < 10; row++) {
             for (int col = 0; col < 9; col++) {
-              ChessPiece p = newGameState.getBoard().getPieceAt(new Position(row, col));
+              ChessPiece p = newGameState.getBoard().getPieceAt(Position.of(row, col));
               if (p != null) {
                 pieceCount++;
                 boardDebug
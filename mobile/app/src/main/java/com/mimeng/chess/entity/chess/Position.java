@@ -1,18 +1,47 @@
 package com.mimeng.chess.entity.chess;
 
-import java.util.Objects;
-
 /**
  * 棋盘坐标类
  * 中国象棋棋盘：10行9列 (0-9, 0-8)
+ * 不可变对象，棋盘内的90个坐标通过 {@link #of(int, int)} 共享同一实例
  */
 public class Position {
+  private static final int ROWS = 10;
+  private static final int COLS = 9;
+  private static final Position[] CACHE = new Position[ROWS * COLS];
+
+  static {
+    for (int row = 0; row < ROWS; row++) {
+      for (int col = 0; col < COLS; col++) {
+        CACHE[row * COLS + col] = new Position(row, col);
+      }
+    }
+  }
+
   private final int row; // 行 (0-9)
   private final int col; // 列 (0-8)
+  private final int index; // 棋盘内的序号 row * 9 + col，越界为-1
+  private final int hash;
 
   public Position(int row, int col) {
     this.row = row;
     this.col = col;
+    this.index = isValid(row, col) ? row * COLS + col : -1;
+    this.hash = 31 * (31 + row) + col;
+  }
+
+  /**
+   * 获取坐标实例：棋盘内返回缓存的共享实例，越界坐标才新建对象
+   */
+  public static Position of(int row, int col) {
+    return isValid(row, col) ? CACHE[row * COLS + col] : new Position(row, col);
+  }
+
+  /**
+   * 按棋盘内序号（row * 9 + col）获取共享实例
+   */
+  public static Position ofIndex(int index) {
+    return CACHE[index];
   }
 
   public int getRow() {
@@ -23,11 +52,22 @@ public class Position {
     return col;
   }
 
+  /**
+   * 棋盘内的序号 row * 9 + col (0-89)，越界坐标为-1
+   */
+  public int getIndex() {
+    return index;
+  }
+
   /**
    * 检查坐标是否在棋盘范围内
    */
   public boolean isValid() {
-    return row >= 0 && row <= 9 && col >= 0 && col <= 8;
+    return index >= 0;
+  }
+
+  private static boolean isValid(int row, int col) {
+    return row >= 0 && row < ROWS && col >= 0 && col < COLS;
   }
 
   /**
@@ -76,7 +116,7 @@ public class Position {
    * 创建新的位置
    */
   public Position move(int deltaRow, int deltaCol) {
-    return new Position(row + deltaRow, col + deltaCol);
+    return of(row + deltaRow, col + deltaCol);
   }
 
   @Override
@@ -91,7 +131,7 @@ public class Position {
 
   @Override
   public int hashCode() {
-    return Objects.hash(row, col);
+    return hash;
   }
 
   @Override
@@ -77,7 +77,7 @@ public class GameStateJsonUtils {
     // 先清空棋盘，防止残留
     for (int i = 0; i < 10; i++) {
       for (int j = 0; j < 9; j++) {
-        board.setPieceAt(new Position(i, j), null);
+        board.setPieceAt(Position.of(i, j), null);
       }
     }
     if (boardJson.has("pieces")) {
@@ -95,7 +95,7 @@ public class GameStateJsonUtils {
           if (piece != null) {
             int row = pieceObj.get("row").getAsInt();
             int col = pieceObj.get("col").getAsInt();
-            board.setPieceAt(new Position(row, col), piece);
+            board.setPieceAt(Position.of(row, col), piece);
           }
         }
       }
@@ -116,11 +116,11 @@ public class GameStateJsonUtils {
           String pieceTypeStr = pieceElement.getAsString();
           android.util.Log.d("GameStateJsonUtils",
               "parseBoardFrom2DArray: row=" + row + ", col=" + col + ", pieceTypeStr=" + pieceTypeStr);
-          ChessPiece piece = parsePieceFromString(pieceTypeStr, new Position(row, col));
+          ChessPiece piece = parsePieceFromString(pieceTypeStr, Position.of(row, col));
           if (piece != null) {
             android.util.Log.d("GameStateJsonUtils", "parseBoardFrom2DArray: setPieceAt row=" + row + ", col=" + col
                 + ", piece=" + piece.getClass().getSimpleName() + ", color=" + piece.getColor());
-            board.setPieceAt(new Position(row, col), piece);
+            board.setPieceAt(Position.of(row, col), piece);
           } else {
             android.util.Log.w("GameStateJsonUtils", "parseBoardFrom2DArray: failed to parse piece at row=" + row
                 + ", col=" + col + ", str=" + pieceTypeStr);
@@ -178,7 +178,7 @@ public class GameStateJsonUtils {
       PlayerColor color = "red".equalsIgnoreCase(colorStr) ? PlayerColor.RED : PlayerColor.BLACK;
       int row = pieceJson.get("row").getAsInt();
       int col = pieceJson.get("col").getAsInt();
-      Position position = new Position(row, col);
+      Position position = Position.of(row, col);
 
       switch (type.toLowerCase()) {
         case "king":
@@ -236,7 +236,7 @@ public class GameStateJsonUtils {
         JsonObject moveObj = element.getAsJsonObject();
         int row = moveObj.get("row").getAsInt();
         int col = moveObj.get("col").getAsInt();
-        moves.add(new Position(row, col));
+        moves.add(Position.of(row, col));
       }
     }
 
@@ -251,8 +251,8 @@ public class GameStateJsonUtils {
       JsonObject fromObj = json.getAsJsonObject("from");
       JsonObject toObj = json.getAsJsonObject("to");
 
-      Position from = new Position(fromObj.get("row").getAsInt(), fromObj.get("col").getAsInt());
-      Position to = new Position(toObj.get("row").getAsInt(), toObj.get("col").getAsInt());
+      Position from = Position.of(fromObj.get("row").getAsInt(), fromObj.get("col").getAsInt());
+      Position to = Position.of(toObj.get("row").getAsInt(), toObj.get("col").getAsInt());
 
       // 现在 Move 类有一个接受 from 和 to 的构造函数
       return new Move(from, to);
@@ -388,7 +388,7 @@ public class GameStateJsonUtils {
 
     for (int row = 0; row < 10; row++) {
       for (int col = 0; col < 9; col++) {
-        Position pos = new Position(row, col);
+        Position pos = Position.of(row, col);
         ChessPiece piece = board.getPieceAt(pos);
         if (piece != null) {
           JsonObject pieceObj = pieceToJson(piece);
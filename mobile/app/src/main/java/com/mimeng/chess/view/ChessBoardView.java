@@ -282,7 +282,7 @@ public class ChessBoardView extends View {
 
     for (int row = 0; row < ROWS; row++) {
       for (int col = 0; col < COLS; col++) {
-        ChessPiece piece = board.getPieceAt(new Position(row, col));
+        ChessPiece piece = board.getPieceAt(Position.of(row, col));
         if (piece != null) {
           drawPiece(canvas, piece, row, col);
           piecesDrawn++;
@@ -429,7 +429,7 @@ public class ChessBoardView extends View {
 
     // 检查边界
     if (row >= 0 && row < ROWS && col >= 0 && col < COLS) {
-      return new Position(row, col);
+      return Position.of(row, col);
     }
 
     return null;
@@ -30,39 +30,39 @@ public class ChessBoard {
     }
 
     // 黑方棋子（上方）
-    board[0][0] = new Rook(PlayerColor.BLACK, new Position(0, 0));
-    board[0][1] = new Horse(PlayerColor.BLACK, new Position(0, 1));
-    board[0][2] = new Elephant(PlayerColor.BLACK, new Position(0, 2));
-    board[0][3] = new Guard(PlayerColor.BLACK, new Position(0, 3));
-    board[0][4] = new King(PlayerColor.BLACK, new Position(0, 4));
-    board[0][5] = new Guard(PlayerColor.BLACK, new Position(0, 5));
-    board[0][6] = new Elephant(PlayerColor.BLACK, new Position(0, 6));
-    board[0][7] = new Horse(PlayerColor.BLACK, new Position(0, 7));
-    board[0][8] = new Rook(PlayerColor.BLACK, new Position(0, 8));
-
-    board[2][1] = new Cannon(PlayerColor.BLACK, new Position(2, 1));
-    board[2][7] = new Cannon(PlayerColor.BLACK, new Position(2, 7));
+    board[0][0] = new Rook(PlayerColor.BLACK, Position.of(0, 0));
+    board[0][1] = new Horse(PlayerColor.BLACK, Position.of(0, 1));
+    board[0][2] = new Elephant(PlayerColor.BLACK, Position.of(0, 2));
+    board[0][3] = new Guard(PlayerColor.BLACK, Position.of(0, 3));
+    board[0][4] = new King(PlayerColor.BLACK, Position.of(0, 4));
+    board[0][5] = new Guard(PlayerColor.BLACK, Position.of(0, 5));
+    board[0][6] = new Elephant(PlayerColor.BLACK, Position.of(0, 6));
+    board[0][7] = new Horse(PlayerColor.BLACK, Position.of(0, 7));
+    board[0][8] = new Rook(PlayerColor.BLACK, Position.of(0, 8));
+
+    board[2][1] = new Cannon(PlayerColor.BLACK, Position.of(2, 1));
+    board[2][7] = new Cannon(PlayerColor.BLACK, Position.of(2, 7));
 
     for (int col = 0; col < COLS; col += 2) {
-      board[3][col] = new Pawn(PlayerColor.BLACK, new Position(3, col));
+      board[3][col] = new Pawn(PlayerColor.BLACK, Position.of(3, col));
     }
 
     // 红方棋子（下方）
-    board[9][0] = new Rook(PlayerColor.RED, new Position(9, 0));
-    board[9][1] = new Horse(PlayerColor.RED, new Position(9, 1));
-    board[9][2] = new Elephant(PlayerColor.RED, new Position(9, 2));
-    board[9][3] = new Guard(PlayerColor.RED, new Position(9, 3));
-    board[9][4] = new King(PlayerColor.RED, new Position(9, 4));
-    board[9][5] = new Guard(PlayerColor.RED, new Position(9, 5));
-    board[9][6] = new Elephant(PlayerColor.RED, new Position(9, 6));
-    board[9][7] = new Horse(PlayerColor.RED, new Position(9, 7));
-    board[9][8] = new Rook(PlayerColor.RED, new Position(9, 8));
-
-    board[7][1] = new Cannon(PlayerColor.RED, new Position(7, 1));
-    board[7][7] = new Cannon(PlayerColor.RED, new Position(7, 7));
+    board[9][0] = new Rook(PlayerColor.RED, Position.of(9, 0));
+    board[9][1] = new Horse(PlayerColor.RED, Position.of(9, 1));
+    board[9][2] = new Elephant(PlayerColor.RED, Position.of(9, 2));
+    board[9][3] = new Guard(PlayerColor.RED, Position.of(9, 3));
+    board[9][4] = new King(PlayerColor.RED, Position.of(9, 4));
+    board[9][5] = new Guard(PlayerColor.RED, Position.of(9, 5));
+    board[9][6] = new Elephant(PlayerColor.RED, Position.of(9, 6));
+    board[9][7] = new Horse(PlayerColor.RED, Position.of(9, 7));
+    board[9][8] = new Rook(PlayerColor.RED, Position.of(9, 8));
+
+    board[7][1] = new Cannon(PlayerColor.RED, Position.of(7, 1));
+    board[7][7] = new Cannon(PlayerColor.RED, Position.of(7, 7));
 
     for (int col = 0; col < COLS; col += 2) {
-      board[6][col] = new Pawn(PlayerColor.RED, new Position(6, col));
+      board[6][col] = new Pawn(PlayerColor.RED, Position.of(6, col));
     }
   }
 
@@ -37,8 +37,8 @@ public class ChessGameExample {
     System.out.println(game.getBoard().toString());
 
     // 红方移动：兵三进一
-    Position from = new Position(6, 2); // 红兵位置
-    Position to = new Position(5, 2); // 向前一格
+    Position from = Position.of(6, 2); // 红兵位置
+    Position to = Position.of(5, 2); // 向前一格
 
     if (game.tryMove(from, to)) {
       System.out.println("红方：兵三进一");
@@ -46,8 +46,8 @@ public class ChessGameExample {
     }
 
     // 黑方移动：卒7进1
-    from = new Position(3, 6); // 黑卒位置
-    to = new Position(4, 6); // 向前一格
+    from = Position.of(3, 6); // 黑卒位置
+    to = Position.of(4, 6); // 向前一格
 
     if (game.tryMove(from, to)) {
       System.out.println("黑方：卒7进1");
@@ -93,7 +93,7 @@ public class ChessGameExample {
       ChessGameState game = room.getGameState();
 
       // 模拟前端选择棋子
-      Position piecePosition = new Position(6, 0); // 选择红方的兵
+      Position piecePosition = Position.of(6, 0); // 选择红方的兵
       if (game.selectPiece(piecePosition)) {
         System.out.println("选中棋子：" + piecePosition);
         System.out.println("可移动位置：");
@@ -128,7 +128,7 @@ public class ChessGameExample {
     handleGameStart(room);
 
     // 模拟Socket消息：玩家移动
-    handlePlayerMove(room, 1001L, new Position(6, 0), new Position(5, 0));
+    handlePlayerMove(room, 1001L, Position.of(6, 0), Position.of(5, 0));
   }
 
   /**
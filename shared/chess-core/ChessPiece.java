@@ -1,5 +1,6 @@
 package com.mimeng.chess.entity.chess;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -75,7 +76,7 @@ public abstract class ChessPiece {
     int currentCol = from.getCol() + colStep;
 
     while (currentRow != to.getRow() || currentCol != to.getCol()) {
-      if (board.getPieceAt(new Position(currentRow, currentCol)) != null) {
+      if (board.getPieceAt(Position.of(currentRow, currentCol)) != null) {
         return false;
       }
       currentRow += rowStep;
@@ -85,6 +86,46 @@ public abstract class ChessPiece {
     return true;
   }
 
+  /**
+   * 棋子当前所在格子编号（见 {@link Square}）
+   */
+  protected int square() {
+    return Square.of(position.getRow(), position.getCol());
+  }
+
+  /**
+   * 按落点表收集可以走到的位置
+   */
+  protected List<Position> collectTableMoves(int[] targets, ChessBoard board) {
+    List<Position> moves = new ArrayList<>(targets.length);
+    for (int to : targets) {
+      Position target = Position.of(Square.row(to), Square.col(to));
+      if (canMoveTo(target, board)) {
+        moves.add(target);
+      }
+    }
+    return moves;
+  }
+
+  /**
+   * 按落点表检查一步走法（将帅、士、兵卒）
+   */
+  protected boolean isTableStep(int[] targets, Position target) {
+    return MoveTables.indexOf(targets, Square.of(target.getRow(), target.getCol())) >= 0;
+  }
+
+  /**
+   * 按落点表检查可被蹩住的走法（马腿、象眼），blockers 与 targets 一一对应
+   */
+  protected boolean isUnblockedTableMove(int[] targets, int[] blockers, Position target, ChessBoard board) {
+    int index = MoveTables.indexOf(targets, Square.of(target.getRow(), target.getCol()));
+    if (index < 0) {
+      return false;
+    }
+    int blocker = blockers[index];
+    return board.getPieceAt(Position.of(Square.row(blocker), Square.col(blocker))) == null;
+  }
+
   /**
    * 检查目标位置是否可以放置（空位或敌方棋子）
    */
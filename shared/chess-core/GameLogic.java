@@ -168,7 +168,7 @@ public class GameLogic {
     int endRow = Math.max(redKing.getPosition().getRow(), blackKing.getPosition().getRow()) - 1;
 
     for (int row = startRow; row <= endRow; row++) {
-      if (board.getPieceAt(new Position(row, col)) != null) {
+      if (board.getPieceAt(Position.of(row, col)) != null) {
         return false;
       }
     }
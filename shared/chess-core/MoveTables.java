@@ -0,0 +1,206 @@
+package com.mimeng.chess.entity.chess;
+
+/**
+ * 预先计算的走法表
+ * 按起点格子（以及阵营）给出将帅、士、象、马、兵卒的全部落点，马腿、象眼与落点一一对应；
+ * 九宫和己方半场的判断也由表完成。表只在类加载时生成一次，走法生成和走法校验都只做查表
+ * 返回的数组为共享的只读数据，调用方不得修改
+ */
+public final class MoveTables {
+  private static final int[] EMPTY = new int[0];
+
+  private static final int[] ORTHOGONAL = { Square.UP, Square.DOWN, Square.LEFT, Square.RIGHT };
+  private static final int[] DIAGONAL = { Square.UP + Square.LEFT, Square.UP + Square.RIGHT,
+      Square.DOWN + Square.LEFT, Square.DOWN + Square.RIGHT };
+  private static final int[] HORSE_DELTAS = { -33, -31, 31, 33, -18, 14, -14, 18 };
+  private static final int[] HORSE_LEG_DELTAS = { -16, -16, 16, 16, -1, -1, 1, 1 };
+
+  private static final boolean[][] PALACE = new boolean[2][Square.SIZE];
+  private static final boolean[][] OWN_SIDE = new boolean[2][Square.SIZE];
+
+  private static final int[][][] KING_MOVES = new int[2][Square.SIZE][];
+  private static final int[][][] GUARD_MOVES = new int[2][Square.SIZE][];
+  private static final int[][][] ELEPHANT_MOVES = new int[2][Square.SIZE][];
+  private static final int[][][] ELEPHANT_EYES = new int[2][Square.SIZE][];
+  private static final int[][] HORSE_MOVES = new int[Square.SIZE][];
+  private static final int[][] HORSE_LEGS = new int[Square.SIZE][];
+  private static final int[][][] PAWN_MOVES = new int[2][Square.SIZE][];
+
+  static {
+    for (int side = 0; side < 2; side++) {
+      for (int sq = 0; sq < Square.SIZE; sq++) {
+        if (!Square.isOnBoard(sq)) {
+          continue;
+        }
+        int row = Square.row(sq);
+        int col = Square.col(sq);
+        PALACE[side][sq] = col >= 3 && col <= 5
+            && (side == PieceCode.SIDE_RED ? row >= 7 : row <= 2);
+        OWN_SIDE[side][sq] = side == PieceCode.SIDE_RED ? row >= 5 : row <= 4;
+      }
+    }
+
+    for (int sq = 0; sq < Square.SIZE; sq++) {
+      for (int side = 0; side < 2; side++) {
+        KING_MOVES[side][sq] = EMPTY;
+        GUARD_MOVES[side][sq] = EMPTY;
+        ELEPHANT_MOVES[side][sq] = EMPTY;
+        ELEPHANT_EYES[side][sq] = EMPTY;
+        PAWN_MOVES[side][sq] = EMPTY;
+      }
+      HORSE_MOVES[sq] = EMPTY;
+      HORSE_LEGS[sq] = EMPTY;
+      if (!Square.isOnBoard(sq)) {
+        continue;
+      }
+
+      int[] targets = new int[8];
+      int[] blockers = new int[8];
+      int count = 0;
+      for (int i = 0; i < HORSE_DELTAS.length; i++) {
+        int to = sq + HORSE_DELTAS[i];
+        if (Square.isOnBoard(to)) {
+          targets[count] = to;
+          blockers[count++] = sq + HORSE_LEG_DELTAS[i];
+        }
+      }
+      HORSE_MOVES[sq] = trim(targets, count);
+      HORSE_LEGS[sq] = trim(blockers, count);
+
+      for (int side = 0; side < 2; side++) {
+        if (PALACE[side][sq]) {
+          count = 0;
+          for (int delta : ORTHOGONAL) {
+            if (isInPalace(sq + delta, side)) {
+              targets[count++] = sq + delta;
+            }
+          }
+          KING_MOVES[side][sq] = trim(targets, count);
+
+          count = 0;
+          for (int delta : DIAGONAL) {
+            if (isInPalace(sq + delta, side)) {
+              targets[count++] = sq + delta;
+            }
+          }
+          GUARD_MOVES[side][sq] = trim(targets, count);
+        }
+
+        if (OWN_SIDE[side][sq]) {
+          count = 0;
+          for (int delta : DIAGONAL) {
+            int to = sq + 2 * delta;
+            if (isOnOwnSide(to, side)) {
+              targets[count] = to;
+              blockers[count++] = sq + delta;
+            }
+          }
+          ELEPHANT_MOVES[side][sq] = trim(targets, count);
+          ELEPHANT_EYES[side][sq] = trim(blockers, count);
+        }
+
+        // 兵卒：向前一步；过河后可左右移动
+        count = 0;
+        int forward = sq + Square.forward(side);
+        if (Square.isOnBoard(forward)) {
+          targets[count++] = forward;
+        }
+        if (!OWN_SIDE[side][sq]) {
+          for (int delta = Square.LEFT; delta <= Square.RIGHT; delta += 2) {
+            if (Square.isOnBoard(sq + delta)) {
+              targets[count++] = sq + delta;
+            }
+          }
+        }
+        PAWN_MOVES[side][sq] = trim(targets, count);
+      }
+    }
+  }
+
+  private MoveTables() {
+  }
+
+  /**
+   * 格子是否在指定阵营的九宫内（棋盘外的格子返回 false）
+   */
+  public static boolean isInPalace(int square, int side) {
+    return square >= 0 && square < Square.SIZE && PALACE[side][square];
+  }
+
+  /**
+   * 格子是否在指定阵营的己方半场（棋盘外的格子返回 false）
+   */
+  public static boolean isOnOwnSide(int square, int side) {
+    return square >= 0 && square < Square.SIZE && OWN_SIDE[side][square];
+  }
+
+  /**
+   * 将帅的落点（九宫内上下左右一步）
+   */
+  public static int[] kingMoves(int side, int square) {
+    return KING_MOVES[side][square];
+  }
+
+  /**
+   * 士的落点（九宫内斜走一步）
+   */
+  public static int[] guardMoves(int side, int square) {
+    return GUARD_MOVES[side][square];
+  }
+
+  /**
+   * 象的落点（不过河）
+   */
+  public static int[] elephantMoves(int side, int square) {
+    return ELEPHANT_MOVES[side][square];
+  }
+
+  /**
+   * 与 {@link #elephantMoves} 一一对应的象眼
+   */
+  public static int[] elephantEyes(int side, int square) {
+    return ELEPHANT_EYES[side][square];
+  }
+
+  /**
+   * 马的落点
+   */
+  public static int[] horseMoves(int square) {
+    return HORSE_MOVES[square];
+  }
+
+  /**
+   * 与 {@link #horseMoves} 一一对应的马腿
+   */
+  public static int[] horseLegs(int square) {
+    return HORSE_LEGS[square];
+  }
+
+  /**
+   * 兵卒的落点（过河前只能向前，过河后可左右移动）
+   */
+  public static int[] pawnMoves(int side, int square) {
+    return PAWN_MOVES[side][square];
+  }
+
+  /**
+   * 在落点表中查找目标格子的下标，找不到返回-1
+   */
+  public static int indexOf(int[] targets, int square) {
+    for (int i = 0; i < targets.length; i++) {
+      if (targets[i] == square) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static int[] trim(int[] values, int count) {
+    if (count == 0) {
+      return EMPTY;
+    }
+    int[] result = new int[count];
+    System.arraycopy(values, 0, result, 0, count);
+    return result;
+  }
+}
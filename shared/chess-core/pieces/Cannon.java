@@ -97,7 +97,7 @@ public class Cannon extends ChessPiece {
     int currentCol = from.getCol() + colStep;
 
     while (currentRow != to.getRow() || currentCol != to.getCol()) {
-      if (board.getPieceAt(new Position(currentRow, currentCol)) != null) {
+      if (board.getPieceAt(Position.of(currentRow, currentCol)) != null) {
         pieceCount++;
       }
       currentRow += rowStep;